@@ -7,11 +7,11 @@ set SCRIPT_DIR=%~dp0
 set PROJECT_ROOT=%SCRIPT_DIR%\..
 cd /d "%PROJECT_ROOT%"
 
-call gradlew.bat clean build packageLambda --stacktrace
+call gradlew.bat clean build packageLambda packageSlimLambdas --stacktrace
 if errorlevel 1 (
     echo [ERROR] Gradle build/package failed
     exit /b 1
 )
 
-echo [INFO] Lambda artifact created at build\distributions\lambda-deployment.zip
+echo [INFO] Lambda artifacts created at build\distributions\lambda-monitor.zip, lambda-batching.zip and lambda-validation.zip
 endlocal
@@ -4,9 +4,9 @@ set -e
 SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
 PROJECT_ROOT="$(dirname "$SCRIPT_DIR")"
 cd "$PROJECT_ROOT"
-./gradlew clean build packageLambda --stacktrace
+./gradlew clean build packageLambda packageSlimLambdas --stacktrace
 if [ $? -ne 0 ]; then
     echo "[ERROR] Gradle build/package failed"
     exit 1
 fi
-echo "[INFO] Lambda artifact created at build/distributions/lambda-deployment.zip"
+echo "[INFO] Lambda artifacts created at build/distributions/lambda-{monitor,batching,validation}.zip"
@@ -60,10 +60,12 @@ if errorlevel 1 (
     )
 )
 
-:: Upload artifact to S3
-echo [INFO] Uploading Lambda artifact to s3://%DEPLOY_BUCKET%/lambda-deployment.zip
-aws s3 cp build\distributions\lambda-deployment.zip s3://%DEPLOY_BUCKET%/lambda-deployment.zip --profile %AWS_PROFILE% --region %AWS_REGION%
-if errorlevel 1 exit /b 1
+:: Upload one artifact per Lambda function to S3
+for %%F in (monitor batching validation) do (
+    echo [INFO] Uploading Lambda artifact to s3://%DEPLOY_BUCKET%/lambda-%%F.zip
+    aws s3 cp build\distributions\lambda-%%F.zip s3://%DEPLOY_BUCKET%/lambda-%%F.zip --profile %AWS_PROFILE% --region %AWS_REGION%
+    if errorlevel 1 exit /b 1
+)
 
 :: Deploy stack
 echo [INFO] Deploying CloudFormation stack: s3-file-processor-%ENVIRONMENT%
@@ -1,15 +1,19 @@
 #!/bin/bash
-# Usage: scripts/deploy-stack.sh [environment] [aws-profile] [aws-region] [deploy-bucket]
+# Usage: scripts/deploy-stack.sh [environment] [aws-profile] [aws-region] [deploy-bucket] [java17|native]
 ENVIRONMENT=${1:-dev}
 AWS_PROFILE=${2:-default}
 AWS_REGION=${3:-us-east-1}
 DEPLOY_BUCKET=${4:-s3-file-processor-$ENVIRONMENT-auto}
+LAMBDA_RUNTIME=${5:-java17}
 SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
-ARTIFACT_PATH="$SCRIPT_DIR/../build/distributions/lambda-deployment.zip"
+ARTIFACT_DIR="$SCRIPT_DIR/../build/distributions"
 TEMPLATE_PATH="$SCRIPT_DIR/../src/main/resources/cloudformation/main-stack.yml"
 
 # Build and package artifacts
 "$SCRIPT_DIR/build-artifacts.sh" || { echo "[ERROR] Build failed"; exit 1; }
+if [ "$LAMBDA_RUNTIME" = "native" ]; then
+  (cd "$SCRIPT_DIR/.." && ./gradlew -Pnative packageNativeLambda) || { echo "[ERROR] Native image build failed"; exit 1; }
+fi
 
 # Validate template
 "$SCRIPT_DIR/validate-template.sh" "$AWS_PROFILE" "$AWS_REGION" || { echo "[ERROR] Template validation failed"; exit 1; }
@@ -32,16 +36,22 @@ elif echo "$BUCKET_EXISTS" | grep -q 'Bad Request'; then
   echo "[ERROR] Bucket name $DEPLOY_BUCKET is invalid."; exit 1
 fi
 
-# Upload artifact to S3
-echo "[INFO] Uploading Lambda artifact to s3://$DEPLOY_BUCKET/lambda-deployment.zip"
-aws s3 cp "$ARTIFACT_PATH" "s3://$DEPLOY_BUCKET/lambda-deployment.zip" --profile "$AWS_PROFILE" --region "$AWS_REGION" || { echo "[ERROR] Artifact upload failed"; exit 1; }
+# Upload one artifact per Lambda function to S3
+for FUNCTION in monitor batching validation; do
+  echo "[INFO] Uploading Lambda artifact to s3://$DEPLOY_BUCKET/lambda-$FUNCTION.zip"
+  aws s3 cp "$ARTIFACT_DIR/lambda-$FUNCTION.zip" "s3://$DEPLOY_BUCKET/lambda-$FUNCTION.zip" --profile "$AWS_PROFILE" --region "$AWS_REGION" || { echo "[ERROR] Artifact upload failed"; exit 1; }
+done
+if [ "$LAMBDA_RUNTIME" = "native" ]; then
+  echo "[INFO] Uploading Lambda artifact to s3://$DEPLOY_BUCKET/lambda-native.zip"
+  aws s3 cp "$ARTIFACT_DIR/lambda-native.zip" "s3://$DEPLOY_BUCKET/lambda-native.zip" --profile "$AWS_PROFILE" --region "$AWS_REGION" || { echo "[ERROR] Artifact upload failed"; exit 1; }
+fi
 
 # Deploy stack
 echo "[INFO] Deploying CloudFormation stack: s3-file-processor-$ENVIRONMENT"
 aws cloudformation deploy \
   --template-file "$TEMPLATE_PATH" \
   --stack-name "s3-file-processor-$ENVIRONMENT" \
-  --parameter-overrides Environment="$ENVIRONMENT" BucketName="$DEPLOY_BUCKET" \
+  --parameter-overrides Environment="$ENVIRONMENT" BucketName="$DEPLOY_BUCKET" LambdaRuntime="$LAMBDA_RUNTIME" \
   --capabilities CAPABILITY_IAM CAPABILITY_NAMED_IAM \
   --profile "$AWS_PROFILE" --region "$AWS_REGION" || { echo "[ERROR] Stack deployment failed"; exit 1; }
 
@@ -0,0 +1,449 @@
+package com.example.s3processor.local;
+
+import com.example.s3processor.service.RequestCounter;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ServiceClientConfiguration;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+/**
+ * In-memory stand-in for S3 used by local runs and benchmarks.
+ * Implements the operations the services use: listing, head, get, put, copy, single and
+ * multi-object delete, multipart upload and bucket checks. Every request is counted and timed
+ * per operation, and can be slowed by a fixed simulated latency. Objects seeded with
+ * putSynthetic keep only their size and ETag and return generated content when read.
+ * Additional checksums requested on put or copy are computed from the content and returned
+ * by copy and by head requests with checksum mode enabled.
+ */
+public class InMemoryS3Client implements S3Client {
+    
+    private static final int MAX_KEYS = 1000;
+    
+    private final Map<String, ConcurrentSkipListMap<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> multipartUploads = new ConcurrentHashMap<>();
+    private final Map<String, OperationStats> stats = new ConcurrentSkipListMap<>();
+    private final long latencyNanos;
+    
+    public InMemoryS3Client() {
+        this(0);
+    }
+    
+    /**
+     * @param latencyMicros simulated service latency added to every request
+     */
+    public InMemoryS3Client(long latencyMicros) {
+        this.latencyNanos = latencyMicros * 1000L;
+    }
+    
+    /**
+     * Add an object without counting a request; its content is generated when read
+     */
+    public void putSynthetic(String bucketName, String key, long size, String eTag, Instant lastModified) {
+        bucket(bucketName).put(key, new StoredObject(size, eTag, lastModified, null, null));
+    }
+    
+    /**
+     * Request statistics per operation, sorted by operation name
+     */
+    public List<OperationStats> getOperationStats() {
+        return new ArrayList<>(stats.values());
+    }
+    
+    public void resetOperationStats() {
+        stats.clear();
+    }
+    
+    public long countObjects(String bucketName, String prefix) {
+        return bucket(bucketName).subMap(prefix, true, prefix + Character.MAX_VALUE, false).size();
+    }
+    
+    @Override
+    public HeadBucketResponse headBucket(HeadBucketRequest request) {
+        return timed("HeadBucket", () -> {
+            bucket(request.bucket());
+            return HeadBucketResponse.builder().build();
+        });
+    }
+    
+    @Override
+    public CreateBucketResponse createBucket(CreateBucketRequest request) {
+        return timed("CreateBucket", () -> {
+            buckets.putIfAbsent(request.bucket(), new ConcurrentSkipListMap<>());
+            return CreateBucketResponse.builder().location("/" + request.bucket()).build();
+        });
+    }
+    
+    @Override
+    public ListObjectsV2Response listObjectsV2(ListObjectsV2Request request) {
+        return timed("ListObjectsV2", () -> {
+            ConcurrentSkipListMap<String, StoredObject> objects = bucket(request.bucket());
+            String prefix = request.prefix() != null ? request.prefix() : "";
+            // Continuation tokens are the last key returned, which S3 treats as opaque
+            String after = request.continuationToken() != null ? request.continuationToken() : request.startAfter();
+            NavigableMap<String, StoredObject> view = after != null && after.compareTo(prefix) >= 0
+                    ? objects.tailMap(after, false)
+                    : objects.tailMap(prefix, true);
+            int maxKeys = request.maxKeys() != null ? Math.min(request.maxKeys(), MAX_KEYS) : MAX_KEYS;
+            
+            List<S3Object> contents = new ArrayList<>();
+            boolean truncated = false;
+            for (Map.Entry<String, StoredObject> entry : view.entrySet()) {
+                if (!entry.getKey().startsWith(prefix)) {
+                    break;
+                }
+                if (contents.size() == maxKeys) {
+                    truncated = true;
+                    break;
+                }
+                StoredObject object = entry.getValue();
+                contents.add(S3Object.builder()
+                        .key(entry.getKey())
+                        .size(object.size)
+                        .eTag(object.eTag)
+                        .lastModified(object.lastModified)
+                        .storageClass(ObjectStorageClass.STANDARD)
+                        .build());
+            }
+            
+            return ListObjectsV2Response.builder()
+                    .name(request.bucket())
+                    .prefix(request.prefix())
+                    .contents(contents)
+                    .keyCount(contents.size())
+                    .maxKeys(maxKeys)
+                    .isTruncated(truncated)
+                    .nextContinuationToken(truncated ? contents.get(contents.size() - 1).key() : null)
+                    .build();
+        });
+    }
+    
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest request) {
+        return timed("HeadObject", () -> {
+            StoredObject object = object(request.bucket(), request.key());
+            HeadObjectResponse.Builder response = HeadObjectResponse.builder()
+                    .contentLength(object.size)
+                    .eTag(object.eTag)
+                    .lastModified(object.lastModified);
+            if (request.checksumMode() == ChecksumMode.ENABLED && object.checksumAlgorithm != null) {
+                String checksum = object.checksum();
+                switch (object.checksumAlgorithm) {
+                    case CRC32:
+                        response.checksumCRC32(checksum);
+                        break;
+                    case CRC32_C:
+                        response.checksumCRC32C(checksum);
+                        break;
+                    case SHA1:
+                        response.checksumSHA1(checksum);
+                        break;
+                    default:
+                        response.checksumSHA256(checksum);
+                }
+            }
+            return response.build();
+        });
+    }
+    
+    @Override
+    public <ReturnT> ReturnT getObject(GetObjectRequest request,
+                                       ResponseTransformer<GetObjectResponse, ReturnT> responseTransformer) {
+        return timed("GetObject", () -> {
+            StoredObject object = object(request.bucket(), request.key());
+            GetObjectResponse response = GetObjectResponse.builder()
+                    .contentLength(object.size)
+                    .eTag(object.eTag)
+                    .lastModified(object.lastModified)
+                    .build();
+            try {
+                return responseTransformer.transform(response,
+                        AbortableInputStream.create(new ByteArrayInputStream(object.content())));
+            } catch (Exception e) {
+                throw SdkClientException.create("Failed to transform object " + request.key(), e);
+            }
+        });
+    }
+    
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest request, RequestBody requestBody) {
+        return timed("PutObject", () -> {
+            byte[] content = readBody(requestBody);
+            StoredObject object = new StoredObject(content.length, quotedMd5(content), Instant.now(), content,
+                    request.checksumAlgorithm());
+            bucket(request.bucket()).put(request.key(), object);
+            return PutObjectResponse.builder().eTag(object.eTag).build();
+        });
+    }
+    
+    @Override
+    public CopyObjectResponse copyObject(CopyObjectRequest request) {
+        return timed("CopyObject", () -> {
+            String sourceKey = request.sourceKey();
+            StoredObject source = object(request.sourceBucket(), sourceKey);
+            if (request.copySourceIfMatch() != null && !request.copySourceIfMatch().equals(source.eTag)) {
+                throw S3Exception.builder().statusCode(412).message("PreconditionFailed " + sourceKey).build();
+            }
+            ChecksumAlgorithm algorithm = request.checksumAlgorithm() != null ? request.checksumAlgorithm() : source.checksumAlgorithm;
+            StoredObject copy = new StoredObject(source.size, source.eTag, Instant.now(), source.content, algorithm);
+            bucket(request.destinationBucket()).put(request.destinationKey(), copy);
+            
+            CopyObjectResult.Builder result = CopyObjectResult.builder().eTag(copy.eTag).lastModified(copy.lastModified);
+            if (algorithm != null) {
+                String checksum = copy.checksum();
+                switch (algorithm) {
+                    case CRC32:
+                        result.checksumCRC32(checksum);
+                        break;
+                    case CRC32_C:
+                        result.checksumCRC32C(checksum);
+                        break;
+                    case SHA1:
+                        result.checksumSHA1(checksum);
+                        break;
+                    default:
+                        result.checksumSHA256(checksum);
+                }
+            }
+            return CopyObjectResponse.builder().copyObjectResult(result.build()).build();
+        });
+    }
+    
+    @Override
+    public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+        return timed("DeleteObject", () -> {
+            bucket(request.bucket()).remove(request.key());
+            return DeleteObjectResponse.builder().build();
+        });
+    }
+    
+    @Override
+    public DeleteObjectsResponse deleteObjects(DeleteObjectsRequest request) {
+        return timed("DeleteObjects", () -> {
+            ConcurrentSkipListMap<String, StoredObject> objects = bucket(request.bucket());
+            List<DeletedObject> deleted = new ArrayList<>();
+            for (ObjectIdentifier identifier : request.delete().objects()) {
+                objects.remove(identifier.key());
+                deleted.add(DeletedObject.builder().key(identifier.key()).build());
+            }
+            boolean quiet = Boolean.TRUE.equals(request.delete().quiet());
+            return DeleteObjectsResponse.builder().deleted(quiet ? List.of() : deleted).build();
+        });
+    }
+    
+    @Override
+    public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+        return timed("CreateMultipartUpload", () -> {
+            bucket(request.bucket());
+            String uploadId = UUID.randomUUID().toString();
+            multipartUploads.put(uploadId, new ConcurrentHashMap<>());
+            return CreateMultipartUploadResponse.builder()
+                    .bucket(request.bucket())
+                    .key(request.key())
+                    .uploadId(uploadId)
+                    .build();
+        });
+    }
+    
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody requestBody) {
+        return timed("UploadPart", () -> {
+            byte[] content = readBody(requestBody);
+            upload(request.uploadId()).put(request.partNumber(), content);
+            return UploadPartResponse.builder().eTag(quotedMd5(content)).build();
+        });
+    }
+    
+    @Override
+    public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        return timed("CompleteMultipartUpload", () -> {
+            Map<Integer, byte[]> parts = upload(request.uploadId());
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            ByteArrayOutputStream partDigests = new ByteArrayOutputStream();
+            List<CompletedPart> completedParts = request.multipartUpload().parts();
+            for (CompletedPart completedPart : completedParts) {
+                byte[] part = parts.get(completedPart.partNumber());
+                if (part == null) {
+                    throw S3Exception.builder().statusCode(400).message("InvalidPart " + completedPart.partNumber()).build();
+                }
+                content.writeBytes(part);
+                partDigests.writeBytes(md5(part));
+            }
+            multipartUploads.remove(request.uploadId());
+            
+            byte[] bytes = content.toByteArray();
+            String eTag = "\"" + HexFormat.of().formatHex(md5(partDigests.toByteArray())) + "-" + completedParts.size() + "\"";
+            bucket(request.bucket()).put(request.key(), new StoredObject(bytes.length, eTag, Instant.now(), bytes, null));
+            return CompleteMultipartUploadResponse.builder()
+                    .bucket(request.bucket())
+                    .key(request.key())
+                    .eTag(eTag)
+                    .build();
+        });
+    }
+    
+    @Override
+    public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+        return timed("AbortMultipartUpload", () -> {
+            multipartUploads.remove(request.uploadId());
+            return AbortMultipartUploadResponse.builder().build();
+        });
+    }
+    
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+    
+    @Override
+    public S3ServiceClientConfiguration serviceClientConfiguration() {
+        return S3ServiceClientConfiguration.builder().region(Region.US_EAST_1).build();
+    }
+    
+    @Override
+    public void close() {
+    }
+    
+    private <T> T timed(String operation, Supplier<T> request) {
+        long start = System.nanoTime();
+        try {
+            if (latencyNanos > 0) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+            return request.get();
+        } finally {
+            stats.computeIfAbsent(operation, OperationStats::new).record(System.nanoTime() - start);
+            RequestCounter.shared().recordCall(operation);
+        }
+    }
+    
+    private ConcurrentSkipListMap<String, StoredObject> bucket(String bucketName) {
+        ConcurrentSkipListMap<String, StoredObject> objects = buckets.get(bucketName);
+        if (objects == null) {
+            throw NoSuchBucketException.builder().statusCode(404).message("The specified bucket does not exist: " + bucketName).build();
+        }
+        return objects;
+    }
+    
+    private StoredObject object(String bucketName, String key) {
+        StoredObject object = bucket(bucketName).get(key);
+        if (object == null) {
+            throw NoSuchKeyException.builder().statusCode(404).message("The specified key does not exist: " + key).build();
+        }
+        return object;
+    }
+    
+    private Map<Integer, byte[]> upload(String uploadId) {
+        Map<Integer, byte[]> parts = multipartUploads.get(uploadId);
+        if (parts == null) {
+            throw NoSuchUploadException.builder().statusCode(404).message("No such upload: " + uploadId).build();
+        }
+        return parts;
+    }
+    
+    private static byte[] readBody(RequestBody requestBody) {
+        try (InputStream input = requestBody.contentStreamProvider().newStream()) {
+            return input.readAllBytes();
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to read request body", e);
+        }
+    }
+    
+    private static String quotedMd5(byte[] content) {
+        return "\"" + HexFormat.of().formatHex(md5(content)) + "\"";
+    }
+    
+    private static byte[] md5(byte[] content) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static class StoredObject {
+        
+        private final long size;
+        private final String eTag;
+        private final Instant lastModified;
+        private final byte[] content;
+        private final ChecksumAlgorithm checksumAlgorithm;
+        
+        private StoredObject(long size, String eTag, Instant lastModified, byte[] content, ChecksumAlgorithm checksumAlgorithm) {
+            this.size = size;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.content = content;
+            this.checksumAlgorithm = checksumAlgorithm;
+        }
+        
+        /**
+         * Base64 checksum of the content with the stored algorithm, as S3 reports it
+         */
+        private String checksum() {
+            byte[] bytes = content();
+            try {
+                switch (checksumAlgorithm) {
+                    case CRC32: {
+                        CRC32 crc = new CRC32();
+                        crc.update(bytes);
+                        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+                    }
+                    case CRC32_C: {
+                        CRC32C crc = new CRC32C();
+                        crc.update(bytes);
+                        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+                    }
+                    case SHA1:
+                        return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1").digest(bytes));
+                    default:
+                        return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(bytes));
+                }
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        
+        /**
+         * Stored bytes, or generated filler derived from the ETag for synthetic objects,
+         * so objects with equal ETags read back identical content
+         */
+        private byte[] content() {
+            if (content != null) {
+                return content;
+            }
+            byte[] generated = new byte[Math.toIntExact(size)];
+            int seed = eTag != null ? eTag.hashCode() : 0;
+            for (int i = 0; i < generated.length; i++) {
+                seed = seed * 1103515245 + 12345;
+                generated[i] = (byte) (seed >>> 24);
+            }
+            return generated;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.s3processor.local;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Lambda Context for handlers invoked in-process by the LocalWorkflowEngine
+ */
+public class LocalLambdaContext implements Context {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LocalLambdaContext.class);
+    private static final int MEMORY_LIMIT_MB = 1024;
+    
+    private final String functionName;
+    private final String awsRequestId;
+    private final long deadlineMillis;
+    
+    public LocalLambdaContext(String functionName, long timeoutMillis) {
+        this.functionName = functionName;
+        this.awsRequestId = UUID.randomUUID().toString();
+        this.deadlineMillis = System.currentTimeMillis() + timeoutMillis;
+    }
+    
+    @Override
+    public String getAwsRequestId() {
+        return awsRequestId;
+    }
+    
+    @Override
+    public String getLogGroupName() {
+        return "/aws/lambda/" + functionName;
+    }
+    
+    @Override
+    public String getLogStreamName() {
+        return "local";
+    }
+    
+    @Override
+    public String getFunctionName() {
+        return functionName;
+    }
+    
+    @Override
+    public String getFunctionVersion() {
+        return "$LATEST";
+    }
+    
+    @Override
+    public String getInvokedFunctionArn() {
+        return "arn:aws:lambda:local:000000000000:function:" + functionName;
+    }
+    
+    @Override
+    public CognitoIdentity getIdentity() {
+        return null;
+    }
+    
+    @Override
+    public ClientContext getClientContext() {
+        return null;
+    }
+    
+    @Override
+    public int getRemainingTimeInMillis() {
+        return (int) Math.max(0, deadlineMillis - System.currentTimeMillis());
+    }
+    
+    @Override
+    public int getMemoryLimitInMB() {
+        return MEMORY_LIMIT_MB;
+    }
+    
+    @Override
+    public LambdaLogger getLogger() {
+        return new LambdaLogger() {
+            @Override
+            public void log(String message) {
+                logger.info("[{}] {}", functionName, message);
+            }
+            
+            @Override
+            public void log(byte[] message) {
+                log(new String(message, StandardCharsets.UTF_8));
+            }
+        };
+    }
+}
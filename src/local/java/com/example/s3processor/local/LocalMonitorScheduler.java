@@ -0,0 +1,29 @@
+package com.example.s3processor.local;
+
+import com.example.s3processor.service.MonitorScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MonitorScheduler stand-in for local runs and tests. Records each requested delay
+ * so the caller can decide when to run the monitor again.
+ */
+public class LocalMonitorScheduler implements MonitorScheduler {
+    
+    private final List<Long> scheduledDelays = new ArrayList<>();
+    
+    @Override
+    public synchronized void scheduleNext(long delaySeconds) {
+        scheduledDelays.add(delaySeconds);
+    }
+    
+    /**
+     * Delays requested since the last call, in request order
+     */
+    public synchronized List<Long> drainScheduledDelays() {
+        List<Long> drained = new ArrayList<>(scheduledDelays);
+        scheduledDelays.clear();
+        return drained;
+    }
+}
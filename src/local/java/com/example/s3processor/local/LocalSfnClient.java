@@ -0,0 +1,102 @@
+package com.example.s3processor.local;
+
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sfn.SfnClient;
+import software.amazon.awssdk.services.sfn.SfnServiceClientConfiguration;
+import software.amazon.awssdk.services.sfn.model.ListExecutionsRequest;
+import software.amazon.awssdk.services.sfn.model.ListExecutionsResponse;
+import software.amazon.awssdk.services.sfn.model.ListStateMachinesRequest;
+import software.amazon.awssdk.services.sfn.model.ListStateMachinesResponse;
+import software.amazon.awssdk.services.sfn.model.StartExecutionRequest;
+import software.amazon.awssdk.services.sfn.model.StartExecutionResponse;
+import software.amazon.awssdk.services.sfn.model.StateMachineListItem;
+import software.amazon.awssdk.services.sfn.model.StateMachineType;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Step Functions stand-in for local runs. Exposes the project's two state machines and
+ * queues every StartExecution so the caller can run it with the LocalWorkflowEngine.
+ * No execution is ever reported as running.
+ */
+public class LocalSfnClient implements SfnClient {
+    
+    private static final String ARN_PREFIX = "arn:aws:states:local:000000000000:";
+    
+    private final String environment;
+    private final List<StartExecutionRequest> startedExecutions = new ArrayList<>();
+    
+    public LocalSfnClient(String environment) {
+        this.environment = environment;
+    }
+    
+    /**
+     * Template resource name of the state machine an execution was started on, e.g. FileProcessingStateMachine
+     */
+    public String resourceNameOf(String stateMachineArn) {
+        if (stateMachineArn.endsWith(":file-processing-" + environment)) {
+            return "FileProcessingStateMachine";
+        }
+        if (stateMachineArn.endsWith(":file-validation-" + environment)) {
+            return "FileValidationStateMachine";
+        }
+        throw new IllegalArgumentException("Unknown state machine: " + stateMachineArn);
+    }
+    
+    /**
+     * Executions started since the last call, in start order
+     */
+    public synchronized List<StartExecutionRequest> drainStartedExecutions() {
+        List<StartExecutionRequest> drained = new ArrayList<>(startedExecutions);
+        startedExecutions.clear();
+        return drained;
+    }
+    
+    @Override
+    public ListStateMachinesResponse listStateMachines(ListStateMachinesRequest request) {
+        return ListStateMachinesResponse.builder()
+                .stateMachines(stateMachine("file-processing-" + environment),
+                        stateMachine("file-validation-" + environment))
+                .build();
+    }
+    
+    @Override
+    public synchronized StartExecutionResponse startExecution(StartExecutionRequest request) {
+        startedExecutions.add(request);
+        String executionArn = request.stateMachineArn().replace(":stateMachine:", ":execution:") + ":" + request.name();
+        return StartExecutionResponse.builder()
+                .executionArn(executionArn)
+                .startDate(Instant.now())
+                .build();
+    }
+    
+    @Override
+    public ListExecutionsResponse listExecutions(ListExecutionsRequest request) {
+        return ListExecutionsResponse.builder().executions(List.of()).build();
+    }
+    
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+    
+    @Override
+    public SfnServiceClientConfiguration serviceClientConfiguration() {
+        return SfnServiceClientConfiguration.builder().region(Region.US_EAST_1).build();
+    }
+    
+    @Override
+    public void close() {
+    }
+    
+    private static StateMachineListItem stateMachine(String name) {
+        return StateMachineListItem.builder()
+                .name(name)
+                .stateMachineArn(ARN_PREFIX + "stateMachine:" + name)
+                .type(StateMachineType.STANDARD)
+                .creationDate(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,490 @@
+package com.example.s3processor.local;
+
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.lambda.FileBatchingLambda;
+import com.example.s3processor.lambda.FileValidationLambda;
+import com.example.s3processor.lambda.S3MonitorLambda;
+import com.example.s3processor.service.S3Service;
+import com.example.s3processor.service.StepFunctionService;
+import com.example.s3processor.service.ValidationCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the project's ASL state machines in-process, invoking the Lambda handlers directly.
+ * Covers the subset of ASL the definitions in main-stack.yml use: Task (direct Lambda ARNs and
+ * lambda:invoke), Map, Pass, Choice, Wait (Seconds or SecondsPath), Succeed and Fail states,
+ * Parameters with ".$" paths, and Retry and Catch on Task and Map states. Unsupported constructs fail with States.Runtime.
+ */
+public class LocalWorkflowEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LocalWorkflowEngine.class);
+    
+    private static final String LAMBDA_INVOKE = "arn:aws:states:::lambda:invoke";
+    private static final Pattern FUNCTION_REFERENCE = Pattern.compile("^\\$\\{([A-Za-z0-9]+)\\.Arn}$");
+    private static final long TASK_TIMEOUT_MILLIS = 900_000L;
+    
+    private final Map<String, RequestStreamHandler> handlers;
+    private final double retryDelayScale;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * @param handlers        Lambda handlers keyed by their CloudFormation resource name, e.g. FileBatchingLambda
+     * @param retryDelayScale multiplier for Retry intervals and Wait states; 1.0 waits as Step Functions would,
+     *                        0 retries and moves on at once
+     */
+    public LocalWorkflowEngine(Map<String, RequestStreamHandler> handlers, double retryDelayScale) {
+        this.handlers = handlers;
+        this.retryDelayScale = retryDelayScale;
+        this.objectMapper = new ObjectMapper();
+    }
+    
+    /**
+     * Run a state machine from the bundled template, e.g. FileProcessingStateMachine
+     */
+    public WorkflowRun execute(String resourceName, JsonNode input) throws IOException {
+        return execute(resourceName, StateMachineDefinitions.load(resourceName), input);
+    }
+    
+    public WorkflowRun execute(String name, JsonNode definition, JsonNode input) {
+        WorkflowRun run = new WorkflowRun(name);
+        ObjectNode contextObject = objectMapper.createObjectNode();
+        ObjectNode execution = contextObject.putObject("Execution");
+        execution.put("Name", UUID.randomUUID().toString());
+        execution.set("Input", input);
+        contextObject.putObject("StateMachine").put("Name", name);
+        
+        long start = System.nanoTime();
+        try {
+            run.setOutput(runStates(definition, input, contextObject, run));
+            run.setStatus(WorkflowRun.SUCCEEDED);
+        } catch (StateFailure e) {
+            run.setStatus(WorkflowRun.FAILED);
+            run.setError(e.error);
+            run.setCause(e.detail);
+        }
+        run.setDurationMillis((System.nanoTime() - start) / 1_000_000L);
+        
+        logger.info("Local run of {} finished {} in {} ms", name, run.getStatus(), run.getDurationMillis());
+        return run;
+    }
+    
+    private JsonNode runStates(JsonNode machine, JsonNode input, ObjectNode contextObject, WorkflowRun run) {
+        JsonNode states = machine.path("States");
+        String stateName = machine.path("StartAt").asText();
+        JsonNode data = input;
+        
+        while (true) {
+            JsonNode state = states.get(stateName);
+            if (state == null) {
+                throw new StateFailure("States.Runtime", "Unknown state: " + stateName);
+            }
+            
+            long start = System.nanoTime();
+            Transition transition;
+            try {
+                transition = runState(stateName, state, data, contextObject, run);
+            } finally {
+                run.record(stateName, System.nanoTime() - start);
+            }
+            
+            data = transition.output;
+            if (transition.next == null) {
+                return data;
+            }
+            stateName = transition.next;
+        }
+    }
+    
+    private Transition runState(String stateName, JsonNode state, JsonNode input, ObjectNode contextObject, WorkflowRun run) {
+        String type = state.path("Type").asText();
+        switch (type) {
+            case "Pass": {
+                JsonNode result = state.has("Result") ? state.get("Result")
+                        : state.has("Parameters") ? resolveParameters(state.get("Parameters"), input, contextObject) : input;
+                return new Transition(applyResultPath(state, input, result), next(state));
+            }
+            case "Succeed":
+                return new Transition(input, null);
+            case "Fail":
+                throw new StateFailure(state.path("Error").asText("States.Fail"), state.path("Cause").asText(null));
+            case "Choice":
+                return new Transition(input, choose(state, input));
+            case "Wait": {
+                long seconds = state.has("SecondsPath")
+                        ? path(state.get("SecondsPath").asText(), input, contextObject).asLong()
+                        : state.path("Seconds").asLong(0);
+                sleep((long) (seconds * 1000 * retryDelayScale));
+                return new Transition(input, next(state));
+            }
+            case "Task":
+            case "Map":
+                return runWithRetryAndCatch(stateName, state, input, contextObject, run);
+            default:
+                throw new StateFailure("States.Runtime", "Unsupported state type " + type + " in " + stateName);
+        }
+    }
+    
+    private Transition runWithRetryAndCatch(String stateName, JsonNode state, JsonNode input,
+                                            ObjectNode contextObject, WorkflowRun run) {
+        int[] attempts = new int[state.path("Retry").size()];
+        while (true) {
+            try {
+                JsonNode output = "Task".equals(state.path("Type").asText())
+                        ? runTask(state, input, contextObject)
+                        : runMap(stateName, state, input, contextObject, run);
+                return new Transition(applyResultPath(state, input, output), next(state));
+                
+            } catch (StateFailure failure) {
+                long delayMillis = retryDelay(state.path("Retry"), attempts, failure.error);
+                if (delayMillis >= 0) {
+                    logger.info("Retrying {} after {}: attempt {}", stateName, failure.error, sum(attempts));
+                    sleep(delayMillis);
+                    continue;
+                }
+                
+                for (JsonNode catcher : state.path("Catch")) {
+                    if (matches(catcher.path("ErrorEquals"), failure.error)) {
+                        ObjectNode errorOutput = objectMapper.createObjectNode();
+                        errorOutput.put("Error", failure.error);
+                        errorOutput.put("Cause", failure.detail);
+                        return new Transition(errorOutput, catcher.path("Next").asText());
+                    }
+                }
+                throw failure;
+            }
+        }
+    }
+    
+    /**
+     * Place a state's result as its ResultPath directs: "$" (the default) replaces the input,
+     * null keeps the input unchanged, and "$.a.b" sets the result at that field of a copy of the input
+     */
+    private JsonNode applyResultPath(JsonNode state, JsonNode input, JsonNode result) {
+        if (!state.has("ResultPath")) {
+            return result;
+        }
+        JsonNode resultPath = state.get("ResultPath");
+        if (resultPath.isNull()) {
+            return input;
+        }
+        if (resultPath.asText().equals("$")) {
+            return result;
+        }
+        
+        ObjectNode output = input.isObject() ? input.deepCopy() : objectMapper.createObjectNode();
+        String[] fields = resultPath.asText().substring(2).split("\\.");
+        ObjectNode parent = output;
+        for (int i = 0; i < fields.length - 1; i++) {
+            parent = parent.get(fields[i]) instanceof ObjectNode ? (ObjectNode) parent.get(fields[i]) : parent.putObject(fields[i]);
+        }
+        parent.set(fields[fields.length - 1], result);
+        return output;
+    }
+    
+    /**
+     * Delay before the next attempt under the first matching retrier, or -1 when it is exhausted
+     */
+    private long retryDelay(JsonNode retriers, int[] attempts, String error) {
+        for (int i = 0; i < retriers.size(); i++) {
+            JsonNode retrier = retriers.get(i);
+            if (!matches(retrier.path("ErrorEquals"), error)) {
+                continue;
+            }
+            if (attempts[i] >= retrier.path("MaxAttempts").asInt(3)) {
+                return -1;
+            }
+            double intervalSeconds = retrier.path("IntervalSeconds").asDouble(1.0);
+            double backoffRate = retrier.path("BackoffRate").asDouble(2.0);
+            long delayMillis = (long) (intervalSeconds * Math.pow(backoffRate, attempts[i]) * 1000 * retryDelayScale);
+            attempts[i]++;
+            return delayMillis;
+        }
+        return -1;
+    }
+    
+    private JsonNode runTask(JsonNode state, JsonNode input, ObjectNode contextObject) {
+        String resource = state.path("Resource").asText();
+        JsonNode parameters = state.has("Parameters") ? resolveParameters(state.get("Parameters"), input, contextObject) : input;
+        
+        if (LAMBDA_INVOKE.equals(resource)) {
+            JsonNode payload = parameters.has("Payload") ? parameters.get("Payload") : NullNode.getInstance();
+            ObjectNode output = objectMapper.createObjectNode();
+            output.put("StatusCode", 200);
+            output.set("Payload", invoke(functionOf(parameters.path("FunctionName").asText()), payload));
+            return output;
+        }
+        return invoke(functionOf(resource), parameters);
+    }
+    
+    private JsonNode invoke(String functionName, JsonNode payload) {
+        RequestStreamHandler handler = handlers.get(functionName);
+        if (handler == null) {
+            throw new StateFailure("States.Runtime", "No local handler registered for " + functionName);
+        }
+        
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            handler.handleRequest(new ByteArrayInputStream(objectMapper.writeValueAsBytes(payload)), output,
+                    new LocalLambdaContext(functionName, TASK_TIMEOUT_MILLIS));
+            return output.size() == 0 ? NullNode.getInstance() : objectMapper.readTree(output.toByteArray());
+        } catch (Exception e) {
+            // Step Functions reports a Java Lambda failure under the exception's class name
+            throw new StateFailure(e.getClass().getName(), e.getMessage());
+        }
+    }
+    
+    private JsonNode runMap(String stateName, JsonNode state, JsonNode input, ObjectNode contextObject, WorkflowRun run) {
+        JsonNode items = path(state.path("ItemsPath").asText("$"), input, contextObject);
+        if (!items.isArray()) {
+            throw new StateFailure("States.Runtime", "ItemsPath of " + stateName + " is not an array");
+        }
+        JsonNode iterator = state.has("ItemProcessor") ? state.get("ItemProcessor") : state.get("Iterator");
+        int maxConcurrency = state.has("MaxConcurrencyPath")
+                ? path(state.get("MaxConcurrencyPath").asText(), input, contextObject).asInt(0)
+                : state.path("MaxConcurrency").asInt(0);
+        int threads = Math.max(1, maxConcurrency > 0 ? Math.min(maxConcurrency, items.size()) : items.size());
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService mapExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "local-map-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        try {
+            List<Future<JsonNode>> iterations = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                ObjectNode iterationContext = contextObject.deepCopy();
+                ObjectNode item = iterationContext.putObject("Map").putObject("Item");
+                item.put("Index", i);
+                item.set("Value", items.get(i));
+                JsonNode iterationInput = state.has("Parameters")
+                        ? resolveParameters(state.get("Parameters"), input, iterationContext)
+                        : items.get(i);
+                iterations.add(mapExecutor.submit(() -> runStates(iterator, iterationInput, iterationContext, run)));
+            }
+            
+            ArrayNode results = objectMapper.createArrayNode();
+            for (Future<JsonNode> iteration : iterations) {
+                results.add(iteration.get());
+            }
+            return results;
+            
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StateFailure) {
+                throw (StateFailure) e.getCause();
+            }
+            throw new StateFailure("States.Runtime", String.valueOf(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StateFailure("States.Runtime", "Interrupted while running " + stateName);
+        } finally {
+            mapExecutor.shutdownNow();
+        }
+    }
+    
+    private String choose(JsonNode state, JsonNode input) {
+        for (JsonNode choice : state.path("Choices")) {
+            JsonNode value = input.at(toPointer(choice.path("Variable").asText()));
+            if (choice.has("BooleanEquals") && value.isBoolean()
+                    && value.asBoolean() == choice.get("BooleanEquals").asBoolean()) {
+                return choice.path("Next").asText();
+            }
+            if (choice.has("StringEquals") && value.isTextual()
+                    && value.asText().equals(choice.get("StringEquals").asText())) {
+                return choice.path("Next").asText();
+            }
+            if (choice.has("NumericEquals") && value.isNumber()
+                    && value.asDouble() == choice.get("NumericEquals").asDouble()) {
+                return choice.path("Next").asText();
+            }
+        }
+        if (!state.has("Default")) {
+            throw new StateFailure("States.NoChoiceMatched", "No choice matched and no Default is set");
+        }
+        return state.get("Default").asText();
+    }
+    
+    private JsonNode resolveParameters(JsonNode template, JsonNode input, ObjectNode contextObject) {
+        if (template.isObject()) {
+            ObjectNode resolved = objectMapper.createObjectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = template.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getKey().endsWith(".$")) {
+                    String key = field.getKey().substring(0, field.getKey().length() - 2);
+                    resolved.set(key, path(field.getValue().asText(), input, contextObject));
+                } else {
+                    resolved.set(field.getKey(), resolveParameters(field.getValue(), input, contextObject));
+                }
+            }
+            return resolved;
+        }
+        if (template.isArray()) {
+            ArrayNode resolved = objectMapper.createArrayNode();
+            template.forEach(element -> resolved.add(resolveParameters(element, input, contextObject)));
+            return resolved;
+        }
+        return template;
+    }
+    
+    /**
+     * Evaluate a reference path such as $, $.batchPrefixes or $$.Map.Item.Value
+     */
+    private JsonNode path(String path, JsonNode input, ObjectNode contextObject) {
+        JsonNode root = input;
+        String relative = path;
+        if (path.startsWith("$$")) {
+            root = contextObject;
+            relative = path.substring(1);
+        }
+        if (!relative.startsWith("$")) {
+            throw new StateFailure("States.Runtime", "Unsupported path: " + path);
+        }
+        JsonNode value = root.at(toPointer(relative));
+        if (value.isMissingNode()) {
+            throw new StateFailure("States.Runtime", "Path " + path + " not found in input");
+        }
+        return value;
+    }
+    
+    private static String toPointer(String path) {
+        if (path.equals("$")) {
+            return "";
+        }
+        if (!path.startsWith("$.") || path.contains("[")) {
+            throw new StateFailure("States.Runtime", "Unsupported path: " + path);
+        }
+        return "/" + path.substring(2).replace('.', '/');
+    }
+    
+    private static String functionOf(String reference) {
+        Matcher matcher = FUNCTION_REFERENCE.matcher(reference);
+        if (!matcher.matches()) {
+            throw new StateFailure("States.Runtime", "Unsupported task resource: " + reference);
+        }
+        return matcher.group(1);
+    }
+    
+    private static boolean matches(JsonNode errorEquals, String error) {
+        for (JsonNode expected : errorEquals) {
+            String name = expected.asText();
+            if (name.equals("States.ALL") || name.equals(error)
+                    || (name.equals("States.TaskFailed") && !error.startsWith("States."))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String next(JsonNode state) {
+        return state.path("End").asBoolean(false) ? null : state.path("Next").asText(null);
+    }
+    
+    private static int sum(int[] values) {
+        int total = 0;
+        for (int value : values) {
+            total += value;
+        }
+        return total;
+    }
+    
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StateFailure("States.Runtime", "Interrupted while waiting");
+        }
+    }
+    
+    private static class Transition {
+        
+        private final JsonNode output;
+        private final String next;
+        
+        private Transition(JsonNode output, String next) {
+            this.output = output;
+            this.next = next;
+        }
+    }
+    
+    /**
+     * A state failure carrying its ASL error name and cause
+     */
+    private static class StateFailure extends RuntimeException {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final String error;
+        private final String detail;
+        
+        private StateFailure(String error, String detail) {
+            super(error + ": " + detail);
+            this.error = error;
+            this.detail = detail;
+        }
+    }
+    
+    /**
+     * Run a state machine from the bundled template against the handlers, backed by an in-memory S3
+     * and a recording Step Functions client so a run never reaches AWS. The configured bucket and
+     * the input's bucketName start out empty.
+     * Usage: LocalWorkflowEngine &lt;StateMachineResource&gt; '&lt;input json&gt;'
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: LocalWorkflowEngine <StateMachineResource> [input-json]");
+            System.exit(2);
+        }
+        
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode input = objectMapper.readTree(args.length > 1 ? args[1] : "{}");
+        AppConfig config = new AppConfig();
+        InMemoryS3Client s3Client = new InMemoryS3Client();
+        Set<String> buckets = new LinkedHashSet<>(List.of(config.getBucketName(), input.path("bucketName").asText("")));
+        buckets.remove("");
+        buckets.forEach(bucket -> s3Client.createBucket(CreateBucketRequest.builder().bucket(bucket).build()));
+        
+        S3Service s3Service = new S3Service(s3Client, config);
+        StepFunctionService stepFunctionService = new StepFunctionService(new LocalSfnClient(config.getEnvironment()), config);
+        Map<String, RequestStreamHandler> handlers = Map.of(
+                "FileBatchingLambda", new FileBatchingLambda(s3Service, config),
+                "FileValidationLambda", new FileValidationLambda(s3Service,
+                        new ValidationCache(config.getValidationCacheMaxEntries(), null), config),
+                "S3MonitorLambda", new S3MonitorLambda(s3Service, stepFunctionService, config));
+        LocalWorkflowEngine engine = new LocalWorkflowEngine(handlers, 1.0);
+        
+        WorkflowRun run = engine.execute(args[0], input);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(run));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.s3processor.local;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request count and latency distribution of one operation.
+ * Latencies are kept in logarithmic buckets (16 per power of two, about 4% wide),
+ * so recording is lock-free and memory stays constant however many requests are made.
+ */
+public class OperationStats {
+    
+    private static final int BUCKETS_PER_DOUBLING = 16;
+    private static final int BUCKET_COUNT = 64 * BUCKETS_PER_DOUBLING;
+    
+    @JsonProperty("operation")
+    private final String operation;
+    
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    
+    public OperationStats(String operation) {
+        this.operation = operation;
+    }
+    
+    public void record(long elapsedNanos) {
+        requests.increment();
+        totalNanos.add(elapsedNanos);
+        buckets.incrementAndGet(bucketOf(elapsedNanos));
+    }
+    
+    public String getOperation() {
+        return operation;
+    }
+    
+    @JsonProperty("requests")
+    public long getRequests() {
+        return requests.sum();
+    }
+    
+    @JsonProperty("meanMillis")
+    public double getMeanMillis() {
+        long count = requests.sum();
+        return count == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / count;
+    }
+    
+    @JsonProperty("p50Millis")
+    public double getP50Millis() {
+        return percentileMillis(0.50);
+    }
+    
+    @JsonProperty("p99Millis")
+    public double getP99Millis() {
+        return percentileMillis(0.99);
+    }
+    
+    @JsonProperty("p999Millis")
+    public double getP999Millis() {
+        return percentileMillis(0.999);
+    }
+    
+    /**
+     * Upper bound of the bucket holding the given quantile
+     */
+    public double percentileMillis(double quantile) {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += buckets.get(i);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return upperBoundNanos(i) / 1_000_000.0;
+            }
+        }
+        return upperBoundNanos(BUCKET_COUNT - 1) / 1_000_000.0;
+    }
+    
+    private static int bucketOf(long nanos) {
+        double doublings = Math.log(Math.max(1, nanos)) / Math.log(2);
+        return Math.min(BUCKET_COUNT - 1, (int) (doublings * BUCKETS_PER_DOUBLING));
+    }
+    
+    private static double upperBoundNanos(int bucket) {
+        return Math.pow(2, (bucket + 1) / (double) BUCKETS_PER_DOUBLING);
+    }
+}
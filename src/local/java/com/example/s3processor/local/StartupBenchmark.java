@@ -0,0 +1,146 @@
+package com.example.s3processor.local;
+
+import com.example.s3processor.lambda.StartupProbe;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cold-start comparison of deployment artifacts. Each run starts a fresh JVM with only the
+ * artifact and StartupProbe on the classpath, or runs a native image executable with --probe,
+ * and the benchmark reports per artifact and handler the artifact size and the median
+ * class-loading time, init duration, loaded class count and peak resident memory.
+ *
+ * Arguments:
+ *   label=Handler@artifact   one or more, e.g. validation=FileValidationLambda@build/distributions/lambda-validation.zip;
+ *                            an artifact that is not a .jar or .zip is run as a native image
+ *   runs=N                   JVM launches per artifact (5)
+ *   report=FILE              output file; stdout when unset
+ *
+ * The child JVMs use -XX:TieredStopAtLevel=1 as the Lambda Java runtime does. AWS calls made
+ * during init, such as the state machine lookup of S3MonitorLambda, go to a refused local
+ * endpoint with a single attempt, so network time is kept out of the measurement.
+ */
+public class StartupBenchmark {
+    
+    private static final String HANDLER_PACKAGE = "com.example.s3processor.lambda.";
+    private static final String UNREACHABLE_ENDPOINT = "http://127.0.0.1:9";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path probeDir;
+    
+    public StartupBenchmark() throws IOException {
+        // Only the probe class goes on the child classpath, never the rest of the build output
+        this.probeDir = Files.createTempDirectory("startup-probe");
+        String resource = StartupProbe.class.getName().replace('.', '/') + ".class";
+        Path target = probeDir.resolve(resource);
+        Files.createDirectories(target.getParent());
+        try (InputStream input = StartupProbe.class.getClassLoader().getResourceAsStream(resource)) {
+            Files.copy(input, target);
+        }
+    }
+    
+    public ObjectNode measure(String label, String handler, File artifact, int runs) throws IOException, InterruptedException {
+        String handlerClass = handler.contains(".") ? handler : HANDLER_PACKAGE + handler;
+        List<JsonNode> samples = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            samples.add(probe(handlerClass, artifact));
+        }
+        
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("label", label);
+        result.put("handler", handlerClass);
+        result.put("artifact", artifact.getPath());
+        result.put("artifactBytes", artifact.length());
+        result.put("runs", runs);
+        for (String metric : List.of("jvmToMainMillis", "classLoadMillis", "initMillis", "loadedClasses", "peakRssKb")) {
+            result.put(metric, median(samples, metric));
+        }
+        return result;
+    }
+    
+    private JsonNode probe(String handlerClass, File artifact) throws IOException, InterruptedException {
+        ProcessBuilder builder;
+        String name = artifact.getName();
+        if (name.endsWith(".jar") || name.endsWith(".zip")) {
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            builder = new ProcessBuilder(java, "-XX:+TieredCompilation", "-XX:TieredStopAtLevel=1",
+                    "-cp", probeDir + File.pathSeparator + artifact.getAbsolutePath(),
+                    StartupProbe.class.getName(), handlerClass);
+        } else {
+            builder = new ProcessBuilder(artifact.getAbsolutePath(), "--probe", handlerClass);
+        }
+        builder.environment().put("AWS_REGION", "us-east-1");
+        builder.environment().put("AWS_ACCESS_KEY_ID", "startup-benchmark");
+        builder.environment().put("AWS_SECRET_ACCESS_KEY", "startup-benchmark");
+        builder.environment().put("AWS_EC2_METADATA_DISABLED", "true");
+        builder.environment().put("AWS_ENDPOINT_URL", UNREACHABLE_ENDPOINT);
+        builder.environment().put("AWS_MAX_ATTEMPTS", "1");
+        builder.redirectErrorStream(true);
+        
+        Process process = builder.start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exitCode = process.waitFor();
+        String line = output.lines().filter(l -> l.startsWith("{\"jvmToMainMillis\"")).reduce((a, b) -> b).orElse(null);
+        if (exitCode != 0 || line == null) {
+            throw new IllegalStateException("Startup probe of " + handlerClass + " in " + artifact
+                    + " failed with exit code " + exitCode + ":\n" + output);
+        }
+        return objectMapper.readTree(line);
+    }
+    
+    private static double median(List<JsonNode> samples, String metric) {
+        double[] values = samples.stream().mapToDouble(sample -> sample.get(metric).asDouble()).sorted().toArray();
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int runs = 5;
+        String reportFile = null;
+        StartupBenchmark benchmark = new StartupBenchmark();
+        ArrayNode results = benchmark.objectMapper.createArrayNode();
+        List<String[]> artifacts = new ArrayList<>();
+        
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                System.err.println("Arguments must be key=value pairs: " + arg);
+                System.exit(2);
+            }
+            String key = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            if (key.equals("runs")) {
+                runs = Integer.parseInt(value);
+            } else if (key.equals("report")) {
+                reportFile = value;
+            } else if (value.contains("@")) {
+                artifacts.add(new String[] {key, value.substring(0, value.indexOf('@')), value.substring(value.indexOf('@') + 1)});
+            } else {
+                System.err.println("Expected label=Handler@artifact: " + arg);
+                System.exit(2);
+            }
+        }
+        
+        for (String[] artifact : artifacts) {
+            results.add(benchmark.measure(artifact[0], artifact[1], new File(artifact[2]), runs));
+            System.err.println("Measured " + artifact[0] + ": " + results.get(results.size() - 1));
+        }
+        
+        if (reportFile != null) {
+            benchmark.objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(reportFile), results);
+        } else {
+            System.out.println(benchmark.objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(results));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.s3processor.local;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the ASL definitions embedded in the CloudFormation template.
+ * Each state machine resource carries its definition as a "DefinitionString: !Sub |" block;
+ * the block is parsed as JSON with its ${Resource.Arn} placeholders left in place.
+ */
+public final class StateMachineDefinitions {
+    
+    public static final String TEMPLATE_RESOURCE = "cloudformation/main-stack.yml";
+    
+    private static final String DEFINITION_MARKER = "DefinitionString: !Sub |";
+    
+    private StateMachineDefinitions() {
+    }
+    
+    /**
+     * Load a state machine definition, such as FileProcessingStateMachine, from the bundled template
+     */
+    public static JsonNode load(String resourceName) throws IOException {
+        try (InputStream template = StateMachineDefinitions.class.getClassLoader().getResourceAsStream(TEMPLATE_RESOURCE)) {
+            if (template == null) {
+                throw new IOException("Template not found on classpath: " + TEMPLATE_RESOURCE);
+            }
+            return load(template, resourceName);
+        }
+    }
+    
+    public static JsonNode load(InputStream template, String resourceName) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(template, StandardCharsets.UTF_8));
+        String resourceLine = "  " + resourceName + ":";
+        boolean inResource = false;
+        String line;
+        
+        while ((line = reader.readLine()) != null) {
+            if (line.equals(resourceLine)) {
+                inResource = true;
+            } else if (inResource && line.trim().equals(DEFINITION_MARKER)) {
+                return new ObjectMapper().readTree(readBlock(reader, indentOf(line)));
+            } else if (inResource && isTopLevelResource(line)) {
+                break;
+            }
+        }
+        throw new IOException("No state machine definition found for resource: " + resourceName);
+    }
+    
+    /**
+     * Read a YAML block scalar: every following line indented deeper than its key
+     */
+    private static String readBlock(BufferedReader reader, int keyIndent) throws IOException {
+        StringBuilder block = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank() && indentOf(line) <= keyIndent) {
+                break;
+            }
+            block.append(line).append('\n');
+        }
+        return block.toString();
+    }
+    
+    private static boolean isTopLevelResource(String line) {
+        return indentOf(line) == 2 && line.trim().endsWith(":") && !line.trim().startsWith("#");
+    }
+    
+    private static int indentOf(String line) {
+        int indent = 0;
+        while (indent < line.length() && line.charAt(indent) == ' ') {
+            indent++;
+        }
+        return indent;
+    }
+}
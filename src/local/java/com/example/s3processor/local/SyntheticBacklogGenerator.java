@@ -0,0 +1,110 @@
+package com.example.s3processor.local;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Random;
+
+/**
+ * Fills an InMemoryS3Client with a synthetic pending backlog.
+ * Key shapes:
+ *   flat   - prefix + file-00000001.dat
+ *   dated  - prefix + yyyy/MM/dd/HH/ + random hex + .json, as time-partitioned producers write
+ *   nested - prefix + producer-NNN/ + file-00000001.csv, spread over 100 producers
+ * Size distributions:
+ *   fixed:BYTES, uniform:MIN-MAX, lognormal:MEDIAN:SIGMA
+ * A duplicate ratio makes that fraction of objects repeat the ETag and size of an earlier object.
+ */
+public class SyntheticBacklogGenerator {
+    
+    private static final DateTimeFormatter DATED_PATH = DateTimeFormatter.ofPattern("yyyy/MM/dd/HH/").withZone(ZoneOffset.UTC);
+    private static final long MAX_AGE_MILLIS = 3_600_000L;
+    
+    private final long objectCount;
+    private final String keyShape;
+    private final String sizeSpec;
+    private final double duplicateRatio;
+    private final long seed;
+    
+    public SyntheticBacklogGenerator(long objectCount, String keyShape, String sizeSpec, double duplicateRatio, long seed) {
+        this.objectCount = objectCount;
+        this.keyShape = keyShape;
+        this.sizeSpec = sizeSpec;
+        this.duplicateRatio = duplicateRatio;
+        this.seed = seed;
+        // Fail on a bad spec before any object is written
+        sizeOf(new Random(seed));
+        if (!keyShape.equals("flat") && !keyShape.equals("dated") && !keyShape.equals("nested")) {
+            throw new IllegalArgumentException("Unknown key shape: " + keyShape);
+        }
+    }
+    
+    /**
+     * Write the backlog under prefix and return its total size in bytes
+     */
+    public long generate(InMemoryS3Client store, String bucketName, String prefix) {
+        Random random = new Random(seed);
+        long now = System.currentTimeMillis();
+        long totalBytes = 0;
+        String previousETag = null;
+        long previousSize = 0;
+        
+        for (long i = 0; i < objectCount; i++) {
+            String eTag;
+            long size;
+            if (previousETag != null && random.nextDouble() < duplicateRatio) {
+                eTag = previousETag;
+                size = previousSize;
+            } else {
+                byte[] digest = new byte[16];
+                random.nextBytes(digest);
+                eTag = "\"" + HexFormat.of().formatHex(digest) + "\"";
+                size = sizeOf(random);
+                previousETag = eTag;
+                previousSize = size;
+            }
+            
+            Instant lastModified = Instant.ofEpochMilli(now - (long) (random.nextDouble() * MAX_AGE_MILLIS));
+            store.putSynthetic(bucketName, keyOf(prefix, i, lastModified, random), size, eTag, lastModified);
+            totalBytes += size;
+        }
+        return totalBytes;
+    }
+    
+    private String keyOf(String prefix, long index, Instant lastModified, Random random) {
+        switch (keyShape) {
+            case "dated":
+                return prefix + DATED_PATH.format(lastModified) + Long.toHexString(random.nextLong()) + ".json";
+            case "nested":
+                return prefix + String.format("producer-%03d/file-%08d.csv", index % 100, index);
+            default:
+                return prefix + String.format("file-%08d.dat", index);
+        }
+    }
+    
+    private long sizeOf(Random random) {
+        String[] spec = sizeSpec.split(":");
+        try {
+            switch (spec[0]) {
+                case "fixed":
+                    return Long.parseLong(spec[1]);
+                case "uniform": {
+                    String[] bounds = spec[1].split("-");
+                    long min = Long.parseLong(bounds[0]);
+                    long max = Long.parseLong(bounds[1]);
+                    return min + (long) (random.nextDouble() * (max - min + 1));
+                }
+                case "lognormal": {
+                    double median = Double.parseDouble(spec[1]);
+                    double sigma = Double.parseDouble(spec[2]);
+                    return Math.max(1L, Math.round(median * Math.exp(sigma * random.nextGaussian())));
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown size distribution: " + sizeSpec);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid size distribution: " + sizeSpec, e);
+        }
+    }
+}
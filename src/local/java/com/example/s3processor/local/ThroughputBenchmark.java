@@ -0,0 +1,169 @@
+package com.example.s3processor.local;
+
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.lambda.FileBatchingLambda;
+import com.example.s3processor.lambda.FileValidationLambda;
+import com.example.s3processor.lambda.S3MonitorLambda;
+import com.example.s3processor.service.S3Service;
+import com.example.s3processor.service.StepFunctionService;
+import com.example.s3processor.service.ValidationCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.sfn.model.StartExecutionRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * End-to-end throughput benchmark of the monitor, batch and validate path.
+ * Seeds an InMemoryS3Client with a synthetic backlog, invokes S3MonitorLambda, then runs every
+ * workflow it started through the LocalWorkflowEngine, and reports files/sec, bytes/sec,
+ * request counts and latency percentiles per S3 operation, per-state timings and peak heap.
+ *
+ * Arguments are key=value pairs:
+ *   objects (10000), keyShape (flat|dated|nested), sizes (uniform:1024-65536),
+ *   duplicates (0.0), latencyMicros (0), seed (42), report (output file; stdout when unset).
+ * Any other key containing a dot, such as batch.size=500, overrides the application property.
+ */
+public class ThroughputBenchmark {
+    
+    private static final String BENCHMARK_BUCKET = "benchmark-bucket";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    public JsonNode run(Map<String, String> options) throws Exception {
+        long objects = Long.parseLong(options.getOrDefault("objects", "10000"));
+        String keyShape = options.getOrDefault("keyShape", "flat");
+        String sizes = options.getOrDefault("sizes", "uniform:1024-65536");
+        double duplicates = Double.parseDouble(options.getOrDefault("duplicates", "0"));
+        long latencyMicros = Long.parseLong(options.getOrDefault("latencyMicros", "0"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        
+        Properties overrides = new Properties();
+        overrides.setProperty("s3.bucket.name", BENCHMARK_BUCKET);
+        overrides.setProperty("file.threshold", "1");
+        options.forEach((key, value) -> {
+            if (key.contains(".")) {
+                overrides.setProperty(key, value);
+            }
+        });
+        AppConfig config = new AppConfig(overrides);
+        String bucketName = config.getBucketName();
+        
+        // Seed the backlog without counting its requests
+        InMemoryS3Client s3Client = new InMemoryS3Client(latencyMicros);
+        s3Client.createBucket(CreateBucketRequest.builder().bucket(bucketName).build());
+        long totalBytes = new SyntheticBacklogGenerator(objects, keyShape, sizes, duplicates, seed)
+                .generate(s3Client, bucketName, config.getPendingPrefix());
+        s3Client.resetOperationStats();
+        
+        LocalSfnClient sfnClient = new LocalSfnClient(config.getEnvironment());
+        S3Service s3Service = new S3Service(s3Client, config);
+        StepFunctionService stepFunctionService = new StepFunctionService(sfnClient, config);
+        S3MonitorLambda monitorLambda = new S3MonitorLambda(s3Service, stepFunctionService, config);
+        Map<String, RequestStreamHandler> handlers = Map.of(
+                "S3MonitorLambda", monitorLambda,
+                "FileBatchingLambda", new FileBatchingLambda(s3Service, config),
+                "FileValidationLambda", new FileValidationLambda(s3Service,
+                        new ValidationCache(config.getValidationCacheMaxEntries(), null), config));
+        LocalWorkflowEngine engine = new LocalWorkflowEngine(handlers, 0);
+        
+        resetPeakHeap();
+        long start = System.nanoTime();
+        
+        ByteArrayOutputStream monitorOutput = new ByteArrayOutputStream();
+        monitorLambda.handleRequest(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)), monitorOutput,
+                new LocalLambdaContext("S3MonitorLambda", 900_000L));
+        long monitorNanos = System.nanoTime() - start;
+        
+        ArrayNode workflows = objectMapper.createArrayNode();
+        for (StartExecutionRequest execution : sfnClient.drainStartedExecutions()) {
+            WorkflowRun run = engine.execute(sfnClient.resourceNameOf(execution.stateMachineArn()),
+                    objectMapper.readTree(execution.input()));
+            workflows.add(objectMapper.valueToTree(run));
+        }
+        long totalNanos = System.nanoTime() - start;
+        double seconds = totalNanos / 1_000_000_000.0;
+        
+        ObjectNode report = objectMapper.createObjectNode();
+        ObjectNode parameters = report.putObject("parameters");
+        parameters.put("objects", objects);
+        parameters.put("keyShape", keyShape);
+        parameters.put("sizes", sizes);
+        parameters.put("duplicates", duplicates);
+        parameters.put("latencyMicros", latencyMicros);
+        parameters.put("seed", seed);
+        parameters.put("batchSize", config.getBatchSize());
+        parameters.put("fileThreshold", config.getFileThreshold());
+        overrides.stringPropertyNames().forEach(key -> parameters.put(key, overrides.getProperty(key)));
+        
+        report.put("files", objects);
+        report.put("bytes", totalBytes);
+        report.put("processedFiles", s3Client.countObjects(bucketName, config.getProcessingPrefix()));
+        report.put("remainingFiles", s3Client.countObjects(bucketName, config.getPendingPrefix()));
+        report.put("monitorMillis", monitorNanos / 1_000_000.0);
+        report.put("totalMillis", totalNanos / 1_000_000.0);
+        report.put("filesPerSecond", objects / seconds);
+        report.put("bytesPerSecond", totalBytes / seconds);
+        report.put("peakHeapBytes", peakHeapBytes());
+        report.set("monitor", objectMapper.readTree(monitorOutput.toByteArray()));
+        report.set("operations", objectMapper.valueToTree(s3Client.getOperationStats()));
+        report.set("workflows", workflows);
+        return report;
+    }
+    
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+    
+    /**
+     * Sum of the per-pool heap peaks since the last reset; an upper bound on the true peak
+     */
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                System.err.println("Arguments must be key=value pairs: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        
+        ThroughputBenchmark benchmark = new ThroughputBenchmark();
+        JsonNode report = benchmark.run(options);
+        String reportFile = options.get("report");
+        if (reportFile != null) {
+            benchmark.objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(reportFile), report);
+        } else {
+            System.out.println(benchmark.objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        }
+    }
+}
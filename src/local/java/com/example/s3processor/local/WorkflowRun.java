@@ -0,0 +1,173 @@
+package com.example.s3processor.local;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one local workflow execution, with timings aggregated per state name.
+ * States inside a Map iterator are aggregated across all of their iterations.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WorkflowRun {
+    
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+    
+    @JsonProperty("stateMachine")
+    private final String stateMachine;
+    
+    @JsonProperty("status")
+    private String status;
+    
+    @JsonProperty("output")
+    private JsonNode output;
+    
+    @JsonProperty("error")
+    private String error;
+    
+    @JsonProperty("cause")
+    private String cause;
+    
+    @JsonProperty("durationMillis")
+    private long durationMillis;
+    
+    private final Map<String, StateTiming> timings = new LinkedHashMap<>();
+    
+    public WorkflowRun(String stateMachine) {
+        this.stateMachine = stateMachine;
+    }
+    
+    /**
+     * Record one entry into a state; safe to call from concurrent Map iterations
+     */
+    public void record(String stateName, long elapsedNanos) {
+        StateTiming timing;
+        synchronized (timings) {
+            timing = timings.computeIfAbsent(stateName, StateTiming::new);
+        }
+        timing.record(elapsedNanos);
+    }
+    
+    public String getStateMachine() {
+        return stateMachine;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public JsonNode getOutput() {
+        return output;
+    }
+    
+    public void setOutput(JsonNode output) {
+        this.output = output;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public String getCause() {
+        return cause;
+    }
+    
+    public void setCause(String cause) {
+        this.cause = cause;
+    }
+    
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+    
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+    
+    /**
+     * Per-state timings in the order each state was first entered
+     */
+    @JsonProperty("states")
+    public List<StateTiming> getStateTimings() {
+        synchronized (timings) {
+            return new ArrayList<>(timings.values());
+        }
+    }
+    
+    public StateTiming getStateTiming(String stateName) {
+        synchronized (timings) {
+            return timings.get(stateName);
+        }
+    }
+    
+    /**
+     * Entry count and elapsed time of one state
+     */
+    public static class StateTiming {
+        
+        @JsonProperty("name")
+        private final String name;
+        
+        private long entries;
+        private long totalNanos;
+        private long maxNanos;
+        
+        public StateTiming(String name) {
+            this.name = name;
+        }
+        
+        synchronized void record(long elapsedNanos) {
+            entries++;
+            totalNanos += elapsedNanos;
+            maxNanos = Math.max(maxNanos, elapsedNanos);
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        @JsonProperty("entries")
+        public synchronized long getEntries() {
+            return entries;
+        }
+        
+        @JsonProperty("totalMillis")
+        public synchronized double getTotalMillis() {
+            return totalNanos / 1_000_000.0;
+        }
+        
+        @JsonProperty("meanMillis")
+        public synchronized double getMeanMillis() {
+            return entries == 0 ? 0 : totalNanos / 1_000_000.0 / entries;
+        }
+        
+        @JsonProperty("maxMillis")
+        public synchronized double getMaxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "WorkflowRun{" +
+                "stateMachine='" + stateMachine + '\'' +
+                ", status='" + status + '\'' +
+                ", error='" + error + '\'' +
+                ", durationMillis=" + durationMillis +
+                '}';
+    }
+}
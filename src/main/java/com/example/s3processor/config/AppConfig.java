@@ -3,6 +3,7 @@ package com.example.s3processor.config;
 import software.amazon.awssdk.regions.Region;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -11,6 +12,9 @@ import java.util.Properties;
 public class AppConfig {
     
     private final Properties properties;
+    // Parsed on first use: the lists are consulted per listed key and the properties do not change
+    private volatile List<MonitorTarget> monitorTargets;
+    private volatile List<PriorityLane> priorityLanes;
     
     // Default values
     private static final String DEFAULT_BUCKET_NAME = "s3-file-processor-bucket";
@@ -19,11 +23,48 @@ public class AppConfig {
     private static final String DEFAULT_REGION = "us-east-1";
     private static final int DEFAULT_FILE_THRESHOLD = 2000;
     private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_KEY_LAYOUT_SHARDS = 16;
+    private static final int DEFAULT_MONITOR_CONCURRENCY = 8;
+    private static final int DEFAULT_VALIDATION_CACHE_MAX_ENTRIES = 100000;
+    private static final int DEFAULT_VALIDATION_BATCHES_PER_INVOCATION = 10;
+    private static final int DEFAULT_VALIDATION_CONCURRENCY = 8;
+    private static final int DEFAULT_VALIDATION_MAP_CONCURRENCY = 5;
+    private static final int DEFAULT_BATCH_OPERATIONS_THRESHOLD = 100000;
+    private static final long DEFAULT_COMPACTION_SMALL_FILE_BYTES = 1024L * 1024;
+    private static final long DEFAULT_COMPACTION_TARGET_BYTES = 128L * 1024 * 1024;
+    private static final long DEFAULT_COMPACTION_PART_BYTES = 8L * 1024 * 1024;
+    private static final int DEFAULT_COMPACTION_CONCURRENCY = 8;
+    private static final int DEFAULT_BATCH_OPERATIONS_BATCH_SIZE = 10000;
+    private static final int DEFAULT_BATCH_OPERATIONS_POLL_INTERVAL_SECONDS = 60;
+    private static final int DEFAULT_WORKFLOW_LAUNCH_CONCURRENCY = 16;
+    private static final int DEFAULT_WORKFLOW_LAUNCH_MAX_ATTEMPTS = 5;
+    private static final int DEFAULT_LOG_SUMMARY_MAX_KEYS = 10;
+    private static final long DEFAULT_BATCHING_SAFETY_MARGIN_MILLIS = 60000L;
+    private static final long DEFAULT_LOG_SAMPLE_INTERVAL_MILLIS = 10000L;
+    private static final int DEFAULT_LOG_SAMPLE_PERMITS = 5;
+    private static final int DEFAULT_MOVE_PIPELINE_COPY_CONCURRENCY = 16;
+    private static final int DEFAULT_MOVE_PIPELINE_DELETE_CONCURRENCY = 2;
+    private static final int DEFAULT_MOVE_PIPELINE_QUEUE_CAPACITY = 1000;
+    private static final int DEFAULT_ADAPTIVE_SCHEDULE_MIN_SECONDS = 60;
+    private static final int DEFAULT_ADAPTIVE_SCHEDULE_MAX_SECONDS = 1800;
+    private static final int DEFAULT_ADAPTIVE_SCHEDULE_HISTORY_TICKS = 12;
+    private static final double DEFAULT_TRANSFER_TARGET_THROUGHPUT_GBPS = 10.0;
+    private static final long DEFAULT_TRANSFER_MIN_PART_BYTES = 8L * 1024 * 1024;
+    private static final int DEFAULT_TRANSFER_MAX_CONCURRENCY = 0;
+    private static final int DEFAULT_LISTING_HANDOFF_MAX_FILES = 200000;
     
     public AppConfig() {
         this.properties = loadProperties();
     }
     
+    // Constructor for benchmarks and local runs: overrides take precedence over the properties files
+    public AppConfig(Properties overrides) {
+        this.properties = loadProperties();
+        for (String key : overrides.stringPropertyNames()) {
+            this.properties.setProperty(key, overrides.getProperty(key));
+        }
+    }
+    
     private Properties loadProperties() {
         Properties props = new Properties();
         String environment = System.getProperty("env", "dev");
@@ -69,11 +110,28 @@ public class AppConfig {
         return getProperty("s3.processing.prefix", DEFAULT_PROCESSING_PREFIX);
     }
     
+    public String getKeyLayout() {
+        return getProperty("s3.key.layout", "flat");
+    }
+    
+    public int getKeyLayoutShards() {
+        String shards = getProperty("s3.key.layout.shards", String.valueOf(DEFAULT_KEY_LAYOUT_SHARDS));
+        try {
+            return Integer.parseInt(shards);
+        } catch (NumberFormatException e) {
+            return DEFAULT_KEY_LAYOUT_SHARDS;
+        }
+    }
+    
     public Region getAwsRegion() {
         String regionName = getProperty("aws.region", DEFAULT_REGION);
         return Region.of(regionName);
     }
     
+    public String getAwsAccountId() {
+        return getProperty("aws.account.id", "");
+    }
+    
     public int getFileThreshold() {
         String threshold = getProperty("file.threshold", String.valueOf(DEFAULT_FILE_THRESHOLD));
         try {
@@ -92,6 +150,245 @@ public class AppConfig {
         }
     }
     
+    /**
+     * Watched feeds from monitor.watches (bucket:prefix[:threshold], comma-separated).
+     * Empty when the monitor only watches s3.bucket.name / s3.pending.prefix.
+     */
+    public List<MonitorTarget> getMonitorTargets() {
+        List<MonitorTarget> targets = monitorTargets;
+        if (targets == null) {
+            targets = List.copyOf(MonitorTarget.parseList(getProperty("monitor.watches", ""), getFileThreshold()));
+            monitorTargets = targets;
+        }
+        return targets;
+    }
+    
+    /**
+     * Priority lanes from priority.lanes (name:pattern[:threshold[:batchSize[:concurrency]]], comma-separated),
+     * highest priority first. Empty when every pending file is handled as one bulk backlog.
+     */
+    public List<PriorityLane> getPriorityLanes() {
+        List<PriorityLane> lanes = priorityLanes;
+        if (lanes == null) {
+            lanes = List.copyOf(PriorityLane.parseList(getProperty("priority.lanes", ""), getBatchSize(),
+                    getValidationMapConcurrency()));
+            priorityLanes = lanes;
+        }
+        return lanes;
+    }
+    
+    public int getMonitorConcurrency() {
+        String concurrency = getProperty("monitor.concurrency", String.valueOf(DEFAULT_MONITOR_CONCURRENCY));
+        try {
+            return Integer.parseInt(concurrency);
+        } catch (NumberFormatException e) {
+            return DEFAULT_MONITOR_CONCURRENCY;
+        }
+    }
+    
+    /**
+     * Total pending bytes that trigger processing regardless of file count; 0 disables
+     */
+    public long getTriggerByteThreshold() {
+        String bytes = getProperty("trigger.bytes.threshold", "0");
+        try {
+            return Long.parseLong(bytes);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+    
+    /**
+     * Age in seconds of the oldest pending file that triggers processing regardless of file count; 0 disables
+     */
+    public long getTriggerMaxAgeSeconds() {
+        String seconds = getProperty("trigger.max.age.seconds", "0");
+        try {
+            return Long.parseLong(seconds);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+    
+    public boolean isCompactionEnabled() {
+        String enabled = getProperty("compaction.enabled", "false");
+        return Boolean.parseBoolean(enabled);
+    }
+    
+    /**
+     * Files smaller than this are concatenated into compacted objects
+     */
+    public long getCompactionSmallFileBytes() {
+        String bytes = getProperty("compaction.small.file.bytes", String.valueOf(DEFAULT_COMPACTION_SMALL_FILE_BYTES));
+        try {
+            return Long.parseLong(bytes);
+        } catch (NumberFormatException e) {
+            return DEFAULT_COMPACTION_SMALL_FILE_BYTES;
+        }
+    }
+    
+    public long getCompactionTargetBytes() {
+        String bytes = getProperty("compaction.target.bytes", String.valueOf(DEFAULT_COMPACTION_TARGET_BYTES));
+        try {
+            return Long.parseLong(bytes);
+        } catch (NumberFormatException e) {
+            return DEFAULT_COMPACTION_TARGET_BYTES;
+        }
+    }
+    
+    public long getCompactionPartBytes() {
+        String bytes = getProperty("compaction.part.bytes", String.valueOf(DEFAULT_COMPACTION_PART_BYTES));
+        try {
+            return Long.parseLong(bytes);
+        } catch (NumberFormatException e) {
+            return DEFAULT_COMPACTION_PART_BYTES;
+        }
+    }
+    
+    public int getCompactionConcurrency() {
+        String concurrency = getProperty("compaction.concurrency", String.valueOf(DEFAULT_COMPACTION_CONCURRENCY));
+        try {
+            return Integer.parseInt(concurrency);
+        } catch (NumberFormatException e) {
+            return DEFAULT_COMPACTION_CONCURRENCY;
+        }
+    }
+    
+    /**
+     * Batch prefixes handed to one FileValidationLambda invocation by the processing workflow
+     */
+    public int getValidationBatchesPerInvocation() {
+        String batches = getProperty("validation.batches.per.invocation", String.valueOf(DEFAULT_VALIDATION_BATCHES_PER_INVOCATION));
+        try {
+            return Integer.parseInt(batches);
+        } catch (NumberFormatException e) {
+            return DEFAULT_VALIDATION_BATCHES_PER_INVOCATION;
+        }
+    }
+    
+    /**
+     * Validation invocations the processing workflow runs at once for bulk batches
+     */
+    public int getValidationMapConcurrency() {
+        String concurrency = getProperty("validation.map.concurrency", String.valueOf(DEFAULT_VALIDATION_MAP_CONCURRENCY));
+        try {
+            return Integer.parseInt(concurrency);
+        } catch (NumberFormatException e) {
+            return DEFAULT_VALIDATION_MAP_CONCURRENCY;
+        }
+    }
+    
+    /**
+     * Batches validated concurrently within one invocation
+     */
+    public int getValidationConcurrency() {
+        String concurrency = getProperty("validation.concurrency", String.valueOf(DEFAULT_VALIDATION_CONCURRENCY));
+        try {
+            return Integer.parseInt(concurrency);
+        } catch (NumberFormatException e) {
+            return DEFAULT_VALIDATION_CONCURRENCY;
+        }
+    }
+    
+    /**
+     * Maximum validation verdicts held in memory; 0 disables the validation cache
+     */
+    public int getValidationCacheMaxEntries() {
+        String entries = getProperty("validation.cache.max.entries", String.valueOf(DEFAULT_VALIDATION_CACHE_MAX_ENTRIES));
+        try {
+            return Integer.parseInt(entries);
+        } catch (NumberFormatException e) {
+            return DEFAULT_VALIDATION_CACHE_MAX_ENTRIES;
+        }
+    }
+    
+    /**
+     * Persisted validation cache tier: none, s3 or local
+     */
+    public String getValidationCacheStore() {
+        return getProperty("validation.cache.store", "none").trim().toLowerCase();
+    }
+    
+    public String getValidationCacheS3Prefix() {
+        return getProperty("validation.cache.s3.prefix", "validation-cache/");
+    }
+    
+    public String getValidationCacheLocalDir() {
+        return getProperty("validation.cache.local.dir", "/tmp/validation-cache");
+    }
+    
+    /**
+     * Drop pending files whose content matches an earlier pending file before they are moved
+     */
+    public boolean isDedupEnabled() {
+        String enabled = getProperty("dedup.enabled", "false");
+        return Boolean.parseBoolean(enabled);
+    }
+    
+    public String getDedupReportPrefix() {
+        return getProperty("dedup.report.prefix", "reports/duplicates/");
+    }
+    
+    /**
+     * Source file count at or above which moves are offloaded to S3 Batch Operations copy jobs; 0 disables
+     */
+    public int getBatchOperationsThreshold() {
+        String threshold = getProperty("batchops.threshold", String.valueOf(DEFAULT_BATCH_OPERATIONS_THRESHOLD));
+        try {
+            return Integer.parseInt(threshold);
+        } catch (NumberFormatException e) {
+            return DEFAULT_BATCH_OPERATIONS_THRESHOLD;
+        }
+    }
+    
+    public String getBatchOperationsRoleArn() {
+        return getProperty("batchops.role.arn", "");
+    }
+    
+    public String getBatchOperationsManifestPrefix() {
+        return getProperty("batchops.manifest.prefix", "manifests/");
+    }
+    
+    /**
+     * Completion reports of copy jobs are written under this prefix; sources are deleted from them
+     */
+    public String getBatchOperationsReportPrefix() {
+        return getProperty("batchops.report.prefix", "reports/batchops/");
+    }
+    
+    /**
+     * Files per batch when moving with copy jobs; each batch is one job per physical batch prefix
+     */
+    public int getBatchOperationsBatchSize() {
+        String batchSize = getProperty("batchops.batch.size", String.valueOf(DEFAULT_BATCH_OPERATIONS_BATCH_SIZE));
+        try {
+            return Integer.parseInt(batchSize);
+        } catch (NumberFormatException e) {
+            return DEFAULT_BATCH_OPERATIONS_BATCH_SIZE;
+        }
+    }
+    
+    /**
+     * Seconds the processing workflow waits between checks of its running copy jobs
+     */
+    public int getBatchOperationsPollIntervalSeconds() {
+        String interval = getProperty("batchops.poll.interval.seconds", String.valueOf(DEFAULT_BATCH_OPERATIONS_POLL_INTERVAL_SECONDS));
+        try {
+            return Integer.parseInt(interval);
+        } catch (NumberFormatException e) {
+            return DEFAULT_BATCH_OPERATIONS_POLL_INTERVAL_SECONDS;
+        }
+    }
+    
+    /**
+     * Batch Operations offload needs a positive threshold, the account ID and a role for the jobs
+     */
+    public boolean isBatchOperationsEnabled() {
+        return getBatchOperationsThreshold() > 0
+                && !getAwsAccountId().isEmpty()
+                && !getBatchOperationsRoleArn().isEmpty();
+    }
+    
     public String getFileProcessingStateMachineArn() {
         return getProperty("stepfunctions.file.processing.arn", "");
     }
@@ -100,6 +397,178 @@ public class AppConfig {
         return getProperty("stepfunctions.file.validation.arn", "");
     }
     
+    public int getWorkflowLaunchConcurrency() {
+        String concurrency = getProperty("stepfunctions.launch.concurrency", String.valueOf(DEFAULT_WORKFLOW_LAUNCH_CONCURRENCY));
+        try {
+            return Integer.parseInt(concurrency);
+        } catch (NumberFormatException e) {
+            return DEFAULT_WORKFLOW_LAUNCH_CONCURRENCY;
+        }
+    }
+    
+    public int getWorkflowLaunchMaxAttempts() {
+        String attempts = getProperty("stepfunctions.launch.max.attempts", String.valueOf(DEFAULT_WORKFLOW_LAUNCH_MAX_ATTEMPTS));
+        try {
+            return Integer.parseInt(attempts);
+        } catch (NumberFormatException e) {
+            return DEFAULT_WORKFLOW_LAUNCH_MAX_ATTEMPTS;
+        }
+    }
+    
+    /**
+     * Time FileBatchingLambda keeps in reserve before its timeout; moving stops between batches once
+     * the remaining time minus this margin would not cover another batch
+     */
+    public long getBatchingSafetyMarginMillis() {
+        String margin = getProperty("batching.safety.margin.millis", String.valueOf(DEFAULT_BATCHING_SAFETY_MARGIN_MILLIS));
+        try {
+            return Long.parseLong(margin);
+        } catch (NumberFormatException e) {
+            return DEFAULT_BATCHING_SAFETY_MARGIN_MILLIS;
+        }
+    }
+    
+    /**
+     * Offending keys listed in a per-batch issue summary
+     */
+    public int getLogSummaryMaxKeys() {
+        String maxKeys = getProperty("log.summary.max.keys", String.valueOf(DEFAULT_LOG_SUMMARY_MAX_KEYS));
+        try {
+            return Integer.parseInt(maxKeys);
+        } catch (NumberFormatException e) {
+            return DEFAULT_LOG_SUMMARY_MAX_KEYS;
+        }
+    }
+    
+    /**
+     * Window and per-window budget for sampled, repetitive log messages such as per-batch progress
+     */
+    public long getLogSampleIntervalMillis() {
+        String interval = getProperty("log.sample.interval.millis", String.valueOf(DEFAULT_LOG_SAMPLE_INTERVAL_MILLIS));
+        try {
+            return Long.parseLong(interval);
+        } catch (NumberFormatException e) {
+            return DEFAULT_LOG_SAMPLE_INTERVAL_MILLIS;
+        }
+    }
+    
+    public int getLogSamplePermits() {
+        String permits = getProperty("log.sample.permits", String.valueOf(DEFAULT_LOG_SAMPLE_PERMITS));
+        try {
+            return Integer.parseInt(permits);
+        } catch (NumberFormatException e) {
+            return DEFAULT_LOG_SAMPLE_PERMITS;
+        }
+    }
+    
+    /**
+     * Move files through pipelined list, copy and delete stages when no dedup, compaction
+     * or copy jobs need the whole listing up front
+     */
+    public boolean isMovePipelineEnabled() {
+        String enabled = getProperty("move.pipeline.enabled", "true");
+        return Boolean.parseBoolean(enabled);
+    }
+    
+    public int getMovePipelineCopyConcurrency() {
+        String concurrency = getProperty("move.pipeline.copy.concurrency", String.valueOf(DEFAULT_MOVE_PIPELINE_COPY_CONCURRENCY));
+        try {
+            return Integer.parseInt(concurrency);
+        } catch (NumberFormatException e) {
+            return DEFAULT_MOVE_PIPELINE_COPY_CONCURRENCY;
+        }
+    }
+    
+    public int getMovePipelineDeleteConcurrency() {
+        String concurrency = getProperty("move.pipeline.delete.concurrency", String.valueOf(DEFAULT_MOVE_PIPELINE_DELETE_CONCURRENCY));
+        try {
+            return Integer.parseInt(concurrency);
+        } catch (NumberFormatException e) {
+            return DEFAULT_MOVE_PIPELINE_DELETE_CONCURRENCY;
+        }
+    }
+    
+    /**
+     * Capacity of each queue between pipeline stages; a full queue blocks the stage feeding it
+     */
+    public int getMovePipelineQueueCapacity() {
+        String capacity = getProperty("move.pipeline.queue.capacity", String.valueOf(DEFAULT_MOVE_PIPELINE_QUEUE_CAPACITY));
+        try {
+            return Integer.parseInt(capacity);
+        } catch (NumberFormatException e) {
+            return DEFAULT_MOVE_PIPELINE_QUEUE_CAPACITY;
+        }
+    }
+    
+    /**
+     * Additional checksum used to verify each copy before its source is deleted:
+     * none, crc32, crc32c, sha1 or sha256
+     */
+    public String getCopyVerifyChecksum() {
+        return getProperty("copy.verify.checksum", "none");
+    }
+    
+    /**
+     * Emit Flight Recorder events for AWS calls, handler invocations, batches and JSON codec work.
+     * Events are only recorded while a recording enables them, e.g. -XX:StartFlightRecording.
+     */
+    public boolean isJfrEventsEnabled() {
+        String enabled = getProperty("jfr.events.enabled", "false");
+        return Boolean.parseBoolean(enabled);
+    }
+    
+    /**
+     * Bucket the batches are moved into, possibly in another account or region; empty moves them
+     * within the monitored bucket
+     */
+    public String getTransferDestBucket() {
+        return getProperty("transfer.dest.bucket", "");
+    }
+    
+    /**
+     * Region of the transfer destination bucket, defaulting to the Lambda's own region
+     */
+    public Region getTransferDestRegion() {
+        String regionName = getProperty("transfer.dest.region", "");
+        return regionName.isEmpty() ? getAwsRegion() : Region.of(regionName);
+    }
+    
+    /**
+     * Aggregate throughput the transfer engine sizes its connection pool for
+     */
+    public double getTransferTargetThroughputGbps() {
+        String gbps = getProperty("transfer.target.throughput.gbps", String.valueOf(DEFAULT_TRANSFER_TARGET_THROUGHPUT_GBPS));
+        try {
+            return Double.parseDouble(gbps);
+        } catch (NumberFormatException e) {
+            return DEFAULT_TRANSFER_TARGET_THROUGHPUT_GBPS;
+        }
+    }
+    
+    /**
+     * Objects larger than this are copied as parallel multipart parts of at least this size
+     */
+    public long getTransferMinPartBytes() {
+        String bytes = getProperty("transfer.min.part.bytes", String.valueOf(DEFAULT_TRANSFER_MIN_PART_BYTES));
+        try {
+            return Long.parseLong(bytes);
+        } catch (NumberFormatException e) {
+            return DEFAULT_TRANSFER_MIN_PART_BYTES;
+        }
+    }
+    
+    /**
+     * Upper bound on concurrent transfer connections; 0 derives it from the throughput target
+     */
+    public int getTransferMaxConcurrency() {
+        String concurrency = getProperty("transfer.max.concurrency", String.valueOf(DEFAULT_TRANSFER_MAX_CONCURRENCY));
+        try {
+            return Integer.parseInt(concurrency);
+        } catch (NumberFormatException e) {
+            return DEFAULT_TRANSFER_MAX_CONCURRENCY;
+        }
+    }
+    
     public String getApiGatewayEndpoint() {
         return getProperty("api.gateway.endpoint", "");
     }
@@ -108,11 +577,121 @@ public class AppConfig {
         return getProperty("schedule.expression", "rate(10 minutes)");
     }
     
+    /**
+     * Interval of a rate(...) schedule expression in seconds, or -1 for a cron expression
+     */
+    public long getScheduleIntervalSeconds() {
+        String expression = getScheduleExpression().trim();
+        if (!expression.startsWith("rate(") || !expression.endsWith(")")) {
+            return -1L;
+        }
+        String[] rate = expression.substring(5, expression.length() - 1).trim().split("\\s+");
+        try {
+            long value = Long.parseLong(rate[0]);
+            String unit = rate.length > 1 ? rate[1] : "";
+            if (unit.startsWith("minute")) {
+                return value * 60;
+            } else if (unit.startsWith("hour")) {
+                return value * 3600;
+            } else if (unit.startsWith("day")) {
+                return value * 86400;
+            }
+            return -1L;
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+    
+    /**
+     * Retune the monitor's schedule rule from the observed pending arrival rate, between the
+     * minimum and maximum intervals, instead of polling at the fixed schedule.expression rate
+     */
+    public boolean isAdaptiveScheduleEnabled() {
+        String enabled = getProperty("adaptive.schedule.enabled", "false");
+        return Boolean.parseBoolean(enabled);
+    }
+    
+    public int getAdaptiveScheduleMinSeconds() {
+        String seconds = getProperty("adaptive.schedule.min.seconds", String.valueOf(DEFAULT_ADAPTIVE_SCHEDULE_MIN_SECONDS));
+        try {
+            return Integer.parseInt(seconds);
+        } catch (NumberFormatException e) {
+            return DEFAULT_ADAPTIVE_SCHEDULE_MIN_SECONDS;
+        }
+    }
+    
+    public int getAdaptiveScheduleMaxSeconds() {
+        String seconds = getProperty("adaptive.schedule.max.seconds", String.valueOf(DEFAULT_ADAPTIVE_SCHEDULE_MAX_SECONDS));
+        try {
+            return Integer.parseInt(seconds);
+        } catch (NumberFormatException e) {
+            return DEFAULT_ADAPTIVE_SCHEDULE_MAX_SECONDS;
+        }
+    }
+    
+    /**
+     * Monitor ticks kept per feed to estimate its arrival rate
+     */
+    public int getAdaptiveScheduleHistoryTicks() {
+        String ticks = getProperty("adaptive.schedule.history.ticks", String.valueOf(DEFAULT_ADAPTIVE_SCHEDULE_HISTORY_TICKS));
+        try {
+            return Integer.parseInt(ticks);
+        } catch (NumberFormatException e) {
+            return DEFAULT_ADAPTIVE_SCHEDULE_HISTORY_TICKS;
+        }
+    }
+    
+    /**
+     * EventBridge rule whose schedule the adaptive scheduler retunes
+     */
+    public String getAdaptiveScheduleRuleName() {
+        return getProperty("adaptive.schedule.rule.name", "s3-processor-schedule-" + getEnvironment());
+    }
+    
+    /**
+     * Start processing early when the arrival rate forecasts the file threshold being crossed
+     * before the monitor's next tick
+     */
+    public boolean isTriggerForecastEnabled() {
+        String enabled = getProperty("trigger.forecast.enabled", "false");
+        return Boolean.parseBoolean(enabled);
+    }
+    
+    /**
+     * Prefix, in each watched bucket, under which the monitor keeps its arrival history
+     */
+    public String getMonitorStatePrefix() {
+        return getProperty("monitor.state.prefix", "monitor-state/");
+    }
+    
+    /**
+     * Let the monitor hand its listing of a triggered backlog to the batching step, which then
+     * only lists the files that arrived after it
+     */
+    public boolean isListingHandoffEnabled() {
+        String enabled = getProperty("listing.handoff.enabled", "false");
+        return Boolean.parseBoolean(enabled);
+    }
+    
+    public int getListingHandoffMaxFiles() {
+        String files = getProperty("listing.handoff.max.files", String.valueOf(DEFAULT_LISTING_HANDOFF_MAX_FILES));
+        try {
+            return Integer.parseInt(files);
+        } catch (NumberFormatException e) {
+            return DEFAULT_LISTING_HANDOFF_MAX_FILES;
+        }
+    }
+    
     public boolean isScheduleEnabled() {
         String enabled = getProperty("schedule.enabled", "true");
         return Boolean.parseBoolean(enabled);
     }
     
+    public boolean isJsonBytecodeModuleEnabled() {
+        String enabled = getProperty("json.bytecode.module.enabled", "true");
+        return Boolean.parseBoolean(enabled);
+    }
+    
     public String getEnvironment() {
         return getProperty("environment", "dev");
     }
@@ -152,6 +731,27 @@ public class AppConfig {
         if (getBatchSize() <= 0) {
             throw new IllegalStateException("Batch size must be positive");
         }
+        
+        for (MonitorTarget target : getMonitorTargets()) {
+            if (target.getFileThreshold() <= 0) {
+                throw new IllegalStateException("File threshold must be positive for monitor target " + target);
+            }
+        }
+        
+        for (PriorityLane lane : getPriorityLanes()) {
+            if (lane.getFileThreshold() <= 0 || lane.getBatchSize() <= 0 || lane.getConcurrency() <= 0) {
+                throw new IllegalStateException("Threshold, batch size and concurrency must be positive for priority lane " + lane);
+            }
+        }
+        
+        if (isAdaptiveScheduleEnabled()
+                && (getAdaptiveScheduleMinSeconds() < 60 || getAdaptiveScheduleMaxSeconds() < getAdaptiveScheduleMinSeconds())) {
+            throw new IllegalStateException("Adaptive schedule needs a minimum of at least 60 seconds and a maximum not below it");
+        }
+        
+        if (!getTransferDestBucket().isEmpty() && (isCompactionEnabled() || isBatchOperationsEnabled())) {
+            throw new IllegalStateException("Compaction and Batch Operations copy jobs only move files within the monitored bucket");
+        }
     }
     
     /**
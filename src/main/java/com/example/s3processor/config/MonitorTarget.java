@@ -0,0 +1,72 @@
+package com.example.s3processor.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A watched bucket/prefix pair and the file count that triggers processing for it
+ */
+public class MonitorTarget {
+    
+    private final String bucketName;
+    private final String prefix;
+    private final int fileThreshold;
+    
+    public MonitorTarget(String bucketName, String prefix, int fileThreshold) {
+        this.bucketName = bucketName;
+        this.prefix = prefix;
+        this.fileThreshold = fileThreshold;
+    }
+    
+    /**
+     * Parse a comma-separated list of bucket:prefix[:threshold] entries.
+     * Entries without a threshold use the given default.
+     */
+    public static List<MonitorTarget> parseList(String value, int defaultThreshold) {
+        List<MonitorTarget> targets = new ArrayList<>();
+        if (value == null || value.trim().isEmpty()) {
+            return targets;
+        }
+        
+        for (String entry : value.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            
+            String[] parts = trimmed.split(":");
+            if (parts.length < 2 || parts.length > 3 || parts[0].isEmpty()) {
+                throw new IllegalStateException("Invalid monitor target '" + trimmed
+                        + "', expected bucket:prefix[:threshold]");
+            }
+            
+            int threshold = defaultThreshold;
+            if (parts.length == 3) {
+                try {
+                    threshold = Integer.parseInt(parts[2]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalStateException("Invalid threshold in monitor target '" + trimmed + "'");
+                }
+            }
+            targets.add(new MonitorTarget(parts[0], parts[1], threshold));
+        }
+        return targets;
+    }
+    
+    public String getBucketName() {
+        return bucketName;
+    }
+    
+    public String getPrefix() {
+        return prefix;
+    }
+    
+    public int getFileThreshold() {
+        return fileThreshold;
+    }
+    
+    @Override
+    public String toString() {
+        return bucketName + ":" + prefix + ":" + fileThreshold;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.s3processor.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A class of pending files, selected by a key pattern, that is triggered and batched apart
+ * from the bulk backlog with its own threshold, batch size and validation concurrency.
+ * Patterns are globs over the key relative to the pending prefix: * and ? stay within one
+ * path segment, ** crosses segments and a ** segment may also match no directory; a pattern without
+ * wildcards matches a key prefix.
+ */
+public class PriorityLane {
+    
+    /**
+     * Lane of every file that matches no priority lane
+     */
+    public static final String BULK = "bulk";
+    
+    private final String name;
+    private final String pattern;
+    private final Pattern regex;
+    private final int fileThreshold;
+    private final int batchSize;
+    private final int concurrency;
+    
+    public PriorityLane(String name, String pattern, int fileThreshold, int batchSize, int concurrency) {
+        this.name = name;
+        this.pattern = pattern;
+        this.regex = Pattern.compile(globToRegex(pattern));
+        this.fileThreshold = fileThreshold;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+    }
+    
+    /**
+     * Parse a comma-separated list of name:pattern[:threshold[:batchSize[:concurrency]]] entries,
+     * highest priority first. Entries without a threshold trigger on a single file; missing batch
+     * size and concurrency use the given defaults.
+     */
+    public static List<PriorityLane> parseList(String value, int defaultBatchSize, int defaultConcurrency) {
+        List<PriorityLane> lanes = new ArrayList<>();
+        if (value == null || value.trim().isEmpty()) {
+            return lanes;
+        }
+        
+        for (String entry : value.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            
+            String[] parts = trimmed.split(":");
+            if (parts.length < 2 || parts.length > 5 || parts[0].isEmpty() || parts[1].isEmpty()) {
+                throw new IllegalStateException("Invalid priority lane '" + trimmed
+                        + "', expected name:pattern[:threshold[:batchSize[:concurrency]]]");
+            }
+            if (BULK.equals(parts[0]) || !parts[0].matches("[A-Za-z0-9_-]+")) {
+                throw new IllegalStateException("Invalid priority lane name '" + parts[0] + "'");
+            }
+            for (PriorityLane lane : lanes) {
+                if (lane.name.equals(parts[0])) {
+                    throw new IllegalStateException("Duplicate priority lane '" + parts[0] + "'");
+                }
+            }
+            
+            try {
+                int threshold = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+                int batchSize = parts.length > 3 ? Integer.parseInt(parts[3]) : defaultBatchSize;
+                int concurrency = parts.length > 4 ? Integer.parseInt(parts[4]) : defaultConcurrency;
+                lanes.add(new PriorityLane(parts[0], parts[1], threshold, batchSize, concurrency));
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Invalid number in priority lane '" + trimmed + "'");
+            }
+        }
+        return lanes;
+    }
+    
+    /**
+     * First lane in priority order whose pattern matches the relative key, or null for the bulk lane
+     */
+    public static PriorityLane laneOf(List<PriorityLane> lanes, String relativeKey) {
+        for (PriorityLane lane : lanes) {
+            if (lane.regex.matcher(relativeKey).matches()) {
+                return lane;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Lane with the given name, or null for the bulk lane
+     */
+    public static PriorityLane find(List<PriorityLane> lanes, String name) {
+        if (name == null || BULK.equals(name)) {
+            return null;
+        }
+        for (PriorityLane lane : lanes) {
+            if (lane.name.equals(name)) {
+                return lane;
+            }
+        }
+        throw new IllegalStateException("Unknown priority lane '" + name + "'");
+    }
+    
+    private static String globToRegex(String glob) {
+        if (!glob.contains("*") && !glob.contains("?")) {
+            return Pattern.quote(glob) + ".*";
+        }
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (glob.startsWith("**/", i)) {
+                regex.append("(?:.*/)?"); // Zero or more whole segments
+                i += 2;
+            } else if (glob.startsWith("**", i)) {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return regex.toString();
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getPattern() {
+        return pattern;
+    }
+    
+    public int getFileThreshold() {
+        return fileThreshold;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public int getConcurrency() {
+        return concurrency;
+    }
+    
+    /**
+     * Processing prefix the lane's batches are created under, apart from bulk batches
+     */
+    public String destPrefix(String processingPrefix) {
+        return processingPrefix + name + "/";
+    }
+    
+    @Override
+    public String toString() {
+        return name + ":" + pattern + ":" + fileThreshold + ":" + batchSize + ":" + concurrency;
+    }
+}
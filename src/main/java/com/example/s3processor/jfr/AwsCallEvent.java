@@ -0,0 +1,44 @@
+package com.example.s3processor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one S3 or Step Functions API call, spanning SDK retries
+ */
+@Name("com.example.s3processor.AwsCall")
+@Label("AWS Call")
+@Category({"S3 File Processor", "AWS"})
+@Description("One S3 or Step Functions API call, including SDK retries")
+@StackTrace(false)
+public class AwsCallEvent extends Event {
+    
+    @Label("Service")
+    String service;
+    
+    @Label("Operation")
+    String operation;
+    
+    @Label("Bucket")
+    String bucket;
+    
+    @Label("Key")
+    @Description("Object key, or the execution name or ARN of a Step Functions call")
+    String key;
+    
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+    
+    @Label("Status Code")
+    int statusCode;
+    
+    @Label("Outcome")
+    @Description("OK, or the error code of a failed call")
+    String outcome;
+}
@@ -0,0 +1,84 @@
+package com.example.s3processor.jfr;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.SdkHttpResponse;
+
+/**
+ * SDK interceptor that records an AwsCallEvent per API call. AwsClientOverrides only registers it
+ * while jfr.events.enabled is set, and only allocates an event while a recording has
+ * the event enabled, so clients without a recording pay a single check per call.
+ */
+public class AwsCallRecorder implements ExecutionInterceptor {
+    
+    private static final ExecutionAttribute<AwsCallEvent> EVENT = new ExecutionAttribute<>("JfrAwsCallEvent");
+    
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        AwsCallEvent event = new AwsCallEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.begin();
+        event.service = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        event.operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        SdkRequest request = context.request();
+        event.bucket = request.getValueForField("Bucket", String.class).orElse(null);
+        event.key = request.getValueForField("Key", String.class)
+                .or(() -> request.getValueForField("name", String.class))
+                .or(() -> request.getValueForField("executionArn", String.class))
+                .or(() -> request.getValueForField("stateMachineArn", String.class))
+                .orElse(null);
+        executionAttributes.putAttribute(EVENT, event);
+    }
+    
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        AwsCallEvent event = executionAttributes.getAttribute(EVENT);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = bytes(context.response(), context.requestBody().orElse(null));
+            event.statusCode = context.httpResponse().statusCode();
+            event.outcome = "OK";
+            event.commit();
+        }
+    }
+    
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        AwsCallEvent event = executionAttributes.getAttribute(EVENT);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            Throwable error = context.exception();
+            event.statusCode = context.httpResponse().map(SdkHttpResponse::statusCode).orElse(0);
+            event.outcome = error instanceof AwsServiceException && ((AwsServiceException) error).awsErrorDetails() != null
+                    ? ((AwsServiceException) error).awsErrorDetails().errorCode()
+                    : error.getClass().getSimpleName();
+            event.commit();
+        }
+    }
+    
+    /**
+     * Bytes read (object size of a GET or HEAD) or written (request body of a PUT or part upload)
+     */
+    private static long bytes(SdkResponse response, RequestBody requestBody) {
+        Long responseLength = response.getValueForField("ContentLength", Long.class).orElse(null);
+        if (responseLength != null) {
+            return responseLength;
+        }
+        return requestBody != null ? requestBody.optionalContentLength().orElse(0L) : 0L;
+    }
+}
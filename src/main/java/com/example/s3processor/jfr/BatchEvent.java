@@ -0,0 +1,71 @@
+package com.example.s3processor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder span for the work one handler does on a single batch, lane or feed
+ */
+@Name("com.example.s3processor.Batch")
+@Label("Batch")
+@Category({"S3 File Processor", "Handlers"})
+@Description("Moving, validating or evaluating one batch, lane or feed")
+@StackTrace(false)
+public class BatchEvent extends Event {
+    
+    @Label("Stage")
+    @Description("move, validate or monitor")
+    String stage;
+    
+    @Label("Prefix")
+    @Description("Batch prefix, or the pending prefix for the monitor")
+    String prefix;
+    
+    @Label("Files")
+    long files;
+    
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+    
+    @Label("Outcome")
+    String outcome;
+    
+    /**
+     * Begin a span, or return null when events are disabled by configuration
+     */
+    public static BatchEvent start(boolean enabled, String stage, String prefix) {
+        if (!enabled) {
+            return null;
+        }
+        BatchEvent event = new BatchEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        event.stage = stage;
+        event.prefix = prefix;
+        return event;
+    }
+    
+    /**
+     * Record the span's result; a null span is ignored
+     */
+    public static void finish(BatchEvent event, long files, long bytes, String outcome) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.files = files;
+            event.bytes = bytes;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+}
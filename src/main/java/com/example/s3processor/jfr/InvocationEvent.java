@@ -0,0 +1,59 @@
+package com.example.s3processor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder span for one Lambda handler invocation, from reading the event to writing the result
+ */
+@Name("com.example.s3processor.Invocation")
+@Label("Handler Invocation")
+@Category({"S3 File Processor", "Handlers"})
+@StackTrace(false)
+public class InvocationEvent extends Event {
+    
+    @Label("Handler")
+    String handler;
+    
+    @Label("Request Id")
+    String requestId;
+    
+    @Label("Outcome")
+    @Description("Status reported by the handler, or the exception it threw")
+    String outcome;
+    
+    /**
+     * Begin a span, or return null when events are disabled by configuration
+     */
+    public static InvocationEvent start(boolean enabled, String handler, String requestId) {
+        if (!enabled) {
+            return null;
+        }
+        InvocationEvent event = new InvocationEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        event.handler = handler;
+        event.requestId = requestId;
+        return event;
+    }
+    
+    /**
+     * Record the span's result; a null span is ignored
+     */
+    public static void finish(InvocationEvent event, String outcome) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.s3processor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for reading a handler request or writing its result as JSON
+ */
+@Name("com.example.s3processor.JsonCodec")
+@Label("JSON Codec")
+@Category({"S3 File Processor", "Handlers"})
+@StackTrace(false)
+public class JsonCodecEvent extends Event {
+    
+    @Label("Direction")
+    String direction;
+    
+    @Label("Type")
+    String type;
+    
+    /**
+     * Begin a span, or return null when events are disabled by configuration
+     */
+    public static JsonCodecEvent start(boolean enabled, String direction, Class<?> type) {
+        if (!enabled) {
+            return null;
+        }
+        JsonCodecEvent event = new JsonCodecEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        event.direction = direction;
+        event.type = type.getSimpleName();
+        return event;
+    }
+    
+    /**
+     * Record the span; a null span is ignored
+     */
+    public static void finish(JsonCodecEvent event) {
+        if (event != null) {
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.s3processor.lambda;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AsyncAppender that a handler can drain before returning. Lambda freezes the sandbox as soon as
+ * handleRequest returns, so events still queued would only be written on the next invocation,
+ * or never when the sandbox is retired. drain() queues a marker behind the pending events and
+ * waits until the worker has passed them all to the attached appenders.
+ */
+public class DrainableAsyncAppender extends AsyncAppender {
+    
+    static final long MAX_DRAIN_MILLIS = 1000;
+    
+    /**
+     * Drain every DrainableAsyncAppender on the root logger, waiting at most MAX_DRAIN_MILLIS each
+     */
+    static void drainRoot() {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (!(loggerFactory instanceof LoggerContext)) {
+            return;
+        }
+        Iterator<Appender<ILoggingEvent>> appenders = ((LoggerContext) loggerFactory)
+                .getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            Appender<ILoggingEvent> appender = appenders.next();
+            if (appender instanceof DrainableAsyncAppender) {
+                ((DrainableAsyncAppender) appender).drain(MAX_DRAIN_MILLIS);
+            }
+        }
+    }
+    
+    /**
+     * Block until every event queued before this call was written, or maxWaitMillis passed.
+     * With neverBlock a full queue drops the marker too, and the wait runs to maxWaitMillis.
+     *
+     * @return true when the queue was drained
+     */
+    public boolean drain(long maxWaitMillis) {
+        if (!isStarted()) {
+            return true;
+        }
+        DrainMarker marker = new DrainMarker();
+        append(marker);
+        try {
+            return marker.written.await(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        super.addAppender(new MarkerAwareAppender(appender));
+    }
+    
+    @Override
+    protected void preprocess(ILoggingEvent event) {
+        if (!(event instanceof DrainMarker)) {
+            super.preprocess(event);
+        }
+    }
+    
+    /**
+     * Queued by drain(); ERROR so that it is never discarded below the discarding threshold
+     */
+    private static class DrainMarker extends LoggingEvent {
+        
+        private final CountDownLatch written = new CountDownLatch(1);
+        
+        DrainMarker() {
+            setLevel(Level.ERROR);
+        }
+    }
+    
+    /**
+     * Releases drain markers instead of passing them on to the wrapped appender
+     */
+    private static class MarkerAwareAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+        
+        private final Appender<ILoggingEvent> delegate;
+        
+        MarkerAwareAppender(Appender<ILoggingEvent> delegate) {
+            this.delegate = delegate;
+            setName(delegate.getName());
+            setContext(delegate.getContext());
+        }
+        
+        @Override
+        public void doAppend(ILoggingEvent event) {
+            if (event instanceof DrainMarker) {
+                ((DrainMarker) event).written.countDown();
+            } else {
+                delegate.doAppend(event);
+            }
+        }
+        
+        @Override
+        protected void append(ILoggingEvent event) {
+            delegate.doAppend(event);
+        }
+        
+        @Override
+        public void stop() {
+            delegate.stop();
+            super.stop();
+        }
+    }
+}
@@ -1,77 +1,167 @@
 package com.example.s3processor.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.example.s3processor.service.RequestCounter;
+import com.example.s3processor.service.RunStatsCollector;
 import com.example.s3processor.service.S3Service;
 import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.config.PriorityLane;
+import com.example.s3processor.jfr.InvocationEvent;
+import com.example.s3processor.model.BatchRequest;
+import com.example.s3processor.model.BatchingResult;
+import com.example.s3processor.model.MoveResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Lambda function for batching files from pending to processing folder
  */
-public class FileBatchingLambda implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+public class FileBatchingLambda implements RequestStreamHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(FileBatchingLambda.class);
     
     private final S3Service s3Service;
     private final AppConfig config;
+    private final LambdaJsonCodec jsonCodec;
+    private final boolean jfrEvents;
     
     public FileBatchingLambda() {
         this.config = new AppConfig();
         this.s3Service = new S3Service(config);
+        this.jsonCodec = new LambdaJsonCodec(config);
+        this.jfrEvents = config.isJfrEventsEnabled();
     }
     
     // Constructor for testing
     public FileBatchingLambda(S3Service s3Service, AppConfig config) {
         this.s3Service = s3Service;
         this.config = config;
+        this.jsonCodec = new LambdaJsonCodec(config);
+        this.jfrEvents = config.isJfrEventsEnabled();
     }
     
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        InvocationEvent invocation = InvocationEvent.start(jfrEvents, "FileBatchingLambda",
+                context != null ? context.getAwsRequestId() : null);
+        BatchingResult result;
+        try {
+            result = batchFiles(jsonCodec.readBatchRequest(input), context);
+        } catch (IOException e) {
+            logger.error("Unable to parse file batching request", e);
+            result = BatchingResult.failed(e.getMessage());
+        }
+        try {
+            jsonCodec.writeBatchingResult(output, result);
+        } finally {
+            InvocationEvent.finish(invocation, result.getStatus());
+            DrainableAsyncAppender.drainRoot();
+        }
+    }
+    
+    /**
+     * Move the pending files of a request into processing batches
+     */
+    public BatchingResult batchFiles(BatchRequest request, Context context) {
         logger.info("File Batching Lambda invoked - Request ID: {}", context.getAwsRequestId());
+        RunStatsCollector stats = new RunStatsCollector(RequestCounter.shared());
         
         try {
             // Parse input from Step Function
-            String bucketName = (String) input.get("bucketName");
-            String sourcePrefix = (String) input.get("sourcePrefix");
-            String destPrefix = (String) input.get("destPrefix");
+            String bucketName = request.getBucketName();
+            String sourcePrefix = request.getSourcePrefix();
+            String destPrefix = request.getDestPrefix();
+            String lane = request.getLane() != null ? request.getLane() : PriorityLane.BULK;
+            PriorityLane priorityLane = PriorityLane.find(config.getPriorityLanes(), lane);
             
-            logger.info("Batching files from bucket: {} source: {} to dest: {}", 
-                       bucketName, sourcePrefix, destPrefix);
+            logger.info("Batching files from bucket: {} source: {} to dest: {} in lane: {}", 
+                       bucketName, sourcePrefix, destPrefix, lane);
             
-            // Move files in batches
-            List<String> batchPrefixes = s3Service.moveFilesInBatches(bucketName, sourcePrefix, destPrefix);
+            // Move files in batches, dropping duplicates first when enabled, and stop early
+            // enough to hand the rest of the backlog to the next invocation
+            long deadlineMillis = System.currentTimeMillis() + context.getRemainingTimeInMillis()
+                    - config.getBatchingSafetyMarginMillis();
+            int firstBatchNumber = Math.max(1, request.getNextBatchNumber());
+            boolean checkingCopyJobs = request.getCopyJobIds() != null && !request.getCopyJobIds().isEmpty();
+            MoveResult moveResult = checkingCopyJobs
+                    ? s3Service.completeCopyJobs(bucketName, request.getCopyJobIds(), request.getBatchPrefixes())
+                    : s3Service.moveFiles(bucketName, sourcePrefix, destPrefix, request.getStartAfter(),
+                            firstBatchNumber, deadlineMillis, lane, request.getListingKey());
+            if (checkingCopyJobs && moveResult.getCopyJobIds() == null && request.getStartAfter() != null) {
+                // The jobs' invocation stopped at its time budget; batching resumes where it stopped
+                moveResult.setComplete(false);
+                moveResult.setStartAfter(request.getStartAfter());
+                moveResult.setNextBatchNumber(firstBatchNumber);
+            }
+            List<String> batchPrefixes = moveResult.getBatchPrefixes();
             
-            Map<String, Object> result = new HashMap<>();
-            result.put("bucketName", bucketName);
-            result.put("sourcePrefix", sourcePrefix);
-            result.put("destPrefix", destPrefix);
-            result.put("batchPrefixes", batchPrefixes);
-            result.put("totalBatches", batchPrefixes.size());
-            result.put("batchSize", config.getBatchSize());
-            result.put("timestamp", System.currentTimeMillis());
-            result.put("status", "SUCCESS");
-            
-            logger.info("File batching completed successfully. Created {} batches", batchPrefixes.size());
+            BatchingResult result = new BatchingResult();
+            result.setBucketName(bucketName);
+            result.setBatchBucketName(s3Service.getBatchBucketName(bucketName));
+            result.setSourcePrefix(sourcePrefix);
+            result.setDestPrefix(destPrefix);
+            result.setBatchPrefixes(batchPrefixes);
+            result.setBatchGroups(groupBatches(batchPrefixes));
+            result.setTotalBatches(batchPrefixes.size());
+            result.setBatchSize(priorityLane != null ? priorityLane.getBatchSize() : config.getBatchSize());
+            result.setLane(lane);
+            result.setValidationConcurrency(Math.max(1, priorityLane != null
+                    ? priorityLane.getConcurrency() : config.getValidationMapConcurrency()));
+            result.setDuplicateFiles(moveResult.getDuplicateFiles());
+            result.setDuplicateReportKey(moveResult.getDuplicateReportKey());
+            result.setMoveStages(moveResult.getStageStats());
+            stats.addPhases(moveResult.getPhaseMillis());
+            result.setRunStats(stats.finish(moveResult.getMovedFiles(), moveResult.getMovedBytes()));
+            result.setTimestamp(System.currentTimeMillis());
+            if (moveResult.getCopyJobIds() != null) {
+                // The workflow waits and calls again with the job IDs until the jobs have ended
+                result.setStatus("COPYING");
+                result.setCopyJobIds(moveResult.getCopyJobIds());
+                result.setCopyJobPollSeconds(Math.max(1, config.getBatchOperationsPollIntervalSeconds()));
+                if (!moveResult.isComplete()) {
+                    // Carried through the polling round trips to continue once the jobs have ended
+                    result.setStartAfter(moveResult.getStartAfter());
+                    result.setNextBatchNumber(moveResult.getNextBatchNumber());
+                }
+                logger.info("Waiting for {} copy jobs to fill {} batches", moveResult.getCopyJobIds().size(),
+                           batchPrefixes.size());
+            } else if (moveResult.isComplete()) {
+                result.setStatus("SUCCESS");
+                logger.info("File batching completed successfully. Created {} batches", batchPrefixes.size());
+            } else {
+                result.setStatus("CONTINUE");
+                result.setStartAfter(moveResult.getStartAfter());
+                result.setNextBatchNumber(moveResult.getNextBatchNumber());
+                logger.info("File batching paused at its time budget. Created {} batches, continuing after {}",
+                           batchPrefixes.size(), moveResult.getStartAfter());
+            }
             
             return result;
             
         } catch (Exception e) {
             logger.error("Error during file batching", e);
-            
-            Map<String, Object> errorResult = new HashMap<>();
-            errorResult.put("error", true);
-            errorResult.put("errorMessage", e.getMessage());
-            errorResult.put("status", "FAILED");
-            errorResult.put("timestamp", System.currentTimeMillis());
-            
-            return errorResult;
+            BatchingResult failed = BatchingResult.failed(e.getMessage());
+            failed.setRunStats(stats.finish(0, 0));
+            return failed;
+        }
+    }
+    
+    /**
+     * Group batch prefixes so each validation invocation covers several batches
+     */
+    private List<List<String>> groupBatches(List<String> batchPrefixes) {
+        int groupSize = Math.max(1, config.getValidationBatchesPerInvocation());
+        List<List<String>> groups = new ArrayList<>();
+        for (int i = 0; i < batchPrefixes.size(); i += groupSize) {
+            groups.add(new ArrayList<>(batchPrefixes.subList(i, Math.min(i + groupSize, batchPrefixes.size()))));
         }
+        return groups;
     }
 }
@@ -1,107 +1,246 @@
 package com.example.s3processor.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.example.s3processor.service.BatchIssueLog;
+import com.example.s3processor.service.RequestCounter;
+import com.example.s3processor.service.RunStatsCollector;
 import com.example.s3processor.service.S3Service;
+import com.example.s3processor.service.ValidationCache;
 import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.jfr.BatchEvent;
+import com.example.s3processor.jfr.InvocationEvent;
 import com.example.s3processor.model.BatchRequest;
+import com.example.s3processor.model.ValidationResult;
+import com.example.s3processor.model.ValidationSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.model.S3Object;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Lambda function for file validation in Step Function workflow
  */
-public class FileValidationLambda implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+public class FileValidationLambda implements RequestStreamHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(FileValidationLambda.class);
     
     private final S3Service s3Service;
     private final AppConfig config;
+    private final LambdaJsonCodec jsonCodec;
+    private final ValidationCache validationCache;
+    private final boolean jfrEvents;
+    private ExecutorService validationExecutor;
     
     public FileValidationLambda() {
         this.config = new AppConfig();
         this.s3Service = new S3Service(config);
+        this.jsonCodec = new LambdaJsonCodec(config);
+        this.validationCache = ValidationCache.fromConfig(config);
+        this.jfrEvents = config.isJfrEventsEnabled();
     }
     
     // Constructor for testing
     public FileValidationLambda(S3Service s3Service, AppConfig config) {
+        this(s3Service, new ValidationCache(0, null), config);
+    }
+    
+    // Constructor for testing
+    public FileValidationLambda(S3Service s3Service, ValidationCache validationCache, AppConfig config) {
         this.s3Service = s3Service;
         this.config = config;
+        this.jsonCodec = new LambdaJsonCodec(config);
+        this.validationCache = validationCache;
+        this.jfrEvents = config.isJfrEventsEnabled();
     }
     
+    /**
+     * Validate one batch, or every batch listed in batchPrefixes when the request carries them
+     */
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        InvocationEvent invocation = InvocationEvent.start(jfrEvents, "FileValidationLambda",
+                context != null ? context.getAwsRequestId() : null);
+        String outcome = "FAILED";
+        try {
+            BatchRequest request;
+            try {
+                request = jsonCodec.readBatchRequest(input);
+            } catch (IOException e) {
+                logger.error("Unable to parse file validation request", e);
+                jsonCodec.writeValidationResult(output, ValidationResult.failed(e.getMessage()));
+                return;
+            }
+            
+            if (request.getBatchPrefixes() != null && !request.getBatchPrefixes().isEmpty()) {
+                ValidationSummary summary = validateBatches(request, context);
+                jsonCodec.writeValidationSummary(output, summary);
+                outcome = summary.isValid() ? "VALID" : "INVALID";
+            } else {
+                ValidationResult result = validateBatch(request, context);
+                jsonCodec.writeValidationResult(output, result);
+                outcome = Boolean.TRUE.equals(result.getError()) ? "FAILED" : result.isValid() ? "VALID" : "INVALID";
+            }
+        } finally {
+            InvocationEvent.finish(invocation, outcome);
+            DrainableAsyncAppender.drainRoot();
+        }
+    }
+    
+    /**
+     * Validate several batches concurrently, sharing this handler's S3 client and validation cache
+     */
+    public ValidationSummary validateBatches(BatchRequest request, Context context) {
+        List<String> batchPrefixes = request.getBatchPrefixes();
+        logger.info("Validating {} batches in bucket: {}", batchPrefixes.size(), request.getBucketName());
+        RunStatsCollector stats = new RunStatsCollector(RequestCounter.shared());
+        
+        List<CompletableFuture<ValidationResult>> validations = new ArrayList<>(batchPrefixes.size());
+        for (String batchPrefix : batchPrefixes) {
+            BatchRequest batchRequest = new BatchRequest();
+            batchRequest.setBucketName(request.getBucketName());
+            batchRequest.setBatchPrefix(batchPrefix);
+            validations.add(CompletableFuture.supplyAsync(() -> validateBatch(batchRequest, context, null), validationExecutor()));
+        }
+        
+        List<ValidationResult> results = new ArrayList<>(batchPrefixes.size());
+        long files = 0;
+        long bytes = 0;
+        for (int i = 0; i < validations.size(); i++) {
+            ValidationResult result = validations.get(i).join();
+            if (result.getRunStats() != null) {
+                stats.addPhases(result.getRunStats().getPhaseMillis());
+                files += result.getRunStats().getFiles();
+                bytes += result.getRunStats().getBytes();
+            }
+            // Failed results carry only the error; keep them attributable to their batch
+            result.setBucketName(request.getBucketName());
+            result.setBatchPrefix(batchPrefixes.get(i));
+            results.add(result);
+        }
+        
+        ValidationSummary summary = new ValidationSummary(request.getBucketName(), results);
+        summary.setRunStats(stats.finish(files, bytes));
+        logger.info("Validated {} batches, {} invalid", summary.getTotalBatches(), summary.getInvalidBatches());
+        return summary;
+    }
+    
+    /**
+     * Validate a specific batch of files
+     */
+    public ValidationResult validateBatch(BatchRequest batchRequest, Context context) {
+        return validateBatch(batchRequest, context, RequestCounter.shared());
+    }
+    
+    /**
+     * Validate one batch, counting requests only when it is the invocation's sole batch
+     */
+    private ValidationResult validateBatch(BatchRequest batchRequest, Context context, RequestCounter requestCounter) {
         logger.info("File Validation Lambda invoked - Request ID: {}", context.getAwsRequestId());
+        BatchEvent batchEvent = BatchEvent.start(jfrEvents, "validate", batchRequest.getBatchPrefix());
+        RunStatsCollector stats = new RunStatsCollector(requestCounter);
         
         try {
             // Parse input from Step Function
-            String bucketName = (String) input.get("bucketName");
-            String batchPrefix = (String) input.get("batchPrefix");
+            String bucketName = batchRequest.getBucketName();
+            String batchPrefix = batchRequest.getBatchPrefix();
             
             logger.info("Validating files in bucket: {} with prefix: {}", bucketName, batchPrefix);
             
-            // Get list of files in the batch
-            List<String> fileKeys = s3Service.listFiles(bucketName, batchPrefix);
+            // Get list of files in the batch, with the ETags the validation cache is keyed by
+            List<S3Object> files = stats.phase("list", () -> s3Service.listBatchFileObjects(bucketName, batchPrefix));
+            long batchBytes = files.stream().mapToLong(file -> file.size() != null ? file.size() : 0L).sum();
+            stats.phase("cacheLoad", () -> {
+                validationCache.loadBatch(bucketName, batchPrefix);
+                return null;
+            });
             
-            Map<String, Object> validationResult = new HashMap<>();
-            validationResult.put("bucketName", bucketName);
-            validationResult.put("batchPrefix", batchPrefix);
-            validationResult.put("totalFiles", fileKeys.size());
+            ValidationResult validationResult = new ValidationResult(bucketName, batchPrefix);
+            validationResult.setTotalFiles(files.size());
             
             // Validate each file
             int validFiles = 0;
             int emptyFiles = 0;
             int errorFiles = 0;
+            int cachedFiles = 0;
+            BatchIssueLog issues = new BatchIssueLog(config.getLogSummaryMaxKeys());
+            long validateStart = System.nanoTime();
             
-            for (String fileKey : fileKeys) {
+            for (S3Object file : files) {
+                String fileKey = file.key();
                 try {
-                    if (s3Service.isFileEmpty(bucketName, fileKey)) {
+                    Boolean empty = validationCache.get(bucketName, fileKey, file.eTag());
+                    if (empty != null) {
+                        cachedFiles++;
+                    } else {
+                        empty = s3Service.isFileEmpty(bucketName, fileKey);
+                        validationCache.put(bucketName, fileKey, file.eTag(), empty);
+                    }
+                    
+                    if (empty) {
                         emptyFiles++;
-                        logger.warn("Empty file detected: {}", fileKey);
+                        issues.record("empty", fileKey);
                     } else {
                         validFiles++;
                     }
                 } catch (Exception e) {
                     errorFiles++;
-                    logger.error("Error validating file: {}", fileKey, e);
+                    issues.record("unreadable", fileKey, e);
                 }
             }
             
-            validationResult.put("validFiles", validFiles);
-            validationResult.put("emptyFiles", emptyFiles);
-            validationResult.put("errorFiles", errorFiles);
-            validationResult.put("isValid", emptyFiles == 0 && errorFiles == 0);
-            validationResult.put("timestamp", System.currentTimeMillis());
+            stats.addPhase("validate", (System.nanoTime() - validateStart) / 1_000_000);
+            issues.logSummary(logger, batchPrefix);
             
-            logger.info("Validation completed - Valid: {}, Empty: {}, Errors: {}", 
-                       validFiles, emptyFiles, errorFiles);
+            if (cachedFiles < files.size()) {
+                stats.phase("cacheSave", () -> {
+                    validationCache.saveBatch(bucketName, batchPrefix, files);
+                    return null;
+                });
+            }
+            
+            validationResult.setValidFiles(validFiles);
+            validationResult.setEmptyFiles(emptyFiles);
+            validationResult.setErrorFiles(errorFiles);
+            validationResult.setCachedFiles(cachedFiles);
+            validationResult.setValid(emptyFiles == 0 && errorFiles == 0);
+            validationResult.setTimestamp(System.currentTimeMillis());
+            validationResult.setRunStats(stats.finish(files.size(), batchBytes));
+            
+            logger.info("Validation completed - Valid: {}, Empty: {}, Errors: {}, Cached: {}", 
+                       validFiles, emptyFiles, errorFiles, cachedFiles);
             
+            BatchEvent.finish(batchEvent, files.size(), batchBytes, validationResult.isValid() ? "VALID" : "INVALID");
             return validationResult;
             
         } catch (Exception e) {
             logger.error("Error during file validation", e);
-            
-            Map<String, Object> errorResult = new HashMap<>();
-            errorResult.put("error", true);
-            errorResult.put("errorMessage", e.getMessage());
-            errorResult.put("timestamp", System.currentTimeMillis());
-            
-            return errorResult;
+            BatchEvent.finish(batchEvent, 0, 0, "FAILED");
+            ValidationResult failed = ValidationResult.failed(e.getMessage());
+            failed.setRunStats(stats.finish(0, 0));
+            return failed;
         }
     }
     
-    /**
-     * Validate a specific batch of files
-     */
-    public Map<String, Object> validateBatch(BatchRequest batchRequest, Context context) {
-        Map<String, Object> input = new HashMap<>();
-        input.put("bucketName", batchRequest.getBucketName());
-        input.put("batchPrefix", batchRequest.getBatchPrefix());
-        
-        return handleRequest(input, context);
+    private synchronized ExecutorService validationExecutor() {
+        if (validationExecutor == null) {
+            int concurrency = Math.max(1, config.getValidationConcurrency());
+            AtomicInteger threadCount = new AtomicInteger();
+            validationExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "s3-validation-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return validationExecutor;
     }
 }
@@ -0,0 +1,155 @@
+package com.example.s3processor.lambda;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.jfr.JsonCodecEvent;
+import com.example.s3processor.model.BatchRequest;
+import com.example.s3processor.model.BatchingResult;
+import com.example.s3processor.model.ProcessingResult;
+import com.example.s3processor.model.ValidationResult;
+import com.example.s3processor.model.ValidationSummary;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Streaming JSON codec shared by the Lambda handlers.
+ * Readers and writers are built once per container and reused by every invocation,
+ * so payloads are bound straight from the runtime stream into the typed models.
+ */
+public class LambdaJsonCodec {
+    
+    private final ObjectMapper objectMapper;
+    private final ObjectReader batchRequestReader;
+    private final ObjectWriter batchingResultWriter;
+    private final ObjectWriter validationResultWriter;
+    private final ObjectWriter validationSummaryWriter;
+    private final ObjectWriter processingResultWriter;
+    private final ObjectWriter processingResultListWriter;
+    private final ObjectWriter apiGatewayResponseWriter;
+    private final ObjectWriter genericWriter;
+    private final boolean jfrEvents;
+    
+    public LambdaJsonCodec(AppConfig config) {
+        this.objectMapper = new ObjectMapper()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                // The runtime owns the streams; never close them from here
+                .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        // Blackbird generates accessor classes at runtime, which a native image cannot load
+        if (config.isJsonBytecodeModuleEnabled() && System.getProperty("org.graalvm.nativeimage.imagecode") == null) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        
+        this.batchRequestReader = objectMapper.readerFor(BatchRequest.class);
+        this.batchingResultWriter = objectMapper.writerFor(BatchingResult.class);
+        this.validationResultWriter = objectMapper.writerFor(ValidationResult.class);
+        this.validationSummaryWriter = objectMapper.writerFor(ValidationSummary.class);
+        this.processingResultWriter = objectMapper.writerFor(ProcessingResult.class);
+        this.processingResultListWriter = objectMapper.writerFor(new TypeReference<List<ProcessingResult>>() { });
+        this.apiGatewayResponseWriter = objectMapper.writerFor(APIGatewayProxyResponseEvent.class);
+        this.genericWriter = objectMapper.writer();
+        this.jfrEvents = config.isJfrEventsEnabled();
+    }
+    
+    public BatchRequest readBatchRequest(InputStream input) throws IOException {
+        JsonCodecEvent event = JsonCodecEvent.start(jfrEvents, "read", BatchRequest.class);
+        try {
+            return batchRequestReader.readValue(input);
+        } finally {
+            JsonCodecEvent.finish(event);
+        }
+    }
+    
+    public void writeBatchingResult(OutputStream output, BatchingResult result) throws IOException {
+        JsonCodecEvent event = JsonCodecEvent.start(jfrEvents, "write", BatchingResult.class);
+        try {
+            batchingResultWriter.writeValue(output, result);
+        } finally {
+            JsonCodecEvent.finish(event);
+        }
+    }
+    
+    public void writeValidationResult(OutputStream output, ValidationResult result) throws IOException {
+        JsonCodecEvent event = JsonCodecEvent.start(jfrEvents, "write", ValidationResult.class);
+        try {
+            validationResultWriter.writeValue(output, result);
+        } finally {
+            JsonCodecEvent.finish(event);
+        }
+    }
+    
+    public void writeValidationSummary(OutputStream output, ValidationSummary summary) throws IOException {
+        JsonCodecEvent event = JsonCodecEvent.start(jfrEvents, "write", ValidationSummary.class);
+        try {
+            validationSummaryWriter.writeValue(output, summary);
+        } finally {
+            JsonCodecEvent.finish(event);
+        }
+    }
+    
+    public void writeProcessingResult(OutputStream output, ProcessingResult result) throws IOException {
+        JsonCodecEvent event = JsonCodecEvent.start(jfrEvents, "write", ProcessingResult.class);
+        try {
+            processingResultWriter.writeValue(output, result);
+        } finally {
+            JsonCodecEvent.finish(event);
+        }
+    }
+    
+    public void writeProcessingResults(OutputStream output, List<ProcessingResult> results) throws IOException {
+        JsonCodecEvent event = JsonCodecEvent.start(jfrEvents, "write", List.class);
+        try {
+            processingResultListWriter.writeValue(output, results);
+        } finally {
+            JsonCodecEvent.finish(event);
+        }
+    }
+    
+    public void writeApiGatewayResponse(OutputStream output, APIGatewayProxyResponseEvent response) throws IOException {
+        JsonCodecEvent event = JsonCodecEvent.start(jfrEvents, "write", APIGatewayProxyResponseEvent.class);
+        try {
+            apiGatewayResponseWriter.writeValue(output, response);
+        } finally {
+            JsonCodecEvent.finish(event);
+        }
+    }
+    
+    public String writeValueAsString(Object value) throws IOException {
+        return genericWriter.writeValueAsString(value);
+    }
+    
+    /**
+     * Scan only the top-level field names of an event to tell an API Gateway proxy
+     * request apart from a scheduled event, skipping over nested objects unparsed
+     */
+    public boolean isApiGatewayRequest(InputStream input) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                if ("httpMethod".equals(fieldName) || "requestContext".equals(fieldName)) {
+                    return true;
+                }
+                parser.nextToken();
+                parser.skipChildren();
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.s3processor.lambda;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Entry point of the GraalVM native image, run as "bootstrap" on the provided.al2023 custom runtime.
+ * Builds the handler named by _HANDLER once, then polls the Lambda Runtime API for invocations
+ * and posts each response or error back, as the managed Java runtime does for the jar build.
+ * "bootstrap --probe Handler" prints init timings for the StartupBenchmark instead.
+ */
+public class NativeBootstrap {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NativeBootstrap.class);
+    
+    private static final String API_VERSION = "/2018-06-01/runtime";
+    
+    private final String runtimeApi;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    NativeBootstrap(String runtimeApi) {
+        this.runtimeApi = "http://" + runtimeApi + API_VERSION;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("--probe")) {
+            StartupProbe.main(new String[] {args[1]});
+            return;
+        }
+        
+        NativeBootstrap bootstrap = new NativeBootstrap(System.getenv("AWS_LAMBDA_RUNTIME_API"));
+        RequestStreamHandler handler;
+        try {
+            handler = createHandler(System.getenv("_HANDLER"));
+        } catch (Exception e) {
+            bootstrap.postError(bootstrap.runtimeApi + "/init/error", e);
+            System.exit(1);
+            return;
+        }
+        
+        while (true) {
+            try {
+                bootstrap.invokeNext(handler);
+            } catch (IOException e) {
+                // One failed call to the runtime API must not end the process; poll for the next invocation
+                logger.error("Runtime API call failed", e);
+            }
+        }
+    }
+    
+    /**
+     * Handler as configured on the function, e.g. com.example.s3processor.lambda.S3MonitorLambda::handleRequest
+     */
+    static RequestStreamHandler createHandler(String handlerName) throws ReflectiveOperationException {
+        if (handlerName == null || handlerName.isEmpty()) {
+            throw new IllegalStateException("_HANDLER is not set");
+        }
+        int separator = handlerName.indexOf("::");
+        String className = separator >= 0 ? handlerName.substring(0, separator) : handlerName;
+        return (RequestStreamHandler) Class.forName(className).getDeclaredConstructor().newInstance();
+    }
+    
+    void invokeNext(RequestStreamHandler handler) throws IOException {
+        HttpURLConnection next = (HttpURLConnection) new URL(runtimeApi + "/invocation/next").openConnection();
+        // Long poll: the runtime API holds the request until an invocation arrives
+        next.setReadTimeout(0);
+        byte[] event;
+        try (InputStream input = next.getInputStream()) {
+            event = input.readAllBytes();
+        }
+        
+        String requestId = next.getHeaderField("Lambda-Runtime-Aws-Request-Id");
+        String traceId = next.getHeaderField("Lambda-Runtime-Trace-Id");
+        if (traceId != null) {
+            System.setProperty("com.amazonaws.xray.traceHeader", traceId);
+        }
+        RuntimeContext context = new RuntimeContext(requestId,
+                Long.parseLong(next.getHeaderField("Lambda-Runtime-Deadline-Ms")),
+                next.getHeaderField("Lambda-Runtime-Invoked-Function-Arn"));
+        
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try {
+            handler.handleRequest(new ByteArrayInputStream(event), response, context);
+        } catch (Throwable e) {
+            postError(runtimeApi + "/invocation/" + requestId + "/error", e);
+            return;
+        }
+        post(runtimeApi + "/invocation/" + requestId + "/response", response.toByteArray(), null);
+    }
+    
+    private void postError(String url, Throwable error) throws IOException {
+        logger.error("Handler failed, reporting to {}", url, error);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("errorMessage", String.valueOf(error.getMessage()));
+        body.put("errorType", error.getClass().getName());
+        post(url, objectMapper.writeValueAsBytes(body), "Unhandled");
+    }
+    
+    private static void post(String url, byte[] body, String errorType) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        if (errorType != null) {
+            connection.setRequestProperty("Lambda-Runtime-Function-Error-Type", errorType);
+        }
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(body);
+        }
+        connection.getResponseCode();
+        connection.disconnect();
+    }
+    
+    /**
+     * Lambda Context built from the runtime API headers and the function environment
+     */
+    static class RuntimeContext implements Context {
+        
+        private final String awsRequestId;
+        private final long deadlineMillis;
+        private final String invokedFunctionArn;
+        
+        RuntimeContext(String awsRequestId, long deadlineMillis, String invokedFunctionArn) {
+            this.awsRequestId = awsRequestId;
+            this.deadlineMillis = deadlineMillis;
+            this.invokedFunctionArn = invokedFunctionArn;
+        }
+        
+        @Override
+        public String getAwsRequestId() {
+            return awsRequestId;
+        }
+        
+        @Override
+        public String getLogGroupName() {
+            return System.getenv("AWS_LAMBDA_LOG_GROUP_NAME");
+        }
+        
+        @Override
+        public String getLogStreamName() {
+            return System.getenv("AWS_LAMBDA_LOG_STREAM_NAME");
+        }
+        
+        @Override
+        public String getFunctionName() {
+            return System.getenv("AWS_LAMBDA_FUNCTION_NAME");
+        }
+        
+        @Override
+        public String getFunctionVersion() {
+            return System.getenv("AWS_LAMBDA_FUNCTION_VERSION");
+        }
+        
+        @Override
+        public String getInvokedFunctionArn() {
+            return invokedFunctionArn;
+        }
+        
+        @Override
+        public CognitoIdentity getIdentity() {
+            return null;
+        }
+        
+        @Override
+        public ClientContext getClientContext() {
+            return null;
+        }
+        
+        @Override
+        public int getRemainingTimeInMillis() {
+            return (int) Math.max(0, deadlineMillis - System.currentTimeMillis());
+        }
+        
+        @Override
+        public int getMemoryLimitInMB() {
+            String memory = System.getenv("AWS_LAMBDA_FUNCTION_MEMORY_SIZE");
+            return memory == null ? 0 : Integer.parseInt(memory);
+        }
+        
+        @Override
+        public LambdaLogger getLogger() {
+            return new LambdaLogger() {
+                @Override
+                public void log(String message) {
+                    System.out.println(message);
+                }
+                
+                @Override
+                public void log(byte[] message) {
+                    log(new String(message, StandardCharsets.UTF_8));
+                }
+            };
+        }
+    }
+}
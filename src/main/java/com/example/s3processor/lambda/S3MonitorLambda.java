@@ -1,58 +1,124 @@
 package com.example.s3processor.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.s3processor.service.ArrivalTracker;
+import com.example.s3processor.service.EventBridgeMonitorScheduler;
+import com.example.s3processor.service.MonitorScheduler;
+import com.example.s3processor.service.RequestCounter;
+import com.example.s3processor.service.RunStatsCollector;
 import com.example.s3processor.service.S3Service;
 import com.example.s3processor.service.StepFunctionService;
 import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.config.MonitorTarget;
+import com.example.s3processor.config.PriorityLane;
+import com.example.s3processor.jfr.BatchEvent;
+import com.example.s3processor.jfr.InvocationEvent;
+import com.example.s3processor.model.BacklogSnapshot;
 import com.example.s3processor.model.ProcessingResult;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.s3processor.model.TriggerPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Lambda function to monitor S3 bucket and trigger processing workflow
  */
-public class S3MonitorLambda implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+public class S3MonitorLambda implements RequestStreamHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(S3MonitorLambda.class);
     
     private final S3Service s3Service;
     private final StepFunctionService stepFunctionService;
     private final AppConfig config;
-    private final ObjectMapper objectMapper;
+    private final LambdaJsonCodec jsonCodec;
+    private final ArrivalTracker arrivalTracker;
+    private final MonitorScheduler monitorScheduler;
+    private final boolean jfrEvents;
+    private ExecutorService monitorExecutor;
     
     public S3MonitorLambda() {
         this.config = new AppConfig();
         this.s3Service = new S3Service(config);
         this.stepFunctionService = new StepFunctionService(config);
-        this.objectMapper = new ObjectMapper();
+        this.jsonCodec = new LambdaJsonCodec(config);
+        this.arrivalTracker = ArrivalTracker.fromConfig(config);
+        this.monitorScheduler = EventBridgeMonitorScheduler.fromConfig(config);
+        this.jfrEvents = config.isJfrEventsEnabled();
     }
     
     // Constructor for testing
     public S3MonitorLambda(S3Service s3Service, StepFunctionService stepFunctionService, AppConfig config) {
+        this(s3Service, stepFunctionService, null, null, config);
+    }
+    
+    // Constructor for testing
+    public S3MonitorLambda(S3Service s3Service, StepFunctionService stepFunctionService,
+                           ArrivalTracker arrivalTracker, MonitorScheduler monitorScheduler, AppConfig config) {
         this.s3Service = s3Service;
         this.stepFunctionService = stepFunctionService;
         this.config = config;
-        this.objectMapper = new ObjectMapper();
+        this.jsonCodec = new LambdaJsonCodec(config);
+        this.arrivalTracker = arrivalTracker;
+        this.monitorScheduler = monitorScheduler;
+        this.jfrEvents = config.isJfrEventsEnabled();
     }
     
+    /**
+     * Entry point for both API Gateway proxy requests and scheduled events.
+     * API Gateway callers receive a proxy response; scheduled callers receive the ProcessingResult,
+     * or one ProcessingResult per watched feed when monitor.watches is configured.
+     */
     @Override
-    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
-        logger.info("S3 Monitor Lambda invoked - Request ID: {}", context.getAwsRequestId());
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        InvocationEvent invocation = InvocationEvent.start(jfrEvents, "S3MonitorLambda", requestId(context));
+        String outcome = "FAILED";
+        try {
+            if (jsonCodec.isApiGatewayRequest(input)) {
+                APIGatewayProxyResponseEvent response = handleApiGatewayRequest(null, context);
+                jsonCodec.writeApiGatewayResponse(output, response);
+                outcome = String.valueOf(response.getStatusCode());
+            } else if (!config.getMonitorTargets().isEmpty()) {
+                jsonCodec.writeProcessingResults(output, handleWatchedFeeds(context));
+                outcome = "OK";
+            } else {
+                jsonCodec.writeProcessingResult(output, handleScheduledEvent(null, context));
+                outcome = "OK";
+            }
+        } finally {
+            InvocationEvent.finish(invocation, outcome);
+            DrainableAsyncAppender.drainRoot();
+        }
+    }
+    
+    /**
+     * Handler for API Gateway proxy requests
+     */
+    public APIGatewayProxyResponseEvent handleApiGatewayRequest(APIGatewayProxyRequestEvent request, Context context) {
+        logger.info("S3 Monitor Lambda invoked - Request ID: {}", requestId(context));
         
         try {
-            ProcessingResult result = processS3Monitoring();
+            List<MonitorTarget> targets = config.getMonitorTargets();
+            Object result = targets.isEmpty() ? processS3Monitoring() : processS3Monitoring(targets);
             
             APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
             response.setStatusCode(200);
             response.setHeaders(createCorsHeaders());
-            response.setBody(objectMapper.writeValueAsString(result));
+            response.setBody(jsonCodec.writeValueAsString(result));
             
             logger.info("S3 Monitor Lambda completed successfully");
             return response;
@@ -68,7 +134,7 @@ public class S3MonitorLambda implements RequestHandler<APIGatewayProxyRequestEve
                 Map<String, String> errorBody = new HashMap<>();
                 errorBody.put("error", "Internal server error");
                 errorBody.put("message", e.getMessage());
-                errorResponse.setBody(objectMapper.writeValueAsString(errorBody));
+                errorResponse.setBody(jsonCodec.writeValueAsString(errorBody));
             } catch (Exception jsonException) {
                 errorResponse.setBody("{\"error\":\"Internal server error\"}");
             }
@@ -81,46 +147,273 @@ public class S3MonitorLambda implements RequestHandler<APIGatewayProxyRequestEve
      * Core logic for monitoring S3 and triggering processing
      */
     private ProcessingResult processS3Monitoring() {
-        String bucketName = config.getBucketName();
-        String pendingPrefix = config.getPendingPrefix();
-        int fileThreshold = config.getFileThreshold();
+        return processS3Monitoring(new MonitorTarget(
+                config.getBucketName(), config.getPendingPrefix(), config.getFileThreshold()), RequestCounter.shared());
+    }
+    
+    /**
+     * Evaluate every watched feed concurrently. A failure on one feed is reported
+     * in its own result and does not stop the others. The feeds share the clients, so
+     * their run statistics leave out request counts.
+     */
+    private List<ProcessingResult> processS3Monitoring(List<MonitorTarget> targets) {
+        List<CompletableFuture<ProcessingResult>> evaluations = new ArrayList<>(targets.size());
+        for (MonitorTarget target : targets) {
+            evaluations.add(CompletableFuture
+                    .supplyAsync(() -> processS3Monitoring(target, null), monitorExecutor())
+                    .exceptionally(e -> failedResult(target, e)));
+        }
+        
+        List<ProcessingResult> results = new ArrayList<>(targets.size());
+        for (CompletableFuture<ProcessingResult> evaluation : evaluations) {
+            results.add(evaluation.join());
+        }
+        return results;
+    }
+    
+    /**
+     * Evaluate one feed inside a monitor span covering its listing and any workflow start,
+     * and attach the feed's run statistics to its result
+     */
+    private ProcessingResult processS3Monitoring(MonitorTarget target, RequestCounter requestCounter) {
+        BatchEvent monitorEvent = BatchEvent.start(jfrEvents, "monitor", target.getPrefix());
+        RunStatsCollector stats = new RunStatsCollector(requestCounter);
+        try {
+            ProcessingResult result = monitorFeed(target, stats);
+            long files = result.getFileCount();
+            long bytes = result.getTotalBytes();
+            boolean triggered = result.isWorkflowTriggered();
+            if (result.getLanes() != null) {
+                for (ProcessingResult laneResult : result.getLanes()) {
+                    files += laneResult.getFileCount();
+                    bytes += laneResult.getTotalBytes();
+                    triggered |= laneResult.isWorkflowTriggered();
+                }
+            }
+            BatchEvent.finish(monitorEvent, files, bytes, triggered ? "TRIGGERED" : "IDLE");
+            result.setRunStats(stats.finish(files, bytes));
+            return result;
+        } catch (RuntimeException e) {
+            BatchEvent.finish(monitorEvent, 0, 0, "FAILED");
+            throw e;
+        }
+    }
+    
+    private ProcessingResult monitorFeed(MonitorTarget target, RunStatsCollector stats) {
+        String bucketName = target.getBucketName();
+        String pendingPrefix = target.getPrefix();
+        int fileThreshold = target.getFileThreshold();
         
         logger.info("Checking S3 bucket: {} with prefix: {} for threshold: {}", 
                    bucketName, pendingPrefix, fileThreshold);
         
-        // Count files in pending folder
-        long fileCount = s3Service.countFiles(bucketName, pendingPrefix);
-        logger.info("Found {} files in pending folder", fileCount);
+        List<PriorityLane> lanes = config.getPriorityLanes();
+        if (lanes.isEmpty()) {
+            // Count files in pending folder and fingerprint the backlog
+            BacklogSnapshot snapshot = stats.phase("list", () -> s3Service.snapshotFiles(bucketName, pendingPrefix));
+            return stats.phase("trigger", () -> evaluate(snapshot, fileThreshold));
+        }
         
+        // Priority lanes are evaluated, and their workflows started, ahead of the bulk lane
+        List<BacklogSnapshot> snapshots = stats.phase("list", () -> s3Service.snapshotLanes(bucketName, pendingPrefix, lanes));
+        List<ProcessingResult> laneResults = new ArrayList<>(lanes.size());
+        for (int i = 0; i < lanes.size(); i++) {
+            int lane = i;
+            laneResults.add(stats.phase("trigger", () -> evaluate(snapshots.get(lane), lanes.get(lane).getFileThreshold())));
+        }
+        ProcessingResult result = stats.phase("trigger", () -> evaluate(snapshots.get(lanes.size()), fileThreshold));
+        result.setLanes(laneResults);
+        return result;
+    }
+    
+    /**
+     * Evaluate the trigger policies for one backlog snapshot and start its workflow when one fires
+     */
+    private ProcessingResult evaluate(BacklogSnapshot snapshot, int fileThreshold) {
+        String bucketName = snapshot.getBucketName();
+        String pendingPrefix = snapshot.getPrefix();
+        String lane = snapshot.getLane();
+        long fileCount = snapshot.getFileCount();
+        if (lane == null) {
+            logger.info("Found {} files in pending folder", fileCount);
+        } else {
+            logger.info("Found {} files in lane {} of the pending folder", fileCount, lane);
+        }
+        
+        long now = System.currentTimeMillis();
         ProcessingResult result = new ProcessingResult();
         result.setFileCount(fileCount);
         result.setThreshold(fileThreshold);
         result.setBucketName(bucketName);
-        result.setTimestamp(System.currentTimeMillis());
+        result.setPrefix(pendingPrefix);
+        result.setLane(lane);
+        result.setTotalBytes(snapshot.getTotalBytes());
+        result.setOldestFileAgeSeconds(fileCount > 0 ? (now - snapshot.getOldestLastModified()) / 1000 : 0L);
+        result.setTimestamp(now);
         
-        if (fileCount >= fileThreshold) {
-            logger.info("File threshold exceeded. Triggering Step Function workflow");
-            
-            // Trigger Step Function for file processing
-            String executionArn = stepFunctionService.startFileProcessingWorkflow(bucketName, pendingPrefix);
-            result.setStepFunctionExecutionArn(executionArn);
-            result.setWorkflowTriggered(true);
-            
-            logger.info("Step Function workflow started with execution ARN: {}", executionArn);
-        } else {
-            logger.info("File threshold not reached. No action taken");
+        // Count, total bytes and oldest age all come from the same listing pass
+        TriggerPolicy firedPolicy = TriggerPolicy.evaluate(snapshot, fileThreshold,
+                config.getTriggerByteThreshold(), config.getTriggerMaxAgeSeconds() * 1000L, now);
+        
+        // Forecast the threshold crossing from the arrival rate over recent ticks
+        ArrivalTracker.Forecast forecast = arrivalTracker != null ? arrivalTracker.observe(snapshot) : null;
+        if (forecast != null) {
+            long untilThreshold = forecast.millisUntil(fileCount, fileThreshold);
+            result.setArrivalRatePerMinute(forecast.getFilesPerMinute());
+            result.setForecastSeconds(untilThreshold == Long.MAX_VALUE ? null : untilThreshold / 1000);
+            if (firedPolicy == null && fileCount > 0 && config.isTriggerForecastEnabled()
+                    && untilThreshold < soonestNextTickMillis()) {
+                firedPolicy = TriggerPolicy.FORECAST;
+            }
+        }
+        
+        if (firedPolicy == null) {
+            logger.info("No trigger policy fired. No action taken");
             result.setWorkflowTriggered(false);
+        } else if (lane == null
+                ? stepFunctionService.isFileProcessingWorkflowRunning(bucketName, pendingPrefix)
+                : stepFunctionService.isFileProcessingWorkflowRunning(bucketName, pendingPrefix, lane)) {
+            // The running execution is still moving these files; a second one would race on the same keys
+            logger.info("Trigger policy {} fired but a processing workflow is already running. No action taken", firedPolicy);
+            result.setWorkflowTriggered(false);
+            result.setMessage("Processing workflow already in flight");
+        } else {
+            logger.info("Trigger policy {} fired. Triggering Step Function workflow", firedPolicy);
+            result.setTriggerPolicy(firedPolicy.name());
+            
+            // Trigger Step Function for file processing, handing it this tick's listing
+            s3Service.handOffListing(snapshot);
+            StepFunctionService.Launch launch = stepFunctionService.startFileProcessingWorkflow(snapshot);
+            result.setStepFunctionExecutionArn(launch.getExecutionArn());
+            result.setWorkflowTriggered(launch.isStarted());
+            if (launch.isStarted()) {
+                logger.info("Step Function workflow started with execution ARN: {}", launch.getExecutionArn());
+            } else {
+                result.setMessage("Backlog already has execution " + launch.getExistingStatus());
+            }
         }
         
+        if (forecast != null) {
+            arrivalTracker.record(forecast, firedPolicy != null);
+            if (monitorScheduler != null) {
+                result.setNextCheckSeconds(nextCheckSeconds(forecast, snapshot, fileThreshold, firedPolicy != null, now));
+            }
+        }
         return result;
     }
     
+    /**
+     * Earliest the monitor can look at a feed again: the adaptive minimum interval, or the fixed
+     * schedule's rate. A cron schedule has no known interval, so it never triggers early.
+     */
+    private long soonestNextTickMillis() {
+        if (monitorScheduler != null) {
+            return config.getAdaptiveScheduleMinSeconds() * 1000L;
+        }
+        return Math.max(0L, config.getScheduleIntervalSeconds() * 1000L);
+    }
+    
+    /**
+     * Delay until the feed is forecast to need processing, within the adaptive interval bounds.
+     * A triggered backlog is about to drain, so its next crossing is forecast from empty; an
+     * untriggered one is also checked in time for its oldest file to reach the maximum age.
+     */
+    private long nextCheckSeconds(ArrivalTracker.Forecast forecast, BacklogSnapshot snapshot,
+                                  int fileThreshold, boolean triggered, long now) {
+        long minSeconds = config.getAdaptiveScheduleMinSeconds();
+        long maxSeconds = config.getAdaptiveScheduleMaxSeconds();
+        long untilThreshold = forecast.millisUntil(triggered ? 0 : snapshot.getFileCount(), fileThreshold);
+        long seconds = untilThreshold == Long.MAX_VALUE ? maxSeconds : (untilThreshold + 999) / 1000;
+        
+        long maxAgeSeconds = config.getTriggerMaxAgeSeconds();
+        if (!triggered && snapshot.getFileCount() > 0 && maxAgeSeconds > 0) {
+            seconds = Math.min(seconds, maxAgeSeconds - (now - snapshot.getOldestLastModified()) / 1000);
+        }
+        return Math.max(minSeconds, Math.min(maxSeconds, seconds));
+    }
+    
+    /**
+     * Retune the schedule to the soonest next check asked for by any feed or lane. A failure
+     * leaves the current schedule in place.
+     */
+    private void scheduleNextTick(List<ProcessingResult> results) {
+        if (monitorScheduler == null) {
+            return;
+        }
+        long nextCheck = Long.MAX_VALUE;
+        for (ProcessingResult result : results) {
+            List<ProcessingResult> evaluated = new ArrayList<>(List.of(result));
+            if (result.getLanes() != null) {
+                evaluated.addAll(result.getLanes());
+            }
+            for (ProcessingResult feed : evaluated) {
+                if (feed.getNextCheckSeconds() != null) {
+                    nextCheck = Math.min(nextCheck, feed.getNextCheckSeconds());
+                }
+            }
+        }
+        if (nextCheck == Long.MAX_VALUE) {
+            return;
+        }
+        try {
+            monitorScheduler.scheduleNext(nextCheck);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to reschedule the monitor to {} seconds", nextCheck, e);
+        }
+    }
+    
     /**
      * Handler for scheduled invocations (CloudWatch Events)
      */
     public ProcessingResult handleScheduledEvent(Map<String, Object> event, Context context) {
-        logger.info("S3 Monitor Lambda invoked via schedule - Request ID: {}", context.getAwsRequestId());
-        return processS3Monitoring();
+        logger.info("S3 Monitor Lambda invoked via schedule - Request ID: {}", requestId(context));
+        ProcessingResult result = processS3Monitoring();
+        scheduleNextTick(List.of(result));
+        return result;
+    }
+    
+    /**
+     * Handler for scheduled invocations covering every feed in monitor.watches
+     */
+    public List<ProcessingResult> handleWatchedFeeds(Context context) {
+        logger.info("S3 Monitor Lambda invoked for watched feeds - Request ID: {}", requestId(context));
+        List<ProcessingResult> results = processS3Monitoring(config.getMonitorTargets());
+        scheduleNextTick(results);
+        return results;
+    }
+    
+    /**
+     * Request ID for logging, or null when a caller such as a test passes no Lambda context
+     */
+    private static String requestId(Context context) {
+        return context != null ? context.getAwsRequestId() : null;
+    }
+    
+    private ProcessingResult failedResult(MonitorTarget target, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        logger.error("Error monitoring bucket: {} with prefix: {}", target.getBucketName(), target.getPrefix(), cause);
+        
+        ProcessingResult result = new ProcessingResult();
+        result.setBucketName(target.getBucketName());
+        result.setPrefix(target.getPrefix());
+        result.setThreshold(target.getFileThreshold());
+        result.setWorkflowTriggered(false);
+        result.setTimestamp(System.currentTimeMillis());
+        result.setMessage("Monitoring failed: " + cause.getMessage());
+        return result;
+    }
+    
+    private synchronized ExecutorService monitorExecutor() {
+        if (monitorExecutor == null) {
+            int concurrency = Math.max(1, config.getMonitorConcurrency());
+            AtomicInteger threadCount = new AtomicInteger();
+            monitorExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "s3-monitor-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return monitorExecutor;
     }
     
     private Map<String, String> createCorsHeaders() {
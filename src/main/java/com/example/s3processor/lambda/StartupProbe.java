@@ -0,0 +1,54 @@
+package com.example.s3processor.lambda;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Runs in a fresh JVM launched by StartupBenchmark, with a deployment artifact on the classpath,
+ * or inside the native image through "bootstrap --probe".
+ * Loads a handler class, then initializes and constructs it the way the Lambda runtime does
+ * during the init phase, and prints one JSON line of timings and peak resident memory.
+ * Uses nothing beyond the JDK so the probe does not add application classes of its own.
+ */
+public class StartupProbe {
+    
+    public static void main(String[] args) throws Exception {
+        long mainMillis = System.currentTimeMillis();
+        long mainNanos = System.nanoTime();
+        ClassLoader loader = StartupProbe.class.getClassLoader();
+        
+        Class<?> handlerClass = Class.forName(args[0], false, loader);
+        long loadedNanos = System.nanoTime();
+        
+        Class.forName(args[0], true, loader);
+        handlerClass.getDeclaredConstructor().newInstance();
+        long initNanos = System.nanoTime();
+        
+        System.out.printf(Locale.ROOT, "{\"jvmToMainMillis\":%d,\"classLoadMillis\":%.3f,\"initMillis\":%.3f,\"loadedClasses\":%d,\"peakRssKb\":%d}%n",
+                mainMillis - ManagementFactory.getRuntimeMXBean().getStartTime(),
+                (loadedNanos - mainNanos) / 1_000_000.0,
+                (initNanos - loadedNanos) / 1_000_000.0,
+                ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount(),
+                peakRssKb());
+        System.exit(0);
+    }
+    
+    /**
+     * High-water mark of resident memory from /proc, or -1 where it is not available
+     */
+    private static long peakRssKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+}
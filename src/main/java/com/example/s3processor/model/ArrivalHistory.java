@@ -0,0 +1,95 @@
+package com.example.s3processor.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Model class for the recent monitor ticks of one feed or lane, oldest first,
+ * from which its pending arrival rate is estimated
+ */
+public class ArrivalHistory {
+    
+    @JsonProperty("ticks")
+    private List<Tick> ticks = new ArrayList<>();
+    
+    public ArrivalHistory() {
+    }
+    
+    // Getters and Setters
+    public List<Tick> getTicks() {
+        return ticks;
+    }
+    
+    public void setTicks(List<Tick> ticks) {
+        this.ticks = ticks;
+    }
+    
+    @Override
+    public String toString() {
+        return "ArrivalHistory{" +
+                "ticks=" + ticks +
+                '}';
+    }
+    
+    /**
+     * Pending file count seen by one monitor tick
+     */
+    public static class Tick {
+        
+        @JsonProperty("timestamp")
+        private long timestamp;
+        
+        @JsonProperty("fileCount")
+        private long fileCount;
+        
+        @JsonProperty("draining")
+        private boolean draining;
+        
+        public Tick() {
+        }
+        
+        public Tick(long timestamp, long fileCount, boolean draining) {
+            this.timestamp = timestamp;
+            this.fileCount = fileCount;
+            this.draining = draining;
+        }
+        
+        public long getTimestamp() {
+            return timestamp;
+        }
+        
+        public void setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+        }
+        
+        public long getFileCount() {
+            return fileCount;
+        }
+        
+        public void setFileCount(long fileCount) {
+            this.fileCount = fileCount;
+        }
+        
+        /**
+         * True when a trigger policy fired on this tick, so files may have left the prefix before the next one
+         */
+        public boolean isDraining() {
+            return draining;
+        }
+        
+        public void setDraining(boolean draining) {
+            this.draining = draining;
+        }
+        
+        @Override
+        public String toString() {
+            return "Tick{" +
+                    "timestamp=" + timestamp +
+                    ", fileCount=" + fileCount +
+                    ", draining=" + draining +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.s3processor.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.util.List;
+
+/**
+ * Model class describing the pending backlog observed by a single listing pass
+ */
+public class BacklogSnapshot {
+    
+    @JsonProperty("bucketName")
+    private String bucketName;
+    
+    @JsonProperty("prefix")
+    private String prefix;
+    
+    @JsonProperty("lane")
+    private String lane;
+    
+    @JsonProperty("fileCount")
+    private long fileCount;
+    
+    @JsonProperty("totalBytes")
+    private long totalBytes;
+    
+    @JsonProperty("oldestLastModified")
+    private long oldestLastModified;
+    
+    @JsonProperty("fingerprint")
+    private String fingerprint;
+    
+    @JsonProperty("timestamp")
+    private long timestamp;
+    
+    @JsonProperty("listingKey")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String listingKey;
+    
+    @JsonIgnore
+    private List<S3Object> listing;
+    
+    public BacklogSnapshot() {
+    }
+    
+    public BacklogSnapshot(String bucketName, String prefix, long fileCount, String fingerprint) {
+        this.bucketName = bucketName;
+        this.prefix = prefix;
+        this.fileCount = fileCount;
+        this.fingerprint = fingerprint;
+        this.timestamp = System.currentTimeMillis();
+    }
+    
+    // Getters and Setters
+    public String getBucketName() {
+        return bucketName;
+    }
+    
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+    
+    public String getPrefix() {
+        return prefix;
+    }
+    
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+    
+    /**
+     * Priority lane the snapshot covers, or null when priority lanes are not configured
+     */
+    public String getLane() {
+        return lane;
+    }
+    
+    public void setLane(String lane) {
+        this.lane = lane;
+    }
+    
+    public long getFileCount() {
+        return fileCount;
+    }
+    
+    public void setFileCount(long fileCount) {
+        this.fileCount = fileCount;
+    }
+    
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+    
+    /**
+     * Last-modified time (epoch millis) of the oldest pending object, or 0 when the backlog is empty
+     */
+    public long getOldestLastModified() {
+        return oldestLastModified;
+    }
+    
+    public void setOldestLastModified(long oldestLastModified) {
+        this.oldestLastModified = oldestLastModified;
+    }
+    
+    /**
+     * Hex digest over every key, size and last-modified time in the backlog.
+     * Two listings of the same, unchanged backlog produce the same fingerprint.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+    
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    /**
+     * Key of the handed-off listing of this backlog, once the monitor has written it
+     */
+    public String getListingKey() {
+        return listingKey;
+    }
+    
+    public void setListingKey(String listingKey) {
+        this.listingKey = listingKey;
+    }
+    
+    /**
+     * Files seen by the listing pass, in key order, kept only while listing hand-off is enabled
+     * and the backlog is small enough
+     */
+    public List<S3Object> getListing() {
+        return listing;
+    }
+    
+    public void setListing(List<S3Object> listing) {
+        this.listing = listing;
+    }
+    
+    @Override
+    public String toString() {
+        return "BacklogSnapshot{" +
+                "bucketName='" + bucketName + '\'' +
+                ", prefix='" + prefix + '\'' +
+                ", lane='" + lane + '\'' +
+                ", fileCount=" + fileCount +
+                ", totalBytes=" + totalBytes +
+                ", oldestLastModified=" + oldestLastModified +
+                ", fingerprint='" + fingerprint + '\'' +
+                ", timestamp=" + timestamp +
+                ", listingKey='" + listingKey + '\'' +
+                '}';
+    }
+}
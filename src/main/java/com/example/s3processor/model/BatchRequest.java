@@ -1,10 +1,14 @@
 package com.example.s3processor.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.List;
+
 /**
  * Model class for batch processing requests
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class BatchRequest {
     
     @JsonProperty("bucketName")
@@ -13,9 +17,15 @@ public class BatchRequest {
     @JsonProperty("sourcePrefix")
     private String sourcePrefix;
     
+    @JsonProperty("destPrefix")
+    private String destPrefix;
+    
     @JsonProperty("batchPrefix")
     private String batchPrefix;
     
+    @JsonProperty("batchPrefixes")
+    private List<String> batchPrefixes;
+    
     @JsonProperty("batchNumber")
     private int batchNumber;
     
@@ -25,6 +35,21 @@ public class BatchRequest {
     @JsonProperty("totalFiles")
     private int totalFiles;
     
+    @JsonProperty("startAfter")
+    private String startAfter;
+    
+    @JsonProperty("nextBatchNumber")
+    private int nextBatchNumber;
+    
+    @JsonProperty("lane")
+    private String lane;
+    
+    @JsonProperty("listingKey")
+    private String listingKey;
+    
+    @JsonProperty("copyJobIds")
+    private List<String> copyJobIds;
+    
     @JsonProperty("timestamp")
     private long timestamp;
     
@@ -55,6 +80,14 @@ public class BatchRequest {
         this.sourcePrefix = sourcePrefix;
     }
     
+    public String getDestPrefix() {
+        return destPrefix;
+    }
+    
+    public void setDestPrefix(String destPrefix) {
+        this.destPrefix = destPrefix;
+    }
+    
     public String getBatchPrefix() {
         return batchPrefix;
     }
@@ -63,6 +96,17 @@ public class BatchRequest {
         this.batchPrefix = batchPrefix;
     }
     
+    /**
+     * Batch prefixes to validate in one invocation; takes precedence over batchPrefix when set
+     */
+    public List<String> getBatchPrefixes() {
+        return batchPrefixes;
+    }
+    
+    public void setBatchPrefixes(List<String> batchPrefixes) {
+        this.batchPrefixes = batchPrefixes;
+    }
+    
     public int getBatchNumber() {
         return batchNumber;
     }
@@ -87,6 +131,62 @@ public class BatchRequest {
         this.totalFiles = totalFiles;
     }
     
+    /**
+     * Priority lane whose files to batch; null or bulk for the files no priority lane matches
+     */
+    public String getLane() {
+        return lane;
+    }
+    
+    public void setLane(String lane) {
+        this.lane = lane;
+    }
+    
+    /**
+     * Key of the monitor's handed-off listing of the backlog, only set on a workflow's first batching call
+     */
+    public String getListingKey() {
+        return listingKey;
+    }
+    
+    public void setListingKey(String listingKey) {
+        this.listingKey = listingKey;
+    }
+    
+    /**
+     * Copy jobs started by an earlier batching call of the workflow; when set, the call checks them
+     * instead of batching more files
+     */
+    public List<String> getCopyJobIds() {
+        return copyJobIds;
+    }
+    
+    public void setCopyJobIds(List<String> copyJobIds) {
+        this.copyJobIds = copyJobIds;
+    }
+    
+    /**
+     * Continuation from a batching run that stopped at its time budget: resume after this key
+     */
+    public String getStartAfter() {
+        return startAfter;
+    }
+    
+    public void setStartAfter(String startAfter) {
+        this.startAfter = startAfter;
+    }
+    
+    /**
+     * Number of the first batch to create when continuing; 0 starts at batch 1
+     */
+    public int getNextBatchNumber() {
+        return nextBatchNumber;
+    }
+    
+    public void setNextBatchNumber(int nextBatchNumber) {
+        this.nextBatchNumber = nextBatchNumber;
+    }
+    
     public long getTimestamp() {
         return timestamp;
     }
@@ -100,10 +200,17 @@ public class BatchRequest {
         return "BatchRequest{" +
                 "bucketName='" + bucketName + '\'' +
                 ", sourcePrefix='" + sourcePrefix + '\'' +
+                ", destPrefix='" + destPrefix + '\'' +
                 ", batchPrefix='" + batchPrefix + '\'' +
+                ", batchPrefixes=" + batchPrefixes +
                 ", batchNumber=" + batchNumber +
                 ", batchSize=" + batchSize +
                 ", totalFiles=" + totalFiles +
+                ", startAfter='" + startAfter + '\'' +
+                ", nextBatchNumber=" + nextBatchNumber +
+                ", lane='" + lane + '\'' +
+                ", listingKey='" + listingKey + '\'' +
+                ", copyJobIds=" + copyJobIds +
                 ", timestamp=" + timestamp +
                 '}';
     }
@@ -0,0 +1,314 @@
+package com.example.s3processor.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Model class for the output of the file batching step
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchingResult {
+    
+    @JsonProperty("bucketName")
+    private String bucketName;
+    
+    @JsonProperty("batchBucketName")
+    private String batchBucketName;
+    
+    @JsonProperty("sourcePrefix")
+    private String sourcePrefix;
+    
+    @JsonProperty("destPrefix")
+    private String destPrefix;
+    
+    @JsonProperty("batchPrefixes")
+    private List<String> batchPrefixes;
+    
+    @JsonProperty("batchGroups")
+    private List<List<String>> batchGroups;
+    
+    @JsonProperty("totalBatches")
+    private int totalBatches;
+    
+    @JsonProperty("batchSize")
+    private int batchSize;
+    
+    @JsonProperty("duplicateFiles")
+    private int duplicateFiles;
+    
+    @JsonProperty("duplicateReportKey")
+    private String duplicateReportKey;
+    
+    // Always written: ContinueBatching passes it on even when no file has been handled yet
+    @JsonProperty("startAfter")
+    @JsonInclude(JsonInclude.Include.ALWAYS)
+    private String startAfter;
+    
+    @JsonProperty("nextBatchNumber")
+    private Integer nextBatchNumber;
+    
+    @JsonProperty("lane")
+    private String lane;
+    
+    @JsonProperty("validationConcurrency")
+    private Integer validationConcurrency;
+    
+    @JsonProperty("copyJobIds")
+    private List<String> copyJobIds;
+    
+    @JsonProperty("copyJobPollSeconds")
+    private Integer copyJobPollSeconds;
+    
+    @JsonProperty("moveStages")
+    private List<StageStats> moveStages;
+    
+    @JsonProperty("timestamp")
+    private long timestamp;
+    
+    @JsonProperty("status")
+    private String status;
+    
+    @JsonProperty("error")
+    private Boolean error;
+    
+    @JsonProperty("errorMessage")
+    private String errorMessage;
+    
+    @JsonProperty("runStats")
+    private RunStats runStats;
+    
+    public BatchingResult() {
+    }
+    
+    /**
+     * Build a failed result carrying only the error details
+     */
+    public static BatchingResult failed(String errorMessage) {
+        BatchingResult result = new BatchingResult();
+        result.setError(true);
+        result.setErrorMessage(errorMessage);
+        result.setStatus("FAILED");
+        result.setTimestamp(System.currentTimeMillis());
+        return result;
+    }
+    
+    // Getters and Setters
+    public String getBucketName() {
+        return bucketName;
+    }
+    
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+    
+    /**
+     * Bucket holding the batches, which differs from bucketName when batches are transferred out
+     */
+    public String getBatchBucketName() {
+        return batchBucketName;
+    }
+    
+    public void setBatchBucketName(String batchBucketName) {
+        this.batchBucketName = batchBucketName;
+    }
+    
+    public String getSourcePrefix() {
+        return sourcePrefix;
+    }
+    
+    public void setSourcePrefix(String sourcePrefix) {
+        this.sourcePrefix = sourcePrefix;
+    }
+    
+    public String getDestPrefix() {
+        return destPrefix;
+    }
+    
+    public void setDestPrefix(String destPrefix) {
+        this.destPrefix = destPrefix;
+    }
+    
+    public List<String> getBatchPrefixes() {
+        return batchPrefixes;
+    }
+    
+    public void setBatchPrefixes(List<String> batchPrefixes) {
+        this.batchPrefixes = batchPrefixes;
+    }
+    
+    /**
+     * Batch prefixes grouped for validation, validation.batches.per.invocation per group
+     */
+    public List<List<String>> getBatchGroups() {
+        return batchGroups;
+    }
+    
+    public void setBatchGroups(List<List<String>> batchGroups) {
+        this.batchGroups = batchGroups;
+    }
+    
+    public int getTotalBatches() {
+        return totalBatches;
+    }
+    
+    public void setTotalBatches(int totalBatches) {
+        this.totalBatches = totalBatches;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public int getDuplicateFiles() {
+        return duplicateFiles;
+    }
+    
+    public void setDuplicateFiles(int duplicateFiles) {
+        this.duplicateFiles = duplicateFiles;
+    }
+    
+    public String getDuplicateReportKey() {
+        return duplicateReportKey;
+    }
+    
+    public void setDuplicateReportKey(String duplicateReportKey) {
+        this.duplicateReportKey = duplicateReportKey;
+    }
+    
+    /**
+     * Priority lane of the batched files; carried into the next batching invocation
+     */
+    public String getLane() {
+        return lane;
+    }
+    
+    public void setLane(String lane) {
+        this.lane = lane;
+    }
+    
+    /**
+     * Validation invocations the workflow runs at once for these batches
+     */
+    public Integer getValidationConcurrency() {
+        return validationConcurrency;
+    }
+    
+    public void setValidationConcurrency(Integer validationConcurrency) {
+        this.validationConcurrency = validationConcurrency;
+    }
+    
+    /**
+     * Set with status COPYING: the copy jobs the workflow checks again after copyJobPollSeconds
+     */
+    public List<String> getCopyJobIds() {
+        return copyJobIds;
+    }
+    
+    public void setCopyJobIds(List<String> copyJobIds) {
+        this.copyJobIds = copyJobIds;
+    }
+    
+    public Integer getCopyJobPollSeconds() {
+        return copyJobPollSeconds;
+    }
+    
+    public void setCopyJobPollSeconds(Integer copyJobPollSeconds) {
+        this.copyJobPollSeconds = copyJobPollSeconds;
+    }
+    
+    /**
+     * Set with status CONTINUE: the next invocation resumes after this key
+     */
+    public String getStartAfter() {
+        return startAfter;
+    }
+    
+    public void setStartAfter(String startAfter) {
+        this.startAfter = startAfter;
+    }
+    
+    public List<StageStats> getMoveStages() {
+        return moveStages;
+    }
+    
+    public void setMoveStages(List<StageStats> moveStages) {
+        this.moveStages = moveStages;
+    }
+    
+    public Integer getNextBatchNumber() {
+        return nextBatchNumber;
+    }
+    
+    public void setNextBatchNumber(Integer nextBatchNumber) {
+        this.nextBatchNumber = nextBatchNumber;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public Boolean getError() {
+        return error;
+    }
+    
+    public void setError(Boolean error) {
+        this.error = error;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+    
+    /**
+     * Statistics of this batching invocation
+     */
+    public RunStats getRunStats() {
+        return runStats;
+    }
+    
+    public void setRunStats(RunStats runStats) {
+        this.runStats = runStats;
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchingResult{" +
+                "bucketName='" + bucketName + '\'' +
+                ", batchBucketName='" + batchBucketName + '\'' +
+                ", sourcePrefix='" + sourcePrefix + '\'' +
+                ", destPrefix='" + destPrefix + '\'' +
+                ", totalBatches=" + totalBatches +
+                ", batchSize=" + batchSize +
+                ", lane='" + lane + '\'' +
+                ", duplicateFiles=" + duplicateFiles +
+                ", startAfter='" + startAfter + '\'' +
+                ", nextBatchNumber=" + nextBatchNumber +
+                ", copyJobIds=" + copyJobIds +
+                ", timestamp=" + timestamp +
+                ", status='" + status + '\'' +
+                ", errorMessage='" + errorMessage + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.s3processor.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Model class for the index written next to a compacted object.
+ * Each entry locates one original file inside the compacted object.
+ */
+public class CompactionIndex {
+    
+    @JsonProperty("bucketName")
+    private String bucketName;
+    
+    @JsonProperty("compactedKey")
+    private String compactedKey;
+    
+    @JsonProperty("totalBytes")
+    private long totalBytes;
+    
+    @JsonProperty("entries")
+    private List<Entry> entries = new ArrayList<>();
+    
+    public CompactionIndex() {
+    }
+    
+    public CompactionIndex(String bucketName, String compactedKey) {
+        this.bucketName = bucketName;
+        this.compactedKey = compactedKey;
+    }
+    
+    /**
+     * Append an original file at the current end of the compacted object
+     */
+    public void addEntry(String sourceKey, long length) {
+        entries.add(new Entry(sourceKey, totalBytes, length));
+        totalBytes += length;
+    }
+    
+    // Getters and Setters
+    public String getBucketName() {
+        return bucketName;
+    }
+    
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+    
+    public String getCompactedKey() {
+        return compactedKey;
+    }
+    
+    public void setCompactedKey(String compactedKey) {
+        this.compactedKey = compactedKey;
+    }
+    
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+    
+    public List<Entry> getEntries() {
+        return entries;
+    }
+    
+    public void setEntries(List<Entry> entries) {
+        this.entries = entries;
+    }
+    
+    /**
+     * Location of one original file: bytes [offset, offset + length) of the compacted object
+     */
+    public static class Entry {
+        
+        @JsonProperty("key")
+        private String key;
+        
+        @JsonProperty("offset")
+        private long offset;
+        
+        @JsonProperty("length")
+        private long length;
+        
+        public Entry() {
+        }
+        
+        public Entry(String key, long offset, long length) {
+            this.key = key;
+            this.offset = offset;
+            this.length = length;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+        
+        public void setKey(String key) {
+            this.key = key;
+        }
+        
+        public long getOffset() {
+            return offset;
+        }
+        
+        public void setOffset(long offset) {
+            this.offset = offset;
+        }
+        
+        public long getLength() {
+            return length;
+        }
+        
+        public void setLength(long length) {
+            this.length = length;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "CompactionIndex{" +
+                "bucketName='" + bucketName + '\'' +
+                ", compactedKey='" + compactedKey + '\'' +
+                ", totalBytes=" + totalBytes +
+                ", entries=" + entries.size() +
+                '}';
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.s3processor.model;
+
+/**
+ * Model class for the progress of a server-side copy job
+ */
+public class CopyJobStatus {
+    
+    private final String jobId;
+    private final String status;
+    private final long totalTasks;
+    private final long succeededTasks;
+    private final long failedTasks;
+    
+    public CopyJobStatus(String jobId, String status, long totalTasks, long succeededTasks, long failedTasks) {
+        this.jobId = jobId;
+        this.status = status;
+        this.totalTasks = totalTasks;
+        this.succeededTasks = succeededTasks;
+        this.failedTasks = failedTasks;
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    /**
+     * Job status as reported by S3 Batch Operations (e.g. Preparing, Active, Complete, Failed)
+     */
+    public String getStatus() {
+        return status;
+    }
+    
+    public long getTotalTasks() {
+        return totalTasks;
+    }
+    
+    public long getSucceededTasks() {
+        return succeededTasks;
+    }
+    
+    public long getFailedTasks() {
+        return failedTasks;
+    }
+    
+    public boolean isTerminal() {
+        return "Complete".equals(status) || "Failed".equals(status) || "Cancelled".equals(status);
+    }
+    
+    /**
+     * True when the job finished and every object was copied
+     */
+    public boolean isSuccessful() {
+        return "Complete".equals(status) && failedTasks == 0;
+    }
+    
+    @Override
+    public String toString() {
+        return "CopyJobStatus{" +
+                "jobId='" + jobId + '\'' +
+                ", status='" + status + '\'' +
+                ", totalTasks=" + totalTasks +
+                ", succeededTasks=" + succeededTasks +
+                ", failedTasks=" + failedTasks +
+                '}';
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.s3processor.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Model class listing pending files dropped as duplicates of a canonical file
+ */
+public class DuplicateReport {
+    
+    @JsonProperty("bucketName")
+    private String bucketName;
+    
+    @JsonProperty("prefix")
+    private String prefix;
+    
+    @JsonProperty("duplicateFiles")
+    private int duplicateFiles;
+    
+    @JsonProperty("duplicateBytes")
+    private long duplicateBytes;
+    
+    @JsonProperty("groups")
+    private List<Group> groups = new ArrayList<>();
+    
+    @JsonProperty("timestamp")
+    private long timestamp;
+    
+    public DuplicateReport() {
+    }
+    
+    public DuplicateReport(String bucketName, String prefix) {
+        this.bucketName = bucketName;
+        this.prefix = prefix;
+        this.timestamp = System.currentTimeMillis();
+    }
+    
+    // Getters and Setters
+    public String getBucketName() {
+        return bucketName;
+    }
+    
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+    
+    public String getPrefix() {
+        return prefix;
+    }
+    
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+    
+    public int getDuplicateFiles() {
+        return duplicateFiles;
+    }
+    
+    public void setDuplicateFiles(int duplicateFiles) {
+        this.duplicateFiles = duplicateFiles;
+    }
+    
+    public long getDuplicateBytes() {
+        return duplicateBytes;
+    }
+    
+    public void setDuplicateBytes(long duplicateBytes) {
+        this.duplicateBytes = duplicateBytes;
+    }
+    
+    public List<Group> getGroups() {
+        return groups;
+    }
+    
+    public void setGroups(List<Group> groups) {
+        this.groups = groups;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    /**
+     * One canonical file and the identical files dropped in its favour
+     */
+    public static class Group {
+        
+        @JsonProperty("canonicalKey")
+        private String canonicalKey;
+        
+        @JsonProperty("duplicateKeys")
+        private List<String> duplicateKeys = new ArrayList<>();
+        
+        public Group() {
+        }
+        
+        public Group(String canonicalKey) {
+            this.canonicalKey = canonicalKey;
+        }
+        
+        public String getCanonicalKey() {
+            return canonicalKey;
+        }
+        
+        public void setCanonicalKey(String canonicalKey) {
+            this.canonicalKey = canonicalKey;
+        }
+        
+        public List<String> getDuplicateKeys() {
+            return duplicateKeys;
+        }
+        
+        public void setDuplicateKeys(List<String> duplicateKeys) {
+            this.duplicateKeys = duplicateKeys;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "DuplicateReport{" +
+                "bucketName='" + bucketName + '\'' +
+                ", prefix='" + prefix + '\'' +
+                ", duplicateFiles=" + duplicateFiles +
+                ", duplicateBytes=" + duplicateBytes +
+                ", groups=" + groups.size() +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
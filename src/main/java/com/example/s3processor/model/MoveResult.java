@@ -0,0 +1,149 @@
+package com.example.s3processor.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Model class for the outcome of moving pending files into processing batches
+ */
+public class MoveResult {
+    
+    private List<String> batchPrefixes = new ArrayList<>();
+    private int movedFiles;
+    private long movedBytes;
+    private int duplicateFiles;
+    private String duplicateReportKey;
+    private boolean complete;
+    private String startAfter;
+    private int nextBatchNumber;
+    private List<String> copyJobIds;
+    private List<StageStats> stageStats;
+    private Map<String, Long> phaseMillis = new LinkedHashMap<>();
+    
+    public MoveResult() {
+    }
+    
+    // Getters and Setters
+    public List<String> getBatchPrefixes() {
+        return batchPrefixes;
+    }
+    
+    public void setBatchPrefixes(List<String> batchPrefixes) {
+        this.batchPrefixes = batchPrefixes;
+    }
+    
+    public int getMovedFiles() {
+        return movedFiles;
+    }
+    
+    public void setMovedFiles(int movedFiles) {
+        this.movedFiles = movedFiles;
+    }
+    
+    public long getMovedBytes() {
+        return movedBytes;
+    }
+    
+    public void setMovedBytes(long movedBytes) {
+        this.movedBytes = movedBytes;
+    }
+    
+    public int getDuplicateFiles() {
+        return duplicateFiles;
+    }
+    
+    public void setDuplicateFiles(int duplicateFiles) {
+        this.duplicateFiles = duplicateFiles;
+    }
+    
+    /**
+     * Key of the DuplicateReport written for this move, or null when no duplicates were dropped
+     */
+    public String getDuplicateReportKey() {
+        return duplicateReportKey;
+    }
+    
+    public void setDuplicateReportKey(String duplicateReportKey) {
+        this.duplicateReportKey = duplicateReportKey;
+    }
+    
+    /**
+     * False when the move stopped at its time budget and files remain after startAfter
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+    
+    public String getStartAfter() {
+        return startAfter;
+    }
+    
+    public void setStartAfter(String startAfter) {
+        this.startAfter = startAfter;
+    }
+    
+    public int getNextBatchNumber() {
+        return nextBatchNumber;
+    }
+    
+    public void setNextBatchNumber(int nextBatchNumber) {
+        this.nextBatchNumber = nextBatchNumber;
+    }
+    
+    /**
+     * IDs of copy jobs still copying the batches, or null when every file has been moved; the
+     * sources of a pending job are deleted only once completeCopyJobs finds them all ended
+     */
+    public List<String> getCopyJobIds() {
+        return copyJobIds;
+    }
+    
+    public void setCopyJobIds(List<String> copyJobIds) {
+        this.copyJobIds = copyJobIds;
+    }
+    
+    /**
+     * Per-stage counters of a pipelined move, or null when the files were moved sequentially
+     */
+    public List<StageStats> getStageStats() {
+        return stageStats;
+    }
+    
+    public void setStageStats(List<StageStats> stageStats) {
+        this.stageStats = stageStats;
+    }
+    
+    /**
+     * Milliseconds spent listing, deduplicating and moving; a pipelined move overlaps its stages
+     * and reports them as one move phase
+     */
+    public Map<String, Long> getPhaseMillis() {
+        return phaseMillis;
+    }
+    
+    public void setPhaseMillis(Map<String, Long> phaseMillis) {
+        this.phaseMillis = phaseMillis;
+    }
+    
+    @Override
+    public String toString() {
+        return "MoveResult{" +
+                "batchPrefixes=" + batchPrefixes.size() +
+                ", movedFiles=" + movedFiles +
+                ", movedBytes=" + movedBytes +
+                ", duplicateFiles=" + duplicateFiles +
+                ", duplicateReportKey='" + duplicateReportKey + '\'' +
+                ", complete=" + complete +
+                ", startAfter='" + startAfter + '\'' +
+                ", copyJobIds=" + copyJobIds +
+                ", nextBatchNumber=" + nextBatchNumber +
+                ", phaseMillis=" + phaseMillis +
+                '}';
+    }
+}
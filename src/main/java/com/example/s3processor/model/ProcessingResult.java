@@ -2,6 +2,8 @@ package com.example.s3processor.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.List;
+
 /**
  * Model class for processing results
  */
@@ -16,6 +18,18 @@ public class ProcessingResult {
     @JsonProperty("bucketName")
     private String bucketName;
     
+    @JsonProperty("prefix")
+    private String prefix;
+    
+    @JsonProperty("totalBytes")
+    private long totalBytes;
+    
+    @JsonProperty("oldestFileAgeSeconds")
+    private long oldestFileAgeSeconds;
+    
+    @JsonProperty("triggerPolicy")
+    private String triggerPolicy;
+    
     @JsonProperty("workflowTriggered")
     private boolean workflowTriggered;
     
@@ -31,6 +45,24 @@ public class ProcessingResult {
     @JsonProperty("message")
     private String message;
     
+    @JsonProperty("lane")
+    private String lane;
+    
+    @JsonProperty("lanes")
+    private List<ProcessingResult> lanes;
+    
+    @JsonProperty("arrivalRatePerMinute")
+    private Double arrivalRatePerMinute;
+    
+    @JsonProperty("forecastSeconds")
+    private Long forecastSeconds;
+    
+    @JsonProperty("nextCheckSeconds")
+    private Long nextCheckSeconds;
+    
+    @JsonProperty("runStats")
+    private RunStats runStats;
+    
     public ProcessingResult() {
     }
     
@@ -66,6 +98,41 @@ public class ProcessingResult {
         this.bucketName = bucketName;
     }
     
+    public String getPrefix() {
+        return prefix;
+    }
+    
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+    
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+    
+    public long getOldestFileAgeSeconds() {
+        return oldestFileAgeSeconds;
+    }
+    
+    public void setOldestFileAgeSeconds(long oldestFileAgeSeconds) {
+        this.oldestFileAgeSeconds = oldestFileAgeSeconds;
+    }
+    
+    /**
+     * Name of the TriggerPolicy that fired, or null when no policy fired
+     */
+    public String getTriggerPolicy() {
+        return triggerPolicy;
+    }
+    
+    public void setTriggerPolicy(String triggerPolicy) {
+        this.triggerPolicy = triggerPolicy;
+    }
+    
     public boolean isWorkflowTriggered() {
         return workflowTriggered;
     }
@@ -98,6 +165,61 @@ public class ProcessingResult {
         this.environment = environment;
     }
     
+    /**
+     * Lane this result covers; with priority lanes configured the top-level result is the bulk lane
+     */
+    public String getLane() {
+        return lane;
+    }
+    
+    public void setLane(String lane) {
+        this.lane = lane;
+    }
+    
+    /**
+     * Results of the priority lanes, evaluated before the bulk lane, or null without priority lanes
+     */
+    public List<ProcessingResult> getLanes() {
+        return lanes;
+    }
+    
+    public void setLanes(List<ProcessingResult> lanes) {
+        this.lanes = lanes;
+    }
+    
+    /**
+     * Pending files arriving per minute over recent ticks, or null when not tracked or not yet known
+     */
+    public Double getArrivalRatePerMinute() {
+        return arrivalRatePerMinute;
+    }
+    
+    public void setArrivalRatePerMinute(Double arrivalRatePerMinute) {
+        this.arrivalRatePerMinute = arrivalRatePerMinute;
+    }
+    
+    /**
+     * Seconds until the file threshold is reached at the arrival rate, or null when nothing is arriving
+     */
+    public Long getForecastSeconds() {
+        return forecastSeconds;
+    }
+    
+    public void setForecastSeconds(Long forecastSeconds) {
+        this.forecastSeconds = forecastSeconds;
+    }
+    
+    /**
+     * Delay before the next monitor tick this result asks for, or null without adaptive scheduling
+     */
+    public Long getNextCheckSeconds() {
+        return nextCheckSeconds;
+    }
+    
+    public void setNextCheckSeconds(Long nextCheckSeconds) {
+        this.nextCheckSeconds = nextCheckSeconds;
+    }
+    
     public String getMessage() {
         return message;
     }
@@ -106,12 +228,28 @@ public class ProcessingResult {
         this.message = message;
     }
     
+    /**
+     * Statistics of the monitor run that produced this result, or null for a priority lane's result
+     */
+    public RunStats getRunStats() {
+        return runStats;
+    }
+    
+    public void setRunStats(RunStats runStats) {
+        this.runStats = runStats;
+    }
+    
     @Override
     public String toString() {
         return "ProcessingResult{" +
                 "fileCount=" + fileCount +
                 ", threshold=" + threshold +
                 ", bucketName='" + bucketName + '\'' +
+                ", prefix='" + prefix + '\'' +
+                ", lane='" + lane + '\'' +
+                ", totalBytes=" + totalBytes +
+                ", oldestFileAgeSeconds=" + oldestFileAgeSeconds +
+                ", triggerPolicy='" + triggerPolicy + '\'' +
                 ", workflowTriggered=" + workflowTriggered +
                 ", stepFunctionExecutionArn='" + stepFunctionExecutionArn + '\'' +
                 ", timestamp=" + timestamp +
@@ -0,0 +1,131 @@
+package com.example.s3processor.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * Model class for the statistics of one handler run: wall time per phase, AWS requests by
+ * operation, SDK retries, and the files and bytes handled with the throughput they imply.
+ * Phases run concurrently by several workers report the sum of their times.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RunStats {
+    
+    @JsonProperty("elapsedMillis")
+    private long elapsedMillis;
+    
+    @JsonProperty("phaseMillis")
+    private Map<String, Long> phaseMillis;
+    
+    @JsonProperty("requests")
+    private Map<String, Long> requests;
+    
+    @JsonProperty("retries")
+    private Long retries;
+    
+    @JsonProperty("files")
+    private long files;
+    
+    @JsonProperty("bytes")
+    private long bytes;
+    
+    @JsonProperty("filesPerSecond")
+    private double filesPerSecond;
+    
+    @JsonProperty("bytesPerSecond")
+    private double bytesPerSecond;
+    
+    public RunStats() {
+    }
+    
+    // Getters and Setters
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    /**
+     * Milliseconds spent in each phase, in the order the phases first ran
+     */
+    public Map<String, Long> getPhaseMillis() {
+        return phaseMillis;
+    }
+    
+    public void setPhaseMillis(Map<String, Long> phaseMillis) {
+        this.phaseMillis = phaseMillis;
+    }
+    
+    /**
+     * AWS API calls by operation name, or null when the run shared its clients with concurrent
+     * runs and the calls cannot be attributed to it
+     */
+    public Map<String, Long> getRequests() {
+        return requests;
+    }
+    
+    public void setRequests(Map<String, Long> requests) {
+        this.requests = requests;
+    }
+    
+    /**
+     * Attempts the SDK retried, or null when requests are not attributed
+     */
+    public Long getRetries() {
+        return retries;
+    }
+    
+    public void setRetries(Long retries) {
+        this.retries = retries;
+    }
+    
+    public long getFiles() {
+        return files;
+    }
+    
+    public void setFiles(long files) {
+        this.files = files;
+    }
+    
+    public long getBytes() {
+        return bytes;
+    }
+    
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+    
+    public double getFilesPerSecond() {
+        return filesPerSecond;
+    }
+    
+    public void setFilesPerSecond(double filesPerSecond) {
+        this.filesPerSecond = filesPerSecond;
+    }
+    
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+    
+    public void setBytesPerSecond(double bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+    
+    @Override
+    public String toString() {
+        return "RunStats{" +
+                "elapsedMillis=" + elapsedMillis +
+                ", phaseMillis=" + phaseMillis +
+                ", requests=" + requests +
+                ", retries=" + retries +
+                ", files=" + files +
+                ", bytes=" + bytes +
+                ", filesPerSecond=" + filesPerSecond +
+                ", bytesPerSecond=" + bytesPerSecond +
+                '}';
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.s3processor.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Model class for the work done by one stage of the move pipeline.
+ * Busy time is spent in S3 calls; blocked time waiting on a full downstream queue (backpressure);
+ * idle time waiting on an empty upstream queue. Times are summed over the stage's workers.
+ */
+public class StageStats {
+    
+    @JsonProperty("stage")
+    private final String stage;
+    
+    @JsonProperty("workers")
+    private final int workers;
+    
+    @JsonProperty("items")
+    private final long items;
+    
+    @JsonProperty("requests")
+    private final long requests;
+    
+    @JsonProperty("busyMillis")
+    private final long busyMillis;
+    
+    @JsonProperty("blockedMillis")
+    private final long blockedMillis;
+    
+    @JsonProperty("idleMillis")
+    private final long idleMillis;
+    
+    public StageStats(String stage, int workers, long items, long requests,
+                      long busyMillis, long blockedMillis, long idleMillis) {
+        this.stage = stage;
+        this.workers = workers;
+        this.items = items;
+        this.requests = requests;
+        this.busyMillis = busyMillis;
+        this.blockedMillis = blockedMillis;
+        this.idleMillis = idleMillis;
+    }
+    
+    public String getStage() {
+        return stage;
+    }
+    
+    public int getWorkers() {
+        return workers;
+    }
+    
+    public long getItems() {
+        return items;
+    }
+    
+    public long getRequests() {
+        return requests;
+    }
+    
+    public long getBusyMillis() {
+        return busyMillis;
+    }
+    
+    public long getBlockedMillis() {
+        return blockedMillis;
+    }
+    
+    public long getIdleMillis() {
+        return idleMillis;
+    }
+    
+    @Override
+    public String toString() {
+        return "StageStats{" +
+                "stage='" + stage + '\'' +
+                ", workers=" + workers +
+                ", items=" + items +
+                ", requests=" + requests +
+                ", busyMillis=" + busyMillis +
+                ", blockedMillis=" + blockedMillis +
+                ", idleMillis=" + idleMillis +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.s3processor.model;
+
+/**
+ * Conditions under which the monitor starts processing a pending backlog
+ */
+public enum TriggerPolicy {
+    
+    /** Pending file count reached the file threshold */
+    FILE_COUNT,
+    
+    /** Total pending bytes reached the byte threshold */
+    TOTAL_BYTES,
+    
+    /** Oldest pending file has waited longer than the maximum age */
+    OLDEST_AGE,
+    
+    /** The arrival rate forecasts the file threshold being reached before the monitor's next tick */
+    FORECAST;
+    
+    /**
+     * Return the first policy that fires for a snapshot, or null when none does.
+     * A byte threshold or maximum age of zero or less disables that policy.
+     */
+    public static TriggerPolicy evaluate(BacklogSnapshot snapshot, int fileThreshold,
+                                         long byteThreshold, long maxAgeMillis, long now) {
+        if (snapshot.getFileCount() == 0) {
+            return null;
+        }
+        if (snapshot.getFileCount() >= fileThreshold) {
+            return FILE_COUNT;
+        }
+        if (byteThreshold > 0 && snapshot.getTotalBytes() >= byteThreshold) {
+            return TOTAL_BYTES;
+        }
+        if (maxAgeMillis > 0 && now - snapshot.getOldestLastModified() >= maxAgeMillis) {
+            return OLDEST_AGE;
+        }
+        return null;
+    }
+}
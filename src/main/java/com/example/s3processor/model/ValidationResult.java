@@ -0,0 +1,185 @@
+package com.example.s3processor.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Model class for the output of validating one batch
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ValidationResult {
+    
+    @JsonProperty("bucketName")
+    private String bucketName;
+    
+    @JsonProperty("batchPrefix")
+    private String batchPrefix;
+    
+    @JsonProperty("totalFiles")
+    private int totalFiles;
+    
+    @JsonProperty("validFiles")
+    private int validFiles;
+    
+    @JsonProperty("emptyFiles")
+    private int emptyFiles;
+    
+    @JsonProperty("errorFiles")
+    private int errorFiles;
+    
+    @JsonProperty("cachedFiles")
+    private int cachedFiles;
+    
+    @JsonProperty("isValid")
+    private boolean valid;
+    
+    @JsonProperty("timestamp")
+    private long timestamp;
+    
+    @JsonProperty("error")
+    private Boolean error;
+    
+    @JsonProperty("errorMessage")
+    private String errorMessage;
+    
+    @JsonProperty("runStats")
+    private RunStats runStats;
+    
+    public ValidationResult() {
+    }
+    
+    public ValidationResult(String bucketName, String batchPrefix) {
+        this.bucketName = bucketName;
+        this.batchPrefix = batchPrefix;
+    }
+    
+    /**
+     * Build a failed result carrying only the error details
+     */
+    public static ValidationResult failed(String errorMessage) {
+        ValidationResult result = new ValidationResult();
+        result.setError(true);
+        result.setErrorMessage(errorMessage);
+        result.setTimestamp(System.currentTimeMillis());
+        return result;
+    }
+    
+    // Getters and Setters
+    public String getBucketName() {
+        return bucketName;
+    }
+    
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+    
+    public String getBatchPrefix() {
+        return batchPrefix;
+    }
+    
+    public void setBatchPrefix(String batchPrefix) {
+        this.batchPrefix = batchPrefix;
+    }
+    
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+    
+    public void setTotalFiles(int totalFiles) {
+        this.totalFiles = totalFiles;
+    }
+    
+    public int getValidFiles() {
+        return validFiles;
+    }
+    
+    public void setValidFiles(int validFiles) {
+        this.validFiles = validFiles;
+    }
+    
+    public int getEmptyFiles() {
+        return emptyFiles;
+    }
+    
+    public void setEmptyFiles(int emptyFiles) {
+        this.emptyFiles = emptyFiles;
+    }
+    
+    public int getErrorFiles() {
+        return errorFiles;
+    }
+    
+    public void setErrorFiles(int errorFiles) {
+        this.errorFiles = errorFiles;
+    }
+    
+    /**
+     * Files answered from the validation cache instead of being checked again
+     */
+    public int getCachedFiles() {
+        return cachedFiles;
+    }
+    
+    public void setCachedFiles(int cachedFiles) {
+        this.cachedFiles = cachedFiles;
+    }
+    
+    public boolean isValid() {
+        return valid;
+    }
+    
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public Boolean getError() {
+        return error;
+    }
+    
+    public void setError(Boolean error) {
+        this.error = error;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+    
+    /**
+     * Statistics of validating this batch
+     */
+    public RunStats getRunStats() {
+        return runStats;
+    }
+    
+    public void setRunStats(RunStats runStats) {
+        this.runStats = runStats;
+    }
+    
+    @Override
+    public String toString() {
+        return "ValidationResult{" +
+                "bucketName='" + bucketName + '\'' +
+                ", batchPrefix='" + batchPrefix + '\'' +
+                ", totalFiles=" + totalFiles +
+                ", validFiles=" + validFiles +
+                ", emptyFiles=" + emptyFiles +
+                ", errorFiles=" + errorFiles +
+                ", cachedFiles=" + cachedFiles +
+                ", isValid=" + valid +
+                ", timestamp=" + timestamp +
+                ", errorMessage='" + errorMessage + '\'' +
+                '}';
+    }
+}
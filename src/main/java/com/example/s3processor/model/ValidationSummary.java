@@ -0,0 +1,121 @@
+package com.example.s3processor.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Model class for the output of validating several batches in one invocation
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ValidationSummary {
+    
+    @JsonProperty("bucketName")
+    private String bucketName;
+    
+    @JsonProperty("totalBatches")
+    private int totalBatches;
+    
+    @JsonProperty("invalidBatches")
+    private int invalidBatches;
+    
+    @JsonProperty("isValid")
+    private boolean valid;
+    
+    @JsonProperty("batches")
+    private List<ValidationResult> batches = new ArrayList<>();
+    
+    @JsonProperty("timestamp")
+    private long timestamp;
+    
+    @JsonProperty("runStats")
+    private RunStats runStats;
+    
+    public ValidationSummary() {
+    }
+    
+    /**
+     * Summarise per-batch results; the summary is valid only when every batch is
+     */
+    public ValidationSummary(String bucketName, List<ValidationResult> batches) {
+        this.bucketName = bucketName;
+        this.batches = batches;
+        this.totalBatches = batches.size();
+        this.invalidBatches = (int) batches.stream().filter(batch -> !batch.isValid()).count();
+        this.valid = invalidBatches == 0;
+        this.timestamp = System.currentTimeMillis();
+    }
+    
+    // Getters and Setters
+    public String getBucketName() {
+        return bucketName;
+    }
+    
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+    
+    public int getTotalBatches() {
+        return totalBatches;
+    }
+    
+    public void setTotalBatches(int totalBatches) {
+        this.totalBatches = totalBatches;
+    }
+    
+    public int getInvalidBatches() {
+        return invalidBatches;
+    }
+    
+    public void setInvalidBatches(int invalidBatches) {
+        this.invalidBatches = invalidBatches;
+    }
+    
+    public boolean isValid() {
+        return valid;
+    }
+    
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+    
+    public List<ValidationResult> getBatches() {
+        return batches;
+    }
+    
+    public void setBatches(List<ValidationResult> batches) {
+        this.batches = batches;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    /**
+     * Statistics of this validation invocation
+     */
+    public RunStats getRunStats() {
+        return runStats;
+    }
+    
+    public void setRunStats(RunStats runStats) {
+        this.runStats = runStats;
+    }
+    
+    @Override
+    public String toString() {
+        return "ValidationSummary{" +
+                "bucketName='" + bucketName + '\'' +
+                ", totalBatches=" + totalBatches +
+                ", invalidBatches=" + invalidBatches +
+                ", valid=" + valid +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
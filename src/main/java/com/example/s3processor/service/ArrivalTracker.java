@@ -0,0 +1,154 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.model.ArrivalHistory;
+import com.example.s3processor.model.BacklogSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the pending arrival rate of each feed and lane over its recent monitor ticks.
+ * The tick history is kept as one JSON object per feed under the monitor state prefix of the
+ * feed's bucket, since consecutive ticks rarely land on the same warm container.
+ * The rate only counts growth between ticks with no trigger in between, when no files can have
+ * left the prefix, so it is a lower bound while a workflow is draining the backlog.
+ */
+public class ArrivalTracker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ArrivalTracker.class);
+    
+    private final S3Client s3Client;
+    private final String statePrefix;
+    private final int maxTicks;
+    private final ObjectMapper objectMapper;
+    
+    public ArrivalTracker(S3Client s3Client, String statePrefix, int maxTicks) {
+        this.s3Client = s3Client;
+        this.statePrefix = statePrefix;
+        this.maxTicks = Math.max(2, maxTicks);
+        this.objectMapper = new ObjectMapper();
+    }
+    
+    /**
+     * Build a tracker when adaptive scheduling or forecast triggering is enabled, or return null
+     */
+    public static ArrivalTracker fromConfig(AppConfig config) {
+        if (!config.isAdaptiveScheduleEnabled() && !config.isTriggerForecastEnabled()) {
+            return null;
+        }
+        return new ArrivalTracker(S3Client.builder()
+                .region(config.getAwsRegion())
+                .overrideConfiguration(AwsClientOverrides.forConfig(config))
+                .build(), config.getMonitorStatePrefix(), config.getAdaptiveScheduleHistoryTicks());
+    }
+    
+    /**
+     * Load the feed's history and estimate its arrival rate up to this snapshot
+     */
+    public Forecast observe(BacklogSnapshot snapshot) {
+        ArrivalHistory history = load(snapshot);
+        long files = 0;
+        long millis = 0;
+        List<ArrivalHistory.Tick> ticks = new ArrayList<>(history.getTicks());
+        ticks.add(new ArrivalHistory.Tick(snapshot.getTimestamp(), snapshot.getFileCount(), false));
+        for (int i = 1; i < ticks.size(); i++) {
+            ArrivalHistory.Tick from = ticks.get(i - 1);
+            ArrivalHistory.Tick to = ticks.get(i);
+            // Files may have left the prefix after a trigger, so that interval says nothing about arrivals
+            if (!from.isDraining() && to.getFileCount() >= from.getFileCount() && to.getTimestamp() > from.getTimestamp()) {
+                files += to.getFileCount() - from.getFileCount();
+                millis += to.getTimestamp() - from.getTimestamp();
+            }
+        }
+        return new Forecast(snapshot, history, millis > 0 ? (double) files / millis : Double.NaN);
+    }
+    
+    /**
+     * Append this tick to the feed's history, noting whether a trigger policy fired on it
+     */
+    public void record(Forecast forecast, boolean draining) {
+        List<ArrivalHistory.Tick> ticks = forecast.history.getTicks();
+        ticks.add(new ArrivalHistory.Tick(forecast.snapshot.getTimestamp(), forecast.snapshot.getFileCount(), draining));
+        while (ticks.size() > maxTicks) {
+            ticks.remove(0);
+        }
+        try {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(forecast.snapshot.getBucketName())
+                            .key(stateKey(forecast.snapshot))
+                            .contentType("application/json")
+                            .build(),
+                    RequestBody.fromString(objectMapper.writeValueAsString(forecast.history), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            logger.warn("Unable to write arrival history for {}", stateKey(forecast.snapshot), e);
+        }
+    }
+    
+    private ArrivalHistory load(BacklogSnapshot snapshot) {
+        try {
+            byte[] content = s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(snapshot.getBucketName())
+                    .key(stateKey(snapshot))
+                    .build()).asByteArray();
+            return objectMapper.readValue(content, ArrivalHistory.class);
+        } catch (NoSuchKeyException e) {
+            return new ArrivalHistory();
+        } catch (Exception e) {
+            // The history only tunes the schedule; losing it restarts the estimate
+            logger.warn("Unable to read arrival history for {}", stateKey(snapshot), e);
+            return new ArrivalHistory();
+        }
+    }
+    
+    private String stateKey(BacklogSnapshot snapshot) {
+        String lane = snapshot.getLane() != null ? snapshot.getLane() + "/" : "";
+        return statePrefix + "arrivals/" + snapshot.getPrefix() + lane + "history.json";
+    }
+    
+    /**
+     * Arrival rate of one feed at one tick, holding the history the tick is recorded into
+     */
+    public static class Forecast {
+        
+        private final BacklogSnapshot snapshot;
+        private final ArrivalHistory history;
+        private final double filesPerMilli;
+        
+        Forecast(BacklogSnapshot snapshot, ArrivalHistory history, double filesPerMilli) {
+            this.snapshot = snapshot;
+            this.history = history;
+            this.filesPerMilli = filesPerMilli;
+        }
+        
+        /**
+         * Observed arrivals per minute, or null until two comparable ticks have been seen
+         */
+        public Double getFilesPerMinute() {
+            return Double.isNaN(filesPerMilli) ? null : filesPerMilli * 60_000;
+        }
+        
+        /**
+         * Milliseconds until a backlog of fromCount files reaches threshold at the observed rate;
+         * Long.MAX_VALUE when nothing is arriving or the rate is not known yet
+         */
+        public long millisUntil(long fromCount, long threshold) {
+            if (fromCount >= threshold) {
+                return 0L;
+            }
+            if (Double.isNaN(filesPerMilli) || filesPerMilli <= 0) {
+                return Long.MAX_VALUE;
+            }
+            return (long) Math.ceil((threshold - fromCount) / filesPerMilli);
+        }
+    }
+}
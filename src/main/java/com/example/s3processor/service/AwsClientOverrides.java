@@ -0,0 +1,27 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.jfr.AwsCallRecorder;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+
+/**
+ * Override configuration shared by every AWS client the handlers build
+ */
+public final class AwsClientOverrides {
+    
+    private AwsClientOverrides() {
+    }
+    
+    /**
+     * Registers the shared RequestCounter, plus the Flight Recorder interceptor when
+     * jfr.events.enabled is set
+     */
+    public static ClientOverrideConfiguration forConfig(AppConfig config) {
+        ClientOverrideConfiguration.Builder overrides = ClientOverrideConfiguration.builder()
+                .addExecutionInterceptor(RequestCounter.shared());
+        if (config.isJfrEventsEnabled()) {
+            overrides.addExecutionInterceptor(new AwsCallRecorder());
+        }
+        return overrides.build();
+    }
+}
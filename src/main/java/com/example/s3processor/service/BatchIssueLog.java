@@ -0,0 +1,69 @@
+package com.example.s3processor.service;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects per-file problems of one batch, such as empty or unreadable files, and logs them
+ * as one summary line per kind: the count plus the first maxKeys offending keys. Only the
+ * first error of each kind is logged with its stack trace.
+ */
+public class BatchIssueLog {
+    
+    private final int maxKeys;
+    private final Map<String, Issues> issuesByKind = new LinkedHashMap<>();
+    
+    public BatchIssueLog(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+    
+    public synchronized void record(String kind, String key) {
+        record(kind, key, null);
+    }
+    
+    public synchronized void record(String kind, String key, Throwable error) {
+        Issues issues = issuesByKind.computeIfAbsent(kind, k -> new Issues());
+        issues.count++;
+        if (issues.keys.size() < maxKeys) {
+            issues.keys.add(key);
+        }
+        if (issues.firstError == null) {
+            issues.firstError = error;
+        }
+    }
+    
+    public synchronized int count(String kind) {
+        Issues issues = issuesByKind.get(kind);
+        return issues == null ? 0 : issues.count;
+    }
+    
+    public synchronized List<String> keys(String kind) {
+        Issues issues = issuesByKind.get(kind);
+        return issues == null ? List.of() : List.copyOf(issues.keys);
+    }
+    
+    /**
+     * Log one line per kind: at ERROR with the first stack trace when an error was recorded, else at WARN
+     */
+    public synchronized void logSummary(Logger logger, String batchPrefix) {
+        issuesByKind.forEach((kind, issues) -> {
+            if (issues.firstError != null) {
+                logger.error("Batch {}: {} {} files, first {}: {}", batchPrefix, issues.count, kind,
+                        issues.keys.size(), issues.keys, issues.firstError);
+            } else {
+                logger.warn("Batch {}: {} {} files, first {}: {}", batchPrefix, issues.count, kind,
+                        issues.keys.size(), issues.keys);
+            }
+        });
+    }
+    
+    private static class Issues {
+        private int count;
+        private final List<String> keys = new ArrayList<>();
+        private Throwable firstError;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.model.CopyJobStatus;
+
+/**
+ * Submits and tracks server-side copy jobs driven by a CSV manifest of Bucket,Key rows.
+ * Every object listed in the manifest is copied to targetBucket under targetKeyPrefix + "/" + key,
+ * and the outcome of every object is reported under reportPrefix + "job-" + jobId + "/" in the
+ * manifest bucket once the job ends.
+ */
+public interface CopyJobClient {
+    
+    /**
+     * Submit a copy job and return its job ID. Submitting twice with the same
+     * clientRequestToken returns the job created by the first call.
+     */
+    String submitCopyJob(String manifestBucket, String manifestKey, String manifestETag,
+                         String targetBucket, String targetKeyPrefix, String reportPrefix, String clientRequestToken);
+    
+    /**
+     * Current progress of a submitted job
+     */
+    CopyJobStatus describeJob(String jobId);
+}
@@ -0,0 +1,85 @@
+package com.example.s3processor.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the completion reports of copy jobs. A job writes its report as a manifest.json under
+ * reportPrefix + "job-" + jobId + "/", which lists result CSV files of Bucket, Key, VersionId,
+ * TaskStatus, ... rows; keys are URL-encoded as they were in the job manifest.
+ */
+public class CopyJobReports {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CopyJobReports.class);
+    private static final String SUCCEEDED = "succeeded";
+    
+    private final S3Client s3Client;
+    private final String reportPrefix;
+    private final ObjectMapper objectMapper;
+    
+    public CopyJobReports(S3Client s3Client, String reportPrefix) {
+        this.s3Client = s3Client;
+        this.reportPrefix = reportPrefix;
+        this.objectMapper = new ObjectMapper();
+    }
+    
+    public String getReportPrefix() {
+        return reportPrefix;
+    }
+    
+    /**
+     * Source keys the job reported as copied; empty when the job ended without a report
+     */
+    public List<String> succeededKeys(String bucketName, String jobId) throws IOException {
+        String manifestKey = (reportPrefix.endsWith("/") ? reportPrefix : reportPrefix + "/") + "job-" + jobId + "/manifest.json";
+        JsonNode manifest;
+        try {
+            manifest = objectMapper.readTree(read(bucketName, manifestKey));
+        } catch (NoSuchKeyException e) {
+            logger.warn("Copy job {} wrote no completion report at {}", jobId, manifestKey);
+            return List.of();
+        }
+        
+        List<String> keys = new ArrayList<>();
+        for (JsonNode result : manifest.path("Results")) {
+            if (SUCCEEDED.equals(result.path("TaskExecutionStatus").asText())) {
+                keys.addAll(parseSucceeded(new String(read(result.path("Bucket").asText(bucketName),
+                        result.path("Key").asText()), StandardCharsets.UTF_8)));
+            }
+        }
+        return keys;
+    }
+    
+    /**
+     * Decoded keys of the rows of a result CSV whose task succeeded
+     */
+    static List<String> parseSucceeded(String csv) {
+        List<String> keys = new ArrayList<>();
+        for (String line : csv.split("\n")) {
+            // Keys are URL-encoded, so the first four columns hold no commas or quotes
+            String[] columns = line.split(",", 5);
+            if (columns.length >= 4 && SUCCEEDED.equals(columns[3].trim())) {
+                keys.add(URLDecoder.decode(columns[1], StandardCharsets.UTF_8));
+            }
+        }
+        return keys;
+    }
+    
+    private byte[] read(String bucketName, String key) {
+        return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build()).asByteArray();
+    }
+}
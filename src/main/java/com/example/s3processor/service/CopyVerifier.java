@@ -0,0 +1,126 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.util.Locale;
+
+/**
+ * Server-side copy that is verified before its source may be deleted, without reading object data.
+ * The copy requests an S3 additional checksum of the destination and is made conditional on the
+ * source ETag; the source's size and stored checksum come from a HEAD request, the destination's
+ * from the copy result and a HEAD request. Sizes must match and the destination checksum must agree
+ * with the copy result and with the source checksum when the source was uploaded with one of the
+ * same algorithm. Composite checksums of multipart sources describe their parts, not the whole
+ * object, so those sources are verified by size and ETag only.
+ */
+public class CopyVerifier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CopyVerifier.class);
+    
+    private final S3Client s3Client;
+    private final ChecksumAlgorithm algorithm;
+    
+    public CopyVerifier(S3Client s3Client, ChecksumAlgorithm algorithm) {
+        this.s3Client = s3Client;
+        this.algorithm = algorithm;
+    }
+    
+    /**
+     * Build the verifier selected by copy.verify.checksum, or null when copies are not verified
+     */
+    public static CopyVerifier fromConfig(S3Client s3Client, AppConfig config) {
+        String name = config.getCopyVerifyChecksum();
+        if (name == null || name.isBlank() || "none".equalsIgnoreCase(name)) {
+            return null;
+        }
+        ChecksumAlgorithm algorithm = ChecksumAlgorithm.fromValue(name.trim().toUpperCase(Locale.ROOT));
+        if (algorithm == ChecksumAlgorithm.UNKNOWN_TO_SDK_VERSION) {
+            throw new IllegalArgumentException("Unknown copy.verify.checksum: " + name);
+        }
+        return new CopyVerifier(s3Client, algorithm);
+    }
+    
+    /**
+     * Copy sourceKey to destKey and verify the copy. A copy that fails verification is deleted
+     * and an exception is thrown, so the source stays in place for the next run.
+     */
+    public void copy(String bucketName, String sourceKey, String destKey) {
+        HeadObjectResponse source = head(bucketName, sourceKey);
+        
+        CopyObjectResponse copy = s3Client.copyObject(CopyObjectRequest.builder()
+                .sourceBucket(bucketName)
+                .sourceKey(sourceKey)
+                .copySourceIfMatch(source.eTag())
+                .destinationBucket(bucketName)
+                .destinationKey(destKey)
+                .checksumAlgorithm(algorithm)
+                .build());
+        
+        HeadObjectResponse destination = head(bucketName, destKey);
+        String mismatch = mismatch(source, checksumOf(copy.copyObjectResult()), destination);
+        if (mismatch != null) {
+            s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(destKey).build());
+            throw new IllegalStateException("Copy verification failed for " + sourceKey + ": " + mismatch);
+        }
+    }
+    
+    private String mismatch(HeadObjectResponse source, String copyChecksum, HeadObjectResponse destination) {
+        if (!source.contentLength().equals(destination.contentLength())) {
+            return "size " + destination.contentLength() + " != " + source.contentLength();
+        }
+        String destinationChecksum = checksumOf(destination);
+        if (destinationChecksum == null || !destinationChecksum.equals(copyChecksum)) {
+            return algorithm + " " + destinationChecksum + " != copy result " + copyChecksum;
+        }
+        String sourceChecksum = checksumOf(source);
+        if (sourceChecksum == null || sourceChecksum.contains("-")) {
+            logger.debug("Source has no full-object {} checksum; verified by size and ETag", algorithm);
+            return null;
+        }
+        if (!sourceChecksum.equals(destinationChecksum)) {
+            return algorithm + " " + destinationChecksum + " != source " + sourceChecksum;
+        }
+        return null;
+    }
+    
+    private HeadObjectResponse head(String bucketName, String key) {
+        return s3Client.headObject(HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .checksumMode(ChecksumMode.ENABLED)
+                .build());
+    }
+    
+    private String checksumOf(HeadObjectResponse response) {
+        switch (algorithm) {
+            case CRC32:
+                return response.checksumCRC32();
+            case CRC32_C:
+                return response.checksumCRC32C();
+            case SHA1:
+                return response.checksumSHA1();
+            default:
+                return response.checksumSHA256();
+        }
+    }
+    
+    private String checksumOf(CopyObjectResult result) {
+        if (result == null) {
+            return null;
+        }
+        switch (algorithm) {
+            case CRC32:
+                return result.checksumCRC32();
+            case CRC32_C:
+                return result.checksumCRC32C();
+            case SHA1:
+                return result.checksumSHA1();
+            default:
+                return result.checksumSHA256();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.eventbridge.EventBridgeClient;
+import software.amazon.awssdk.services.eventbridge.model.DescribeRuleRequest;
+import software.amazon.awssdk.services.eventbridge.model.DescribeRuleResponse;
+import software.amazon.awssdk.services.eventbridge.model.PutRuleRequest;
+
+/**
+ * MonitorScheduler that retunes the rate of the EventBridge rule invoking the monitor.
+ * Rate rules count whole minutes, so delays are rounded up to the next minute, and the rule
+ * is only updated when the rounded rate changes. The rule's targets are left untouched.
+ */
+public class EventBridgeMonitorScheduler implements MonitorScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EventBridgeMonitorScheduler.class);
+    
+    private final EventBridgeClient eventBridgeClient;
+    private final String ruleName;
+    private DescribeRuleResponse rule;
+    
+    public EventBridgeMonitorScheduler(EventBridgeClient eventBridgeClient, String ruleName) {
+        this.eventBridgeClient = eventBridgeClient;
+        this.ruleName = ruleName;
+    }
+    
+    /**
+     * Build the scheduler when adaptive scheduling is enabled, or return null
+     */
+    public static EventBridgeMonitorScheduler fromConfig(AppConfig config) {
+        if (!config.isAdaptiveScheduleEnabled()) {
+            return null;
+        }
+        return new EventBridgeMonitorScheduler(EventBridgeClient.builder()
+                .region(config.getAwsRegion())
+                .overrideConfiguration(AwsClientOverrides.forConfig(config))
+                .build(), config.getAdaptiveScheduleRuleName());
+    }
+    
+    @Override
+    public synchronized void scheduleNext(long delaySeconds) {
+        String expression = rateExpression(delaySeconds);
+        if (rule == null) {
+            rule = eventBridgeClient.describeRule(DescribeRuleRequest.builder().name(ruleName).build());
+        }
+        if (expression.equals(rule.scheduleExpression())) {
+            return;
+        }
+        
+        // PutRule replaces the rule's settings, so carry over everything but the schedule
+        eventBridgeClient.putRule(PutRuleRequest.builder()
+                .name(ruleName)
+                .description(rule.description())
+                .state(rule.state())
+                .roleArn(rule.roleArn())
+                .eventBusName(rule.eventBusName())
+                .scheduleExpression(expression)
+                .build());
+        logger.info("Rescheduled monitor rule {} from {} to {}", ruleName, rule.scheduleExpression(), expression);
+        rule = rule.toBuilder().scheduleExpression(expression).build();
+    }
+    
+    static String rateExpression(long delaySeconds) {
+        long minutes = Math.max(1L, (delaySeconds + 59) / 60);
+        return "rate(" + minutes + (minutes == 1 ? " minute)" : " minutes)");
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.model.CompactionIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concatenates small pending files into larger objects before batching.
+ * Each compacted object is written with a multipart upload whose parts are sourced
+ * in parallel, and is accompanied by a CompactionIndex at key + ".index.json".
+ */
+public class FileCompactor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FileCompactor.class);
+    
+    /** S3 rejects multipart parts below 5 MiB, except the last */
+    private static final long MIN_PART_BYTES = 5L * 1024 * 1024;
+    
+    public static final String INDEX_SUFFIX = ".index.json";
+    
+    private final S3Client s3Client;
+    private final AppConfig config;
+    private final ObjectMapper objectMapper;
+    private ExecutorService partExecutor;
+    
+    public FileCompactor(S3Client s3Client, AppConfig config) {
+        this.s3Client = s3Client;
+        this.config = config;
+        this.objectMapper = new ObjectMapper();
+    }
+    
+    /**
+     * Split sorted source objects into move units. Files of at least
+     * compaction.small.file.bytes stay single units; runs of smaller files are grouped
+     * up to compaction.target.bytes. A group that would hold only one file stays a single unit.
+     * Empty files are never compacted, so validation still finds and reports them.
+     */
+    public List<List<S3Object>> planUnits(List<S3Object> sourceObjects) {
+        long smallFileBytes = config.getCompactionSmallFileBytes();
+        long targetBytes = config.getCompactionTargetBytes();
+        
+        List<List<S3Object>> units = new ArrayList<>();
+        List<S3Object> group = new ArrayList<>();
+        long groupBytes = 0;
+        
+        for (S3Object sourceObject : sourceObjects) {
+            long size = sourceObject.size() != null ? sourceObject.size() : 0L;
+            if (size == 0 || size >= smallFileBytes) {
+                units.add(List.of(sourceObject));
+                continue;
+            }
+            if (!group.isEmpty() && groupBytes + size > targetBytes) {
+                addGroup(units, group);
+                group = new ArrayList<>();
+                groupBytes = 0;
+            }
+            group.add(sourceObject);
+            groupBytes += size;
+        }
+        addGroup(units, group);
+        
+        return units;
+    }
+    
+    private static void addGroup(List<List<S3Object>> units, List<S3Object> group) {
+        if (group.size() == 1) {
+            units.add(List.of(group.get(0)));
+        } else if (!group.isEmpty()) {
+            units.add(group);
+        }
+    }
+    
+    /**
+     * Write the given source objects, in order, as one object at destKey plus its index.
+     * Sources are left in place; the caller deletes them once this returns.
+     */
+    public CompactionIndex compact(String bucketName, List<S3Object> sources, String destKey) {
+        CompactionIndex index = new CompactionIndex(bucketName, destKey);
+        List<List<S3Object>> partSources = planParts(sources, index);
+        
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(destKey)
+                .contentType("application/octet-stream")
+                .build()).uploadId();
+        
+        try {
+            List<CompletableFuture<CompletedPart>> uploads = new ArrayList<>(partSources.size());
+            for (int i = 0; i < partSources.size(); i++) {
+                int partNumber = i + 1;
+                List<S3Object> part = partSources.get(i);
+                uploads.add(CompletableFuture.supplyAsync(
+                        () -> uploadPart(bucketName, destKey, uploadId, partNumber, part), partExecutor()));
+            }
+            
+            List<CompletedPart> completedParts = new ArrayList<>(uploads.size());
+            for (CompletableFuture<CompletedPart> upload : uploads) {
+                completedParts.add(upload.join());
+            }
+            
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(destKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+            
+        } catch (RuntimeException e) {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(destKey)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
+        }
+        
+        try {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(destKey + INDEX_SUFFIX)
+                            .contentType("application/json")
+                            .build(),
+                    RequestBody.fromString(objectMapper.writeValueAsString(index), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to write compaction index for " + destKey, e);
+        }
+        
+        logger.info("Compacted {} files ({} bytes) into {} with {} parts",
+                   sources.size(), index.getTotalBytes(), destKey, partSources.size());
+        return index;
+    }
+    
+    /**
+     * Group sources into parts of at least compaction.part.bytes and record their offsets
+     */
+    private List<List<S3Object>> planParts(List<S3Object> sources, CompactionIndex index) {
+        long partBytes = Math.max(MIN_PART_BYTES, config.getCompactionPartBytes());
+        List<List<S3Object>> parts = new ArrayList<>();
+        List<S3Object> part = new ArrayList<>();
+        long currentPartBytes = 0;
+        
+        for (S3Object source : sources) {
+            long size = source.size() != null ? source.size() : 0L;
+            index.addEntry(source.key(), size);
+            part.add(source);
+            currentPartBytes += size;
+            if (currentPartBytes >= partBytes) {
+                parts.add(part);
+                part = new ArrayList<>();
+                currentPartBytes = 0;
+            }
+        }
+        if (!part.isEmpty()) {
+            parts.add(part);
+        }
+        return parts;
+    }
+    
+    private CompletedPart uploadPart(String bucketName, String destKey, String uploadId,
+                                     int partNumber, List<S3Object> sources) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (S3Object source : sources) {
+            byte[] content = s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(source.key())
+                    .build()).asByteArray();
+            
+            // Offsets in the index were computed from the listed sizes
+            long expected = source.size() != null ? source.size() : 0L;
+            if (content.length != expected) {
+                throw new IllegalStateException("Source " + source.key() + " changed size during compaction: expected "
+                        + expected + " bytes, read " + content.length);
+            }
+            buffer.writeBytes(content);
+        }
+        
+        UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucketName)
+                        .key(destKey)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .build(),
+                RequestBody.fromBytes(buffer.toByteArray()));
+        
+        return CompletedPart.builder()
+                .partNumber(partNumber)
+                .eTag(response.eTag())
+                .build();
+    }
+    
+    private synchronized ExecutorService partExecutor() {
+        if (partExecutor == null) {
+            int concurrency = Math.max(1, config.getCompactionConcurrency());
+            AtomicInteger threadCount = new AtomicInteger();
+            partExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "s3-compaction-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return partExecutor;
+    }
+}
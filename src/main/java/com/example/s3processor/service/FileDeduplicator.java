@@ -0,0 +1,235 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.model.DuplicateReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Finds pending files whose content matches an earlier pending file.
+ * Single-part objects are compared by ETag and size; multipart ETags do not identify
+ * content, so multipart objects are compared by a SHA-256 of their content, which is
+ * only read for objects whose size matches another multipart object.
+ */
+public class FileDeduplicator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FileDeduplicator.class);
+    
+    private final S3Client s3Client;
+    private final AppConfig config;
+    private final ObjectMapper objectMapper;
+    
+    public FileDeduplicator(S3Client s3Client, AppConfig config) {
+        this.s3Client = s3Client;
+        this.config = config;
+        this.objectMapper = new ObjectMapper();
+    }
+    
+    /**
+     * Split sorted source objects into the files to move and the duplicates to drop.
+     * The first file of each identical group, in key order, is kept as the canonical copy.
+     */
+    public Result deduplicate(String bucketName, String prefix, List<S3Object> sourceObjects) {
+        return deduplicate(bucketName, prefix, sourceObjects, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Deduplicate, reading multipart content only until deadlineMillis; at least one file is read.
+     * The files from the first one left unread on are not compared: they are left out of the
+     * result, which is then incomplete, and wait for a later invocation.
+     */
+    public Result deduplicate(String bucketName, String prefix, List<S3Object> sourceObjects, long deadlineMillis) {
+        BitSet needsChecksum = needsChecksum(sourceObjects);
+        Map<Integer, byte[]> checksums = new HashMap<>();
+        int compared = sourceObjects.size();
+        for (int i = needsChecksum.nextSetBit(0); i >= 0; i = needsChecksum.nextSetBit(i + 1)) {
+            if (!checksums.isEmpty() && System.currentTimeMillis() > deadlineMillis) {
+                compared = i;
+                break;
+            }
+            checksums.put(i, sha256(bucketName, sourceObjects.get(i).key()));
+        }
+        if (!checksums.isEmpty()) {
+            logger.info("Read {} multipart files to compare their content", checksums.size());
+        }
+        
+        FingerprintIndex index = new FingerprintIndex(sourceObjects.size());
+        Map<Integer, DuplicateReport.Group> groups = new LinkedHashMap<>();
+        DuplicateReport report = new DuplicateReport(bucketName, prefix);
+        List<S3Object> uniqueObjects = new ArrayList<>(compared);
+        List<String> duplicateKeys = new ArrayList<>();
+        
+        for (int i = 0; i < compared; i++) {
+            S3Object sourceObject = sourceObjects.get(i);
+            byte[] checksum = checksums.get(i);
+            String eTag = normalizeETag(sourceObject.eTag());
+            if (checksum == null && (eTag == null || isMultipartETag(eTag))) {
+                // Nothing identifies its content, so it cannot match another file
+                uniqueObjects.add(sourceObject);
+                continue;
+            }
+            
+            long fingerprint = 31 * (checksum != null ? ByteBuffer.wrap(checksum).getLong() : FingerprintIndex.fingerprint(eTag))
+                    + sizeOf(sourceObject);
+            // Only the fingerprint and position are indexed; a match is confirmed against the recorded object
+            int canonical = index.putIfAbsent(fingerprint, i, recorded ->
+                    sameContent(sourceObjects.get(recorded), checksums.get(recorded), sourceObject, checksum));
+            if (canonical < 0) {
+                uniqueObjects.add(sourceObject);
+                continue;
+            }
+            
+            groups.computeIfAbsent(canonical, position -> new DuplicateReport.Group(sourceObjects.get(position).key()))
+                    .getDuplicateKeys().add(sourceObject.key());
+            duplicateKeys.add(sourceObject.key());
+            report.setDuplicateBytes(report.getDuplicateBytes() + sizeOf(sourceObject));
+        }
+        
+        report.setDuplicateFiles(duplicateKeys.size());
+        report.setGroups(new ArrayList<>(groups.values()));
+        
+        logger.info("Found {} duplicate files in {} groups among {} of {} pending files",
+                   duplicateKeys.size(), groups.size(), compared, sourceObjects.size());
+        return new Result(uniqueObjects, duplicateKeys, report, compared == sourceObjects.size());
+    }
+    
+    /**
+     * Write a report under dedup.report.prefix and return its key
+     */
+    public String writeReport(String bucketName, DuplicateReport report) {
+        String reportKey = config.getDedupReportPrefix() + report.getTimestamp() + "-" + UUID.randomUUID() + ".json";
+        try {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(reportKey)
+                            .contentType("application/json")
+                            .build(),
+                    RequestBody.fromString(objectMapper.writeValueAsString(report), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to write duplicate report " + reportKey, e);
+        }
+        return reportKey;
+    }
+    
+    /**
+     * Positions of the multipart objects whose size matches another multipart object; multipart
+     * ETags do not identify content, so only these need their content read to be compared
+     */
+    private static BitSet needsChecksum(List<S3Object> sourceObjects) {
+        FingerprintIndex sizes = new FingerprintIndex(16);
+        BitSet needsChecksum = new BitSet(sourceObjects.size());
+        for (int i = 0; i < sourceObjects.size(); i++) {
+            S3Object sourceObject = sourceObjects.get(i);
+            String eTag = normalizeETag(sourceObject.eTag());
+            if (eTag == null || !isMultipartETag(eTag)) {
+                continue;
+            }
+            int other = sizes.putIfAbsent(sizeOf(sourceObject), i);
+            if (other >= 0) {
+                needsChecksum.set(other);
+                needsChecksum.set(i);
+            }
+        }
+        return needsChecksum;
+    }
+    
+    private byte[] sha256(String bucketName, String key) {
+        try (ResponseInputStream<GetObjectResponse> content = s3Client.getObject(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build())) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return digest.digest();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to checksum " + key, e);
+        }
+    }
+    
+    /**
+     * Whether two objects hold the same content: equal size and either equal checksums or,
+     * for single-part objects, equal ETags
+     */
+    static boolean sameContent(S3Object first, byte[] firstChecksum, S3Object second, byte[] secondChecksum) {
+        if (sizeOf(first) != sizeOf(second)) {
+            return false;
+        }
+        if (firstChecksum != null || secondChecksum != null) {
+            return Arrays.equals(firstChecksum, secondChecksum);
+        }
+        return normalizeETag(first.eTag()).equals(normalizeETag(second.eTag()));
+    }
+    
+    private static String normalizeETag(String eTag) {
+        if (eTag == null || eTag.isEmpty()) {
+            return null;
+        }
+        return eTag.replace("\"", "");
+    }
+    
+    private static boolean isMultipartETag(String eTag) {
+        return eTag.indexOf('-') >= 0;
+    }
+    
+    private static long sizeOf(S3Object sourceObject) {
+        return sourceObject.size() != null ? sourceObject.size() : 0L;
+    }
+    
+    /**
+     * Files to move, duplicate keys to delete and the report describing them
+     */
+    public static class Result {
+        
+        private final List<S3Object> uniqueObjects;
+        private final List<String> duplicateKeys;
+        private final DuplicateReport report;
+        private final boolean complete;
+        
+        public Result(List<S3Object> uniqueObjects, List<String> duplicateKeys, DuplicateReport report, boolean complete) {
+            this.uniqueObjects = uniqueObjects;
+            this.duplicateKeys = duplicateKeys;
+            this.report = report;
+            this.complete = complete;
+        }
+        
+        public List<S3Object> getUniqueObjects() {
+            return uniqueObjects;
+        }
+        
+        public List<String> getDuplicateKeys() {
+            return duplicateKeys;
+        }
+        
+        public DuplicateReport getReport() {
+            return report;
+        }
+        
+        /**
+         * Whether every source object was compared; when not, only the leading ones are in the result
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+}
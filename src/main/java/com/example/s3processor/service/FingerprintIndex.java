@@ -0,0 +1,103 @@
+package com.example.s3processor.service;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Open-addressing hash index from 64-bit fingerprints to int positions.
+ * Stores only primitive arrays (about 24 bytes per entry at the maximum load factor),
+ * so it can index multi-million-key listings without per-entry objects. Entries whose
+ * fingerprints collide but whose content differs each take their own slot further along
+ * the probe sequence, so none of them is lost.
+ */
+public class FingerprintIndex {
+    
+    private static final int EMPTY = -1;
+    private static final double MAX_LOAD = 0.5;
+    
+    private long[] fingerprints;
+    private int[] positions;
+    private int size;
+    
+    public FingerprintIndex(int expectedEntries) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedEntries / MAX_LOAD)) - 1) << 1;
+        this.fingerprints = new long[capacity];
+        this.positions = newPositions(capacity);
+    }
+    
+    /**
+     * Record position for fingerprint unless already present.
+     * Returns the position already recorded for the fingerprint, or -1 if it was absent.
+     */
+    public int putIfAbsent(long fingerprint, int position) {
+        return putIfAbsent(fingerprint, position, recorded -> true);
+    }
+    
+    /**
+     * Record position for fingerprint unless a position recorded for the same fingerprint
+     * passes sameContent. Returns that recorded position, or -1 if there was none, in which
+     * case position is recorded alongside any entries whose fingerprint merely collides.
+     */
+    public int putIfAbsent(long fingerprint, int position, IntPredicate sameContent) {
+        int mask = fingerprints.length - 1;
+        int slot = mix(fingerprint) & mask;
+        while (positions[slot] != EMPTY) {
+            if (fingerprints[slot] == fingerprint && sameContent.test(positions[slot])) {
+                return positions[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        
+        fingerprints[slot] = fingerprint;
+        positions[slot] = position;
+        if (++size > fingerprints.length * MAX_LOAD) {
+            grow();
+        }
+        return -1;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * 64-bit polynomial hash of a string, used to fingerprint dedup keys
+     */
+    public static long fingerprint(String value) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+        return hash;
+    }
+    
+    private void grow() {
+        long[] oldFingerprints = fingerprints;
+        int[] oldPositions = positions;
+        fingerprints = new long[oldFingerprints.length * 2];
+        positions = newPositions(oldPositions.length * 2);
+        
+        int mask = fingerprints.length - 1;
+        for (int i = 0; i < oldPositions.length; i++) {
+            if (oldPositions[i] != EMPTY) {
+                int slot = mix(oldFingerprints[i]) & mask;
+                while (positions[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                fingerprints[slot] = oldFingerprints[i];
+                positions[slot] = oldPositions[i];
+            }
+        }
+    }
+    
+    private static int[] newPositions(int capacity) {
+        int[] positions = new int[capacity];
+        Arrays.fill(positions, EMPTY);
+        return positions;
+    }
+    
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
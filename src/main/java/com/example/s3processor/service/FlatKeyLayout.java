@@ -0,0 +1,19 @@
+package com.example.s3processor.service;
+
+import java.util.List;
+
+/**
+ * Default layout: every file of a batch sits directly under the batch prefix
+ */
+public class FlatKeyLayout implements KeyLayout {
+    
+    @Override
+    public String physicalPrefix(String batchPrefix, String fileName) {
+        return batchPrefix;
+    }
+    
+    @Override
+    public List<String> listingPrefixes(String batchPrefix) {
+        return List.of(batchPrefix);
+    }
+}
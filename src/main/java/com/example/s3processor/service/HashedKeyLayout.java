@@ -0,0 +1,56 @@
+package com.example.s3processor.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Layout that spreads the files of a batch across hashed shard prefixes placed
+ * ahead of the batch segment, e.g. processing/batch-001/a.csv is stored as
+ * processing/0b/batch-001/a.csv. Copy, delete and HEAD traffic for a run is
+ * then distributed over many key ranges instead of one hot prefix.
+ */
+public class HashedKeyLayout implements KeyLayout {
+    
+    private static final int MAX_SHARDS = 256;
+    
+    private final int shards;
+    
+    public HashedKeyLayout(int shards) {
+        this.shards = Math.max(1, Math.min(shards, MAX_SHARDS));
+    }
+    
+    @Override
+    public String physicalPrefix(String batchPrefix, String fileName) {
+        return shardPrefix(batchPrefix, shardOf(fileName));
+    }
+    
+    @Override
+    public List<String> listingPrefixes(String batchPrefix) {
+        List<String> prefixes = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            prefixes.add(shardPrefix(batchPrefix, shard));
+        }
+        return prefixes;
+    }
+    
+    public int getShards() {
+        return shards;
+    }
+    
+    int shardOf(String fileName) {
+        CRC32 crc = new CRC32();
+        crc.update(fileName.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % shards);
+    }
+    
+    /**
+     * Insert the shard segment in front of the last segment of the batch prefix
+     */
+    private static String shardPrefix(String batchPrefix, int shard) {
+        String trimmed = batchPrefix.endsWith("/") ? batchPrefix.substring(0, batchPrefix.length() - 1) : batchPrefix;
+        int split = trimmed.lastIndexOf('/') + 1;
+        return trimmed.substring(0, split) + String.format("%02x", shard) + "/" + trimmed.substring(split) + "/";
+    }
+}
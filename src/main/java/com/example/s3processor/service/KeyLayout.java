@@ -0,0 +1,40 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+
+import java.util.List;
+
+/**
+ * Strategy for placing moved files under a batch prefix.
+ * A batch is always addressed by its logical prefix (e.g. processing/batch-001/);
+ * the layout decides which physical keys back it.
+ */
+public interface KeyLayout {
+    
+    /**
+     * Physical prefix under which a file moved into the given logical batch prefix is stored
+     */
+    String physicalPrefix(String batchPrefix, String fileName);
+    
+    /**
+     * Destination key for a file moved into the given logical batch prefix
+     */
+    default String destinationKey(String batchPrefix, String fileName) {
+        return physicalPrefix(batchPrefix, fileName) + fileName;
+    }
+    
+    /**
+     * Physical prefixes that must be listed to read back every file of a logical batch prefix
+     */
+    List<String> listingPrefixes(String batchPrefix);
+    
+    /**
+     * Build the layout selected by s3.key.layout (flat or hashed)
+     */
+    static KeyLayout fromConfig(AppConfig config) {
+        if ("hashed".equalsIgnoreCase(config.getKeyLayout())) {
+            return new HashedKeyLayout(config.getKeyLayoutShards());
+        }
+        return new FlatKeyLayout();
+    }
+}
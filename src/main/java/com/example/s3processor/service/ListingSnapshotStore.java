@@ -0,0 +1,157 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.model.BacklogSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Hands the monitor's listing of a backlog to the batching step, so the prefix is not listed
+ * twice within seconds. The listing is stored under the monitor state prefix of the feed's bucket
+ * as a gzip-compressed binary file: keys are sorted, so each key is written as the length of the
+ * prefix it shares with the previous key plus the rest, and sizes as variable-length integers.
+ * A listing is taken once: batching deletes it as it reads it, and a retry lists the prefix itself.
+ */
+public class ListingSnapshotStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ListingSnapshotStore.class);
+    private static final int FORMAT_VERSION = 1;
+    
+    private final S3Client s3Client;
+    private final String statePrefix;
+    
+    public ListingSnapshotStore(S3Client s3Client, String statePrefix) {
+        this.s3Client = s3Client;
+        this.statePrefix = statePrefix;
+    }
+    
+    /**
+     * Write the listing kept with the snapshot and return its key, or null when the snapshot kept
+     * none or the write failed, in which case batching lists the prefix itself
+     */
+    public String write(BacklogSnapshot snapshot) {
+        List<S3Object> listing = snapshot.getListing();
+        if (listing == null) {
+            return null;
+        }
+        String lane = snapshot.getLane() != null ? snapshot.getLane() + "/" : "";
+        String key = statePrefix + "listings/" + snapshot.getPrefix() + lane + snapshot.getFingerprint() + ".bin.gz";
+        try {
+            byte[] content = encode(listing);
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(snapshot.getBucketName())
+                            .key(key)
+                            .contentType("application/octet-stream")
+                            .build(),
+                    RequestBody.fromBytes(content));
+            logger.info("Handed off listing of {} files as {} ({} bytes)", listing.size(), key, content.length);
+            return key;
+        } catch (Exception e) {
+            logger.warn("Unable to write listing {}; batching will list the prefix itself", key, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Read and delete a handed-off listing, sorted by key; null when it is gone or unreadable
+     */
+    public List<S3Object> take(String bucketName, String key) {
+        try {
+            byte[] content = s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build()).asByteArray();
+            s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(key).build());
+            return decode(content);
+        } catch (NoSuchKeyException e) {
+            logger.info("Listing {} was already taken; listing the prefix", key);
+            return null;
+        } catch (Exception e) {
+            logger.warn("Unable to read listing {}; listing the prefix", key, e);
+            return null;
+        }
+    }
+    
+    static byte[] encode(List<S3Object> listing) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeByte(FORMAT_VERSION);
+            writeVarLong(out, listing.size());
+            String previousKey = "";
+            for (S3Object object : listing) {
+                String key = object.key();
+                int shared = 0;
+                int limit = Math.min(key.length(), previousKey.length());
+                while (shared < limit && key.charAt(shared) == previousKey.charAt(shared)) {
+                    shared++;
+                }
+                writeVarLong(out, shared);
+                out.writeUTF(key.substring(shared));
+                writeVarLong(out, object.size() != null ? object.size() : 0L);
+                writeVarLong(out, object.lastModified() != null ? object.lastModified().toEpochMilli() : 0L);
+                out.writeUTF(object.eTag() != null ? object.eTag() : "");
+                previousKey = key;
+            }
+        }
+        return bytes.toByteArray();
+    }
+    
+    static List<S3Object> decode(byte[] content) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(content)))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported listing format " + version);
+            }
+            int count = (int) readVarLong(in);
+            List<S3Object> listing = new ArrayList<>(count);
+            String previousKey = "";
+            for (int i = 0; i < count; i++) {
+                String key = previousKey.substring(0, (int) readVarLong(in)) + in.readUTF();
+                long size = readVarLong(in);
+                long lastModified = readVarLong(in);
+                String eTag = in.readUTF();
+                listing.add(S3Object.builder()
+                        .key(key)
+                        .size(size)
+                        .lastModified(Instant.ofEpochMilli(lastModified))
+                        .eTag(eTag.isEmpty() ? null : eTag)
+                        .build());
+                previousKey = key;
+            }
+            return listing;
+        }
+    }
+    
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+    
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.s3processor.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+/**
+ * ValidationCacheStore keeping one JSON file per batch in a local directory,
+ * such as /tmp, which outlives a handler instance within the same execution environment
+ */
+public class LocalValidationCacheStore implements ValidationCacheStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LocalValidationCacheStore.class);
+    private static final TypeReference<Map<String, Boolean>> VERDICTS_TYPE = new TypeReference<>() {};
+    
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    
+    public LocalValidationCacheStore(Path directory) {
+        this.directory = directory;
+        this.objectMapper = new ObjectMapper();
+    }
+    
+    @Override
+    public Map<String, Boolean> load(String bucketName, String batchPrefix) {
+        Path file = cacheFile(bucketName, batchPrefix);
+        if (!Files.exists(file)) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), VERDICTS_TYPE);
+        } catch (Exception e) {
+            logger.warn("Unable to read validation cache {}", file, e);
+            return Map.of();
+        }
+    }
+    
+    @Override
+    public void save(String bucketName, String batchPrefix, Map<String, Boolean> verdicts) {
+        Path file = cacheFile(bucketName, batchPrefix);
+        try {
+            Files.createDirectories(directory);
+            // Write then rename so a concurrent reader never sees a partial file
+            Path temp = Files.createTempFile(directory, "verdicts", ".tmp");
+            objectMapper.writeValue(temp.toFile(), verdicts);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            logger.warn("Unable to write validation cache {}", file, e);
+        }
+    }
+    
+    private Path cacheFile(String bucketName, String batchPrefix) {
+        return directory.resolve(bucketName + "_" + batchPrefix.replace('/', '_') + ".json");
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.s3processor.service;
+
+/**
+ * Rate limit for a repetitive log message: at most permits messages per interval.
+ * acquire() returns -1 when the message should be dropped, otherwise the number of
+ * messages dropped since the last one let through, so the caller can report them.
+ */
+public class LogSampler {
+    
+    private final long intervalNanos;
+    private final int permits;
+    private long windowStart;
+    private int used;
+    private long suppressed;
+    
+    public LogSampler(long intervalMillis, int permits) {
+        this.intervalNanos = intervalMillis * 1_000_000L;
+        this.permits = permits;
+        this.windowStart = System.nanoTime();
+    }
+    
+    public synchronized long acquire() {
+        long now = System.nanoTime();
+        if (now - windowStart >= intervalNanos) {
+            windowStart = now;
+            used = 0;
+        }
+        if (used >= permits) {
+            suppressed++;
+            return -1;
+        }
+        used++;
+        long dropped = suppressed;
+        suppressed = 0;
+        return dropped;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.s3processor.service;
+
+/**
+ * Sets when the monitor runs next. The adaptive schedule asks for the next tick after each
+ * scheduled invocation, from the arrival rates of the feeds it evaluated.
+ */
+public interface MonitorScheduler {
+    
+    /**
+     * Run the monitor again in about delaySeconds, and every delaySeconds after that until rescheduled
+     */
+    void scheduleNext(long delaySeconds);
+}
@@ -0,0 +1,475 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.jfr.BatchEvent;
+import com.example.s3processor.model.MoveResult;
+import com.example.s3processor.model.StageStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Moves pending files as three stages connected by bounded queues: one listing producer,
+ * copy workers, and delete workers that commit each move by deleting its source in
+ * DeleteObjects calls of up to 1000 keys. Listing overlaps with copying, and a full queue
+ * blocks the stage feeding it, so memory stays bounded by the queue capacity.
+ *
+ * Batches are assigned in listing order, as the sequential move does, and the time budget is
+ * checked before each new batch is listed; work already queued is always drained, so every
+ * listed file up to the returned startAfter key has been moved when a run stops early.
+ * With a CopyVerifier, a source is only queued for deletion once its copy has been verified.
+ */
+public class MovePipeline {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MovePipeline.class);
+    private static final int MAX_DELETE_BATCH = 1000;
+    private static final Move END = new Move(null, null, null);
+    
+    private final S3Client s3Client;
+    private final KeyLayout keyLayout;
+    private final CopyVerifier copyVerifier;
+    private final int batchSize;
+    private final int copyConcurrency;
+    private final int deleteConcurrency;
+    private final int queueCapacity;
+    private final boolean jfrEvents;
+    
+    public MovePipeline(S3Client s3Client, KeyLayout keyLayout, CopyVerifier copyVerifier, AppConfig config) {
+        this.s3Client = s3Client;
+        this.keyLayout = keyLayout;
+        this.copyVerifier = copyVerifier;
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.copyConcurrency = Math.max(1, config.getMovePipelineCopyConcurrency());
+        this.deleteConcurrency = Math.max(1, config.getMovePipelineDeleteConcurrency());
+        this.queueCapacity = Math.max(1, config.getMovePipelineQueueCapacity());
+        this.jfrEvents = config.isJfrEventsEnabled();
+    }
+    
+    public MoveResult move(String bucketName, String sourcePrefix, String destPrefix,
+                           String startAfter, int firstBatchNumber, long deadlineMillis) {
+        return move(bucketName, sourcePrefix, destPrefix, startAfter, firstBatchNumber, deadlineMillis, key -> true, batchSize, null);
+    }
+    
+    /**
+     * Move only the listed files whose keys pass keyFilter, in batches of the given size. A handed-off
+     * listing, sorted by key, is queued first; the prefix is then only listed after its last key.
+     */
+    public MoveResult move(String bucketName, String sourcePrefix, String destPrefix, String startAfter,
+                           int firstBatchNumber, long deadlineMillis, Predicate<String> keyFilter, int batchSize,
+                           List<S3Object> handoff) {
+        Run run = new Run(bucketName, sourcePrefix, destPrefix, startAfter, firstBatchNumber, deadlineMillis,
+                keyFilter, Math.max(1, batchSize), handoff);
+        long start = System.nanoTime();
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2 + copyConcurrency + deleteConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "s3-move-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            CountDownLatch copiesDone = new CountDownLatch(copyConcurrency);
+            workers.add(executor.submit(run::list));
+            for (int i = 0; i < copyConcurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    try {
+                        run.copy();
+                    } finally {
+                        copiesDone.countDown();
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < deleteConcurrency; i++) {
+                workers.add(executor.submit(run::delete));
+            }
+            // Close the delete queue once every copy worker has finished
+            workers.add(executor.submit(() -> {
+                copiesDone.await();
+                for (int i = 0; i < deleteConcurrency; i++) {
+                    run.deleteQueue.put(END);
+                }
+                return null;
+            }));
+            
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            run.failure.compareAndSet(null, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.failure.compareAndSet(null, e);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        List<StageStats> stages = List.of(run.listStage.snapshot(), run.copyStage.snapshot(), run.deleteStage.snapshot());
+        logger.info("Move pipeline moved {} files into {} batches in {} ms: {}", run.movedFiles.get(),
+                   run.result.getBatchPrefixes().size(), (System.nanoTime() - start) / 1_000_000, stages);
+        if (run.failure.get() != null) {
+            for (BatchProgress batch : run.batches.values()) {
+                if (batch.pending.get() > 0) {
+                    BatchEvent.finish(batch.event, batch.files.get(), batch.bytes.get(), "FAILED");
+                }
+            }
+            throw new IllegalStateException("Move pipeline failed", run.failure.get());
+        }
+        
+        run.result.setMovedFiles(run.movedFiles.get());
+        run.result.setMovedBytes(run.batches.values().stream().mapToLong(batch -> batch.bytes.get()).sum());
+        run.result.setStageStats(stages);
+        run.result.getPhaseMillis().put("move", (System.nanoTime() - start) / 1_000_000);
+        return run.result;
+    }
+    
+    /**
+     * State of one pipeline run, shared by its stage workers
+     */
+    private class Run {
+        
+        private final String bucketName;
+        private final String sourcePrefix;
+        private final String destPrefix;
+        private final String startAfter;
+        private final int firstBatchNumber;
+        private final long deadlineMillis;
+        private final Predicate<String> keyFilter;
+        private final int batchSize;
+        private final List<S3Object> handoff;
+        
+        private final BlockingQueue<Move> copyQueue = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<Move> deleteQueue = new ArrayBlockingQueue<>(queueCapacity);
+        private final Stage listStage = new Stage("list", 1);
+        private final Stage copyStage = new Stage("copy", copyConcurrency);
+        private final Stage deleteStage = new Stage("delete", deleteConcurrency);
+        private final Map<String, BatchProgress> batches = new ConcurrentHashMap<>();
+        private final AtomicLong slowestBatchMillis = new AtomicLong();
+        private final AtomicInteger movedFiles = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final MoveResult result = new MoveResult();
+        
+        // Listing producer state
+        private long listed;
+        private String lastKey;
+        private int batchNumber;
+        private BatchProgress batch;
+        
+        Run(String bucketName, String sourcePrefix, String destPrefix, String startAfter, int firstBatchNumber,
+            long deadlineMillis, Predicate<String> keyFilter, int batchSize, List<S3Object> handoff) {
+            this.bucketName = bucketName;
+            this.sourcePrefix = sourcePrefix;
+            this.destPrefix = destPrefix;
+            this.startAfter = startAfter;
+            this.firstBatchNumber = firstBatchNumber;
+            this.deadlineMillis = deadlineMillis;
+            this.keyFilter = keyFilter;
+            this.batchSize = batchSize;
+            this.handoff = handoff;
+            this.lastKey = startAfter;
+            this.batchNumber = firstBatchNumber - 1;
+            result.setComplete(true);
+        }
+        
+        /**
+         * Listing producer: pages through the source prefix and queues one move per file
+         */
+        private Void list() throws InterruptedException {
+            try {
+                listFiles();
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                for (int i = 0; i < copyConcurrency; i++) {
+                    copyQueue.put(END);
+                }
+            }
+            return null;
+        }
+        
+        private void listFiles() throws InterruptedException {
+            String listAfter = startAfter;
+            if (handoff != null) {
+                for (S3Object object : handoff) {
+                    if (!offer(object)) {
+                        return;
+                    }
+                }
+                if (!handoff.isEmpty()) {
+                    listAfter = handoff.get(handoff.size() - 1).key();
+                }
+            }
+            
+            ListObjectsV2Request request = ListObjectsV2Request.builder()
+                    .bucket(bucketName)
+                    .prefix(sourcePrefix)
+                    .startAfter(listAfter)
+                    .build();
+            
+            ListObjectsV2Response response;
+            
+            do {
+                long pageStart = System.nanoTime();
+                response = s3Client.listObjectsV2(request);
+                listStage.busy(pageStart, 1);
+                
+                for (S3Object object : response.contents()) {
+                    if (!offer(object)) {
+                        return;
+                    }
+                }
+                
+                request = request.toBuilder()
+                        .continuationToken(response.nextContinuationToken())
+                        .build();
+            } while (response.isTruncated());
+            seal(batch);
+        }
+        
+        /**
+         * Queue one listed file into the current batch, opening the next batch when it is full.
+         * Returns false once the listing must stop, on a failure or at the time budget.
+         */
+        private boolean offer(S3Object object) throws InterruptedException {
+            if (failure.get() != null) {
+                return false;
+            }
+            if (object.key().endsWith("/") || !keyFilter.test(object.key())) {
+                return true; // Exclude directories and files of other lanes
+            }
+            
+            if (listed % batchSize == 0) {
+                if (listed > 0 && System.currentTimeMillis() + slowestBatchMillis.get() > deadlineMillis) {
+                    result.setComplete(false);
+                    result.setStartAfter(lastKey);
+                    result.setNextBatchNumber(batchNumber + 1);
+                    logger.info("Time budget reached after {} batches; resuming after {} at batch {}",
+                               result.getBatchPrefixes().size(), lastKey, batchNumber + 1);
+                    seal(batch);
+                    return false;
+                }
+                seal(batch);
+                batchNumber++;
+                batch = new BatchProgress(destPrefix + "batch-" + String.format("%03d", batchNumber) + "/", jfrEvents);
+                batches.put(batch.prefix, batch);
+                result.getBatchPrefixes().add(batch.prefix);
+            }
+            
+            String fileName = object.key().substring(object.key().lastIndexOf("/") + 1);
+            batch.pending.incrementAndGet();
+            batch.files.incrementAndGet();
+            batch.bytes.addAndGet(object.size() != null ? object.size() : 0L);
+            listStage.items.increment();
+            listStage.put(copyQueue, new Move(object.key(), keyLayout.destinationKey(batch.prefix, fileName), batch.prefix));
+            lastKey = object.key();
+            listed++;
+            return true;
+        }
+        
+        /**
+         * Copy stage: server-side copy of each queued file to its batch
+         */
+        private Void copy() throws InterruptedException {
+            while (true) {
+                Move move = copyStage.take(copyQueue);
+                if (move == END) {
+                    return null;
+                }
+                if (failure.get() != null) {
+                    continue; // Keep draining so the producer never blocks on a dead stage
+                }
+                
+                long copyStart = System.nanoTime();
+                try {
+                    if (copyVerifier != null) {
+                        copyVerifier.copy(bucketName, move.sourceKey, move.destKey);
+                    } else {
+                        s3Client.copyObject(CopyObjectRequest.builder()
+                                .sourceBucket(bucketName)
+                                .sourceKey(move.sourceKey)
+                                .destinationBucket(bucketName)
+                                .destinationKey(move.destKey)
+                                .build());
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    continue;
+                }
+                // A verified copy is a HEAD of each side around the copy
+                copyStage.busy(copyStart, copyVerifier != null ? 3 : 1);
+                copyStage.items.increment();
+                copyStage.put(deleteQueue, move);
+            }
+        }
+        
+        /**
+         * Delete stage: commits copied files by deleting their sources in bulk requests
+         */
+        private Void delete() throws InterruptedException {
+            List<Move> chunk = new ArrayList<>(MAX_DELETE_BATCH);
+            while (true) {
+                Move first = deleteStage.take(deleteQueue);
+                if (first == END) {
+                    return null;
+                }
+                chunk.add(first);
+                deleteQueue.drainTo(chunk, MAX_DELETE_BATCH - 1);
+                
+                // Hand back end markers meant for the other delete workers
+                int ends = (int) chunk.stream().filter(move -> move == END).count();
+                chunk.removeIf(move -> move == END);
+                
+                if (failure.get() == null && !chunk.isEmpty()) {
+                    try {
+                        deleteSources(chunk);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+                chunk.clear();
+                
+                if (ends > 0) {
+                    for (int i = 1; i < ends; i++) {
+                        deleteQueue.put(END);
+                    }
+                    return null;
+                }
+            }
+        }
+        
+        private void deleteSources(List<Move> moves) {
+            long deleteStart = System.nanoTime();
+            List<ObjectIdentifier> objects = moves.stream()
+                    .map(move -> ObjectIdentifier.builder().key(move.sourceKey).build())
+                    .collect(Collectors.toList());
+            DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
+                    .build());
+            if (response.hasErrors() && !response.errors().isEmpty()) {
+                throw new IllegalStateException("Failed to delete " + response.errors().size()
+                        + " source objects, first: " + response.errors().get(0).key());
+            }
+            deleteStage.busy(deleteStart, 1);
+            deleteStage.items.add(moves.size());
+            
+            movedFiles.addAndGet(moves.size());
+            for (Move move : moves) {
+                completed(batches.get(move.batchPrefix));
+            }
+        }
+        
+        /**
+         * The producer holds one count on a batch until it has listed all of its files
+         */
+        private void seal(BatchProgress batch) {
+            if (batch != null) {
+                completed(batch);
+            }
+        }
+        
+        private void completed(BatchProgress batch) {
+            if (batch.pending.decrementAndGet() == 0) {
+                long batchMillis = System.currentTimeMillis() - batch.startMillis;
+                slowestBatchMillis.accumulateAndGet(batchMillis, Math::max);
+                BatchEvent.finish(batch.event, batch.files.get(), batch.bytes.get(), "OK");
+            }
+        }
+    }
+    
+    private static class Move {
+        private final String sourceKey;
+        private final String destKey;
+        private final String batchPrefix;
+        
+        Move(String sourceKey, String destKey, String batchPrefix) {
+            this.sourceKey = sourceKey;
+            this.destKey = destKey;
+            this.batchPrefix = batchPrefix;
+        }
+    }
+    
+    private static class BatchProgress {
+        private final String prefix;
+        private final long startMillis = System.currentTimeMillis();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicInteger files = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+        // Begun by the producer and committed by whichever worker completes the batch
+        private final BatchEvent event;
+        
+        BatchProgress(String prefix, boolean jfrEvents) {
+            this.prefix = prefix;
+            this.event = BatchEvent.start(jfrEvents, "move", prefix);
+        }
+    }
+    
+    /**
+     * Counters of one stage, summed over its workers
+     */
+    private static class Stage {
+        private final String name;
+        private final int workers;
+        private final LongAdder items = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final LongAdder blockedNanos = new LongAdder();
+        private final LongAdder idleNanos = new LongAdder();
+        
+        Stage(String name, int workers) {
+            this.name = name;
+            this.workers = workers;
+        }
+        
+        void busy(long startNanos, int requestCount) {
+            busyNanos.add(System.nanoTime() - startNanos);
+            requests.add(requestCount);
+        }
+        
+        void put(BlockingQueue<Move> queue, Move move) throws InterruptedException {
+            long waitStart = System.nanoTime();
+            queue.put(move);
+            blockedNanos.add(System.nanoTime() - waitStart);
+        }
+        
+        Move take(BlockingQueue<Move> queue) throws InterruptedException {
+            long waitStart = System.nanoTime();
+            Move move = queue.take();
+            idleNanos.add(System.nanoTime() - waitStart);
+            return move;
+        }
+        
+        StageStats snapshot() {
+            return new StageStats(name, workers, items.sum(), requests.sum(), busyNanos.sum() / 1_000_000,
+                    blockedNanos.sum() / 1_000_000, idleNanos.sum() / 1_000_000);
+        }
+    }
+}
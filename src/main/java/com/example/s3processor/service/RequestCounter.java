@@ -0,0 +1,67 @@
+package com.example.s3processor.service;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SDK interceptor counting the API calls of every client in this JVM by operation, and the
+ * HTTP attempts made for them; attempts beyond one per call are SDK retries. A Lambda container
+ * serves one invocation at a time, so the difference between two readings taken at the start
+ * and end of an invocation is that invocation's own traffic.
+ */
+public class RequestCounter implements ExecutionInterceptor {
+    
+    private static final RequestCounter SHARED = new RequestCounter();
+    
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private final LongAdder attempts = new LongAdder();
+    
+    /**
+     * The counter registered on every client built through AwsClientOverrides
+     */
+    public static RequestCounter shared() {
+        return SHARED;
+    }
+    
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME));
+    }
+    
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        attempts.increment();
+    }
+    
+    /**
+     * Count a call made without an SDK client, such as one served by a local stand-in
+     */
+    public void recordCall(String operation) {
+        record(operation);
+        attempts.increment();
+    }
+    
+    private void record(String operation) {
+        calls.computeIfAbsent(operation != null ? operation : "Unknown", name -> new LongAdder()).increment();
+    }
+    
+    /**
+     * Calls by operation so far, in operation name order
+     */
+    public Map<String, Long> calls() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        calls.forEach((operation, count) -> snapshot.put(operation, count.sum()));
+        return snapshot;
+    }
+    
+    public long attempts() {
+        return attempts.sum();
+    }
+}
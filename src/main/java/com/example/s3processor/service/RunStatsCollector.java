@@ -0,0 +1,79 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.model.RunStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Collects the RunStats of one handler run. Phase times may be added from several threads.
+ * Request counts are the change in a RequestCounter over the run; pass null for runs that
+ * share their clients with concurrent runs, whose requests cannot be told apart.
+ */
+public class RunStatsCollector {
+    
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> phaseMillis = new LinkedHashMap<>();
+    private final RequestCounter requestCounter;
+    private final Map<String, Long> startCalls;
+    private final long startAttempts;
+    
+    public RunStatsCollector(RequestCounter requestCounter) {
+        this.requestCounter = requestCounter;
+        this.startCalls = requestCounter != null ? requestCounter.calls() : null;
+        this.startAttempts = requestCounter != null ? requestCounter.attempts() : 0L;
+    }
+    
+    /**
+     * Run work as the named phase and add its wall time to the phase
+     */
+    public <T> T phase(String name, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            addPhase(name, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+    
+    public synchronized void addPhase(String name, long millis) {
+        phaseMillis.merge(name, millis, Long::sum);
+    }
+    
+    public synchronized void addPhases(Map<String, Long> phases) {
+        if (phases != null) {
+            phases.forEach((name, millis) -> phaseMillis.merge(name, millis, Long::sum));
+        }
+    }
+    
+    /**
+     * Close the run with the files and bytes it handled
+     */
+    public synchronized RunStats finish(long files, long bytes) {
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        RunStats stats = new RunStats();
+        stats.setElapsedMillis(elapsedMillis);
+        stats.setPhaseMillis(new LinkedHashMap<>(phaseMillis));
+        stats.setFiles(files);
+        stats.setBytes(bytes);
+        double seconds = Math.max(1L, elapsedMillis) / 1000.0;
+        stats.setFilesPerSecond(files / seconds);
+        stats.setBytesPerSecond(bytes / seconds);
+        
+        if (requestCounter != null) {
+            Map<String, Long> requests = new LinkedHashMap<>();
+            long calls = 0;
+            for (Map.Entry<String, Long> entry : requestCounter.calls().entrySet()) {
+                long count = entry.getValue() - startCalls.getOrDefault(entry.getKey(), 0L);
+                if (count > 0) {
+                    requests.put(entry.getKey(), count);
+                    calls += count;
+                }
+            }
+            stats.setRequests(requests);
+            stats.setRetries(Math.max(0L, requestCounter.attempts() - startAttempts - calls));
+        }
+        return stats;
+    }
+}
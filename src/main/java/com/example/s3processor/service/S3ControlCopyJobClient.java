@@ -0,0 +1,100 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.model.CopyJobStatus;
+import software.amazon.awssdk.services.s3control.S3ControlClient;
+import software.amazon.awssdk.services.s3control.model.CreateJobRequest;
+import software.amazon.awssdk.services.s3control.model.DescribeJobRequest;
+import software.amazon.awssdk.services.s3control.model.JobDescriptor;
+import software.amazon.awssdk.services.s3control.model.JobManifest;
+import software.amazon.awssdk.services.s3control.model.JobManifestFieldName;
+import software.amazon.awssdk.services.s3control.model.JobManifestFormat;
+import software.amazon.awssdk.services.s3control.model.JobManifestLocation;
+import software.amazon.awssdk.services.s3control.model.JobManifestSpec;
+import software.amazon.awssdk.services.s3control.model.JobOperation;
+import software.amazon.awssdk.services.s3control.model.JobProgressSummary;
+import software.amazon.awssdk.services.s3control.model.JobReport;
+import software.amazon.awssdk.services.s3control.model.JobReportFormat;
+import software.amazon.awssdk.services.s3control.model.JobReportScope;
+import software.amazon.awssdk.services.s3control.model.S3CopyObjectOperation;
+
+/**
+ * CopyJobClient backed by S3 Batch Operations PutObjectCopy jobs
+ */
+public class S3ControlCopyJobClient implements CopyJobClient {
+    
+    private static final int JOB_PRIORITY = 10;
+    
+    private final S3ControlClient s3ControlClient;
+    private final String accountId;
+    private final String roleArn;
+    
+    public S3ControlCopyJobClient(AppConfig config) {
+        this(S3ControlClient.builder()
+                .region(config.getAwsRegion())
+                .overrideConfiguration(AwsClientOverrides.forConfig(config))
+                .build(), config.getAwsAccountId(), config.getBatchOperationsRoleArn());
+    }
+    
+    // Constructor for testing
+    public S3ControlCopyJobClient(S3ControlClient s3ControlClient, String accountId, String roleArn) {
+        this.s3ControlClient = s3ControlClient;
+        this.accountId = accountId;
+        this.roleArn = roleArn;
+    }
+    
+    @Override
+    public String submitCopyJob(String manifestBucket, String manifestKey, String manifestETag,
+                                String targetBucket, String targetKeyPrefix, String reportPrefix,
+                                String clientRequestToken) {
+        CreateJobRequest request = CreateJobRequest.builder()
+                .accountId(accountId)
+                .roleArn(roleArn)
+                .priority(JOB_PRIORITY)
+                .confirmationRequired(false)
+                .clientRequestToken(clientRequestToken)
+                .description("Batch copy to " + targetKeyPrefix)
+                .operation(JobOperation.builder()
+                        .s3PutObjectCopy(S3CopyObjectOperation.builder()
+                                .targetResource("arn:aws:s3:::" + targetBucket)
+                                .targetKeyPrefix(targetKeyPrefix)
+                                .build())
+                        .build())
+                .manifest(JobManifest.builder()
+                        .spec(JobManifestSpec.builder()
+                                .format(JobManifestFormat.S3_BATCH_OPERATIONS_CSV_20180820)
+                                .fields(JobManifestFieldName.BUCKET, JobManifestFieldName.KEY)
+                                .build())
+                        .location(JobManifestLocation.builder()
+                                .objectArn("arn:aws:s3:::" + manifestBucket + "/" + manifestKey)
+                                .eTag(manifestETag)
+                                .build())
+                        .build())
+                // Report every task, so the sources of the objects copied can be deleted
+                .report(JobReport.builder()
+                        .enabled(true)
+                        .bucket("arn:aws:s3:::" + manifestBucket)
+                        .prefix(reportPrefix.endsWith("/") ? reportPrefix.substring(0, reportPrefix.length() - 1) : reportPrefix)
+                        .format(JobReportFormat.REPORT_CSV_20180820)
+                        .reportScope(JobReportScope.ALL_TASKS)
+                        .build())
+                .build();
+        
+        return s3ControlClient.createJob(request).jobId();
+    }
+    
+    @Override
+    public CopyJobStatus describeJob(String jobId) {
+        DescribeJobRequest request = DescribeJobRequest.builder()
+                .accountId(accountId)
+                .jobId(jobId)
+                .build();
+        
+        JobDescriptor job = s3ControlClient.describeJob(request).job();
+        JobProgressSummary progress = job.progressSummary();
+        return new CopyJobStatus(jobId, job.statusAsString(),
+                progress != null && progress.totalNumberOfTasks() != null ? progress.totalNumberOfTasks() : 0L,
+                progress != null && progress.numberOfTasksSucceeded() != null ? progress.numberOfTasksSucceeded() : 0L,
+                progress != null && progress.numberOfTasksFailed() != null ? progress.numberOfTasksFailed() : 0L);
+    }
+}
@@ -1,15 +1,32 @@
 package com.example.s3processor.service;
 
 import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.config.PriorityLane;
+import com.example.s3processor.jfr.BatchEvent;
+import com.example.s3processor.model.BacklogSnapshot;
+import com.example.s3processor.model.CopyJobStatus;
+import com.example.s3processor.model.MoveResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -18,21 +35,78 @@ import java.util.stream.Collectors;
 public class S3Service {
     
     private static final Logger logger = LoggerFactory.getLogger(S3Service.class);
+    private static final int MAX_DELETE_BATCH = 1000;
     
     private final S3Client s3Client;
     private final AppConfig config;
+    private final KeyLayout keyLayout;
+    private final CopyJobClient copyJobClient;
+    private final CopyJobReports copyJobReports;
+    private final FileCompactor fileCompactor;
+    private final FileDeduplicator fileDeduplicator;
+    private final LogSampler batchProgressSampler;
+    private final CopyVerifier copyVerifier;
+    private final MovePipeline movePipeline;
+    private final TransferEngine transferEngine;
+    private final ListingSnapshotStore listingStore;
+    private final int listingHandoffMaxFiles;
+    private final boolean jfrEvents;
     
     public S3Service(AppConfig config) {
         this.config = config;
         this.s3Client = S3Client.builder()
                 .region(config.getAwsRegion())
+                .crossRegionAccessEnabled(!config.getTransferDestRegion().equals(config.getAwsRegion()))
+                .overrideConfiguration(AwsClientOverrides.forConfig(config))
                 .build();
+        this.keyLayout = KeyLayout.fromConfig(config);
+        this.copyJobClient = config.isBatchOperationsEnabled() ? new S3ControlCopyJobClient(config) : null;
+        this.copyJobReports = new CopyJobReports(s3Client, config.getBatchOperationsReportPrefix());
+        this.fileCompactor = config.isCompactionEnabled() ? new FileCompactor(s3Client, config) : null;
+        this.fileDeduplicator = config.isDedupEnabled() ? new FileDeduplicator(s3Client, config) : null;
+        this.batchProgressSampler = new LogSampler(config.getLogSampleIntervalMillis(), config.getLogSamplePermits());
+        this.copyVerifier = CopyVerifier.fromConfig(s3Client, config);
+        this.movePipeline = config.isMovePipelineEnabled() ? new MovePipeline(s3Client, keyLayout, copyVerifier, config) : null;
+        this.transferEngine = config.getTransferDestBucket().isEmpty() ? null : TransferEngine.fromConfig(config);
+        this.listingStore = new ListingSnapshotStore(s3Client, config.getMonitorStatePrefix());
+        this.listingHandoffMaxFiles = config.isListingHandoffEnabled() ? config.getListingHandoffMaxFiles() : 0;
+        this.jfrEvents = config.isJfrEventsEnabled();
     }
     
     // Constructor for testing
     public S3Service(S3Client s3Client, AppConfig config) {
+        this(s3Client, null, config);
+    }
+    
+    // Constructor for testing
+    public S3Service(S3Client s3Client, CopyJobClient copyJobClient, AppConfig config) {
+        this(s3Client, copyJobClient, null, config);
+    }
+    
+    // Constructor for testing
+    public S3Service(S3Client s3Client, CopyJobClient copyJobClient, TransferEngine transferEngine, AppConfig config) {
         this.s3Client = s3Client;
         this.config = config;
+        this.keyLayout = KeyLayout.fromConfig(config);
+        this.copyJobClient = copyJobClient;
+        this.copyJobReports = new CopyJobReports(s3Client, config.getBatchOperationsReportPrefix());
+        this.fileCompactor = config.isCompactionEnabled() ? new FileCompactor(s3Client, config) : null;
+        this.fileDeduplicator = config.isDedupEnabled() ? new FileDeduplicator(s3Client, config) : null;
+        this.batchProgressSampler = new LogSampler(config.getLogSampleIntervalMillis(), config.getLogSamplePermits());
+        this.copyVerifier = CopyVerifier.fromConfig(s3Client, config);
+        this.movePipeline = config.isMovePipelineEnabled() ? new MovePipeline(s3Client, keyLayout, copyVerifier, config) : null;
+        this.transferEngine = transferEngine;
+        this.listingStore = new ListingSnapshotStore(s3Client, config.getMonitorStatePrefix());
+        this.listingHandoffMaxFiles = config.isListingHandoffEnabled() ? config.getListingHandoffMaxFiles() : 0;
+        this.jfrEvents = config.isJfrEventsEnabled();
+    }
+    
+    /**
+     * Bucket the batches of bucketName are moved into: the transfer destination when one is
+     * configured, otherwise bucketName itself
+     */
+    public String getBatchBucketName(String bucketName) {
+        return transferEngine != null ? transferEngine.getDestBucket() : bucketName;
     }
     
     /**
@@ -67,36 +141,118 @@ public class S3Service {
         }
     }
     
+    /**
+     * Count files in a specific S3 prefix and, in the same listing pass, total their size,
+     * find the oldest one and fingerprint the backlog
+     */
+    public BacklogSnapshot snapshotFiles(String bucketName, String prefix) {
+        return snapshot(bucketName, prefix, List.of()).get(0);
+    }
+    
+    /**
+     * Snapshot every priority lane of a prefix and then the bulk lane, in one listing pass.
+     * Each file belongs to the first lane, in priority order, whose pattern matches it.
+     */
+    public List<BacklogSnapshot> snapshotLanes(String bucketName, String prefix, List<PriorityLane> lanes) {
+        return snapshot(bucketName, prefix, lanes);
+    }
+    
+    private List<BacklogSnapshot> snapshot(String bucketName, String prefix, List<PriorityLane> lanes) {
+        try {
+            ListObjectsV2Request request = ListObjectsV2Request.builder()
+                    .bucket(bucketName)
+                    .prefix(prefix)
+                    .build();
+            
+            // One accumulator per priority lane, then one for bulk
+            List<SnapshotBuilder> builders = new ArrayList<>(lanes.size() + 1);
+            for (int i = 0; i <= lanes.size(); i++) {
+                builders.add(new SnapshotBuilder(listingHandoffMaxFiles));
+            }
+            ListObjectsV2Response response;
+            
+            do {
+                response = s3Client.listObjectsV2(request);
+                for (S3Object obj : response.contents()) {
+                    if (obj.key().endsWith("/")) {
+                        continue; // Exclude directories
+                    }
+                    PriorityLane lane = lanes.isEmpty() ? null : PriorityLane.laneOf(lanes, obj.key().substring(prefix.length()));
+                    builders.get(lane != null ? lanes.indexOf(lane) : lanes.size()).add(obj);
+                }
+                
+                request = request.toBuilder()
+                        .continuationToken(response.nextContinuationToken())
+                        .build();
+            } while (response.isTruncated());
+            
+            List<BacklogSnapshot> snapshots = new ArrayList<>(builders.size());
+            for (int i = 0; i < lanes.size(); i++) {
+                snapshots.add(builders.get(i).build(bucketName, prefix, lanes.get(i).getName()));
+            }
+            snapshots.add(builders.get(lanes.size()).build(bucketName, prefix, lanes.isEmpty() ? null : PriorityLane.BULK));
+            return snapshots;
+            
+        } catch (Exception e) {
+            logger.error("Error snapshotting files in bucket: {} with prefix: {}", bucketName, prefix, e);
+            throw new RuntimeException("Failed to snapshot files in S3", e);
+        }
+    }
+    
+    /**
+     * Write the listing kept with a snapshot for the batching step and record its key on the
+     * snapshot; does nothing when listing hand-off is disabled or the backlog was too large
+     */
+    public void handOffListing(BacklogSnapshot snapshot) {
+        snapshot.setListingKey(listingStore.write(snapshot));
+    }
+    
     /**
      * List all files in a specific S3 prefix
      */
     public List<String> listFiles(String bucketName, String prefix) {
+        return listFileObjects(bucketName, prefix).stream()
+                .map(S3Object::key)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * List all files in a specific S3 prefix with their size and metadata, sorted by key
+     */
+    public List<S3Object> listFileObjects(String bucketName, String prefix) {
+        return listFileObjects(bucketName, prefix, null);
+    }
+    
+    /**
+     * List the files in a specific S3 prefix whose keys sort after startAfter (all files when null)
+     */
+    public List<S3Object> listFileObjects(String bucketName, String prefix, String startAfter) {
         try {
-            List<String> fileKeys = new ArrayList<>();
+            List<S3Object> files = new ArrayList<>();
             
             ListObjectsV2Request request = ListObjectsV2Request.builder()
                     .bucket(bucketName)
                     .prefix(prefix)
+                    .startAfter(startAfter)
                     .build();
             
             ListObjectsV2Response response;
             
             do {
                 response = s3Client.listObjectsV2(request);
-                List<String> keys = response.contents().stream()
-                        .map(S3Object::key)
-                        .filter(key -> !key.endsWith("/")) // Exclude directories
+                List<S3Object> objects = response.contents().stream()
+                        .filter(obj -> !obj.key().endsWith("/")) // Exclude directories
                         .collect(Collectors.toList());
                 
-                fileKeys.addAll(keys);
+                files.addAll(objects);
                 
                 request = request.toBuilder()
                         .continuationToken(response.nextContinuationToken())
                         .build();
             } while (response.isTruncated());
             
-            Collections.sort(fileKeys); // Sort for consistent batch ordering
-            return fileKeys;
+            files.sort(Comparator.comparing(S3Object::key)); // Sort for consistent batch ordering
+            return files;
             
         } catch (Exception e) {
             logger.error("Error listing files in bucket: {} with prefix: {}", bucketName, prefix, e);
@@ -105,52 +261,234 @@ public class S3Service {
     }
     
     /**
-     * Move files from source prefix to destination prefix in batches
+     * The handed-off listing followed by the files listed after its last key, or a full listing
+     * after startAfter when there is no hand-off
+     */
+    private List<S3Object> listFileObjects(String bucketName, String prefix, String startAfter, List<S3Object> handoff) {
+        if (handoff == null) {
+            return listFileObjects(bucketName, prefix, startAfter);
+        }
+        List<S3Object> files = new ArrayList<>(handoff);
+        files.addAll(listFileObjects(bucketName, prefix, handoff.isEmpty() ? null : handoff.get(handoff.size() - 1).key()));
+        return files;
+    }
+    
+    /**
+     * List all files of a logical batch prefix, whatever key layout it was written with
+     */
+    public List<String> listBatchFiles(String bucketName, String batchPrefix) {
+        return listBatchFileObjects(bucketName, batchPrefix).stream()
+                .map(S3Object::key)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * List all files of a logical batch prefix with their size and ETag, sorted by key. The index
+     * written next to a compacted object describes that object and is not a batch file itself.
+     */
+    public List<S3Object> listBatchFileObjects(String bucketName, String batchPrefix) {
+        List<String> listingPrefixes = keyLayout.listingPrefixes(batchPrefix);
+        List<S3Object> files = new ArrayList<>();
+        for (String listingPrefix : listingPrefixes) {
+            files.addAll(listFileObjects(bucketName, listingPrefix));
+        }
+        files.removeIf(file -> file.key().endsWith(FileCompactor.INDEX_SUFFIX));
+        if (listingPrefixes.size() > 1) {
+            files.sort(Comparator.comparing(S3Object::key));
+        }
+        return files;
+    }
+    
+    /**
+     * Move files from source prefix to destination prefix in batches.
+     * Returned batch prefixes are logical; read them back with listBatchFiles.
      */
     public List<String> moveFilesInBatches(String bucketName, String sourcePrefix, String destPrefix) {
+        return moveFiles(bucketName, sourcePrefix, destPrefix).getBatchPrefixes();
+    }
+    
+    /**
+     * Move files from source prefix to destination prefix in batches, first dropping
+     * duplicate files when deduplication is enabled
+     */
+    public MoveResult moveFiles(String bucketName, String sourcePrefix, String destPrefix) {
+        return moveFiles(bucketName, sourcePrefix, destPrefix, null, 1, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Move the files listed after startAfter into batches numbered from firstBatchNumber.
+     * Between batches, stops once the slowest batch so far would not finish before deadlineMillis;
+     * at least one batch is always moved. Deduplication and copy job submission stop at the
+     * deadline the same way. An incomplete result carries the continuation: every
+     * listed file up to its startAfter key has been moved or dropped, and later batches start
+     * at its nextBatchNumber.
+     */
+    public MoveResult moveFiles(String bucketName, String sourcePrefix, String destPrefix,
+                                String startAfter, int firstBatchNumber, long deadlineMillis) {
+        return moveFiles(bucketName, sourcePrefix, destPrefix, startAfter, firstBatchNumber, deadlineMillis, null);
+    }
+    
+    /**
+     * Move only the files of one priority lane, in batches of the lane's size. Files of other
+     * lanes are skipped, so the continuation covers the lane's own files only. A null or bulk
+     * lane moves the files no priority lane matches.
+     */
+    public MoveResult moveFiles(String bucketName, String sourcePrefix, String destPrefix,
+                                String startAfter, int firstBatchNumber, long deadlineMillis, String lane) {
+        return moveFiles(bucketName, sourcePrefix, destPrefix, startAfter, firstBatchNumber, deadlineMillis, lane, null);
+    }
+    
+    /**
+     * Move the files of one lane, starting from the monitor's listing of the backlog when listingKey
+     * names one and this is not a continuation. Only files sorting after the last handed-off key are
+     * listed; a file that arrived since with a key sorting before it waits for the next run.
+     */
+    public MoveResult moveFiles(String bucketName, String sourcePrefix, String destPrefix, String startAfter,
+                                int firstBatchNumber, long deadlineMillis, String lane, String listingKey) {
         try {
-            List<String> sourceFiles = listFiles(bucketName, sourcePrefix);
-            int batchSize = config.getBatchSize();
+            List<PriorityLane> lanes = config.getPriorityLanes();
+            PriorityLane priorityLane = PriorityLane.find(lanes, lane);
+            String laneName = priorityLane != null ? priorityLane.getName() : null;
+            Predicate<String> inLane = lanes.isEmpty()
+                    ? key -> true
+                    : key -> {
+                        PriorityLane keyLane = PriorityLane.laneOf(lanes, key.substring(sourcePrefix.length()));
+                        return Objects.equals(keyLane != null ? keyLane.getName() : null, laneName);
+                    };
+            int batchSize = priorityLane != null ? priorityLane.getBatchSize() : config.getBatchSize();
+            // A continuation lists from its own startAfter key, past the handed-off listing
+            List<S3Object> handoff = listingKey != null && startAfter == null ? listingStore.take(bucketName, listingKey) : null;
+            
+            // Dedup, compaction and copy jobs plan over the whole listing, so they keep the sequential move,
+            // as do cross-bucket transfers, which copy each batch in parallel instead
+            if (movePipeline != null && transferEngine == null && fileDeduplicator == null && fileCompactor == null
+                    && copyJobClient == null) {
+                return movePipeline.move(bucketName, sourcePrefix, destPrefix, startAfter, firstBatchNumber,
+                        deadlineMillis, inLane, batchSize, handoff);
+            }
+            
+            long phaseStart = System.nanoTime();
+            List<S3Object> listedObjects = listFileObjects(bucketName, sourcePrefix, startAfter, handoff).stream()
+                    .filter(object -> inLane.test(object.key()))
+                    .collect(Collectors.toList());
+            List<S3Object> sourceObjects = listedObjects;
             List<String> batchPrefixes = new ArrayList<>();
+            MoveResult result = new MoveResult();
+            phaseStart = endPhase(result, "list", phaseStart);
+            result.setBatchPrefixes(batchPrefixes);
+            result.setComplete(true);
+            Set<String> handledKeys = new HashSet<>();
+            boolean allCompared = true;
             
-            logger.info("Moving {} files from {} to {} in batches of {}", 
-                       sourceFiles.size(), sourcePrefix, destPrefix, batchSize);
+            if (fileDeduplicator != null) {
+                FileDeduplicator.Result dedup = fileDeduplicator.deduplicate(bucketName, sourcePrefix, sourceObjects,
+                        deadlineMillis);
+                if (!dedup.getDuplicateKeys().isEmpty()) {
+                    // Record the report before deleting, so every dropped file stays accounted for
+                    result.setDuplicateReportKey(fileDeduplicator.writeReport(bucketName, dedup.getReport()));
+                    deleteObjects(bucketName, dedup.getDuplicateKeys());
+                    result.setDuplicateFiles(dedup.getDuplicateKeys().size());
+                    handledKeys.addAll(dedup.getDuplicateKeys());
+                }
+                sourceObjects = dedup.getUniqueObjects();
+                // Files left uncompared at the time budget are moved by the next invocation
+                allCompared = dedup.isComplete();
+                phaseStart = endPhase(result, "dedupe", phaseStart);
+            }
+            result.setMovedFiles(sourceObjects.size());
+            
+            if (transferEngine == null && shouldUseCopyJobs(sourceObjects.size())) {
+                List<String> sourceFiles = sourceObjects.stream().map(S3Object::key).collect(Collectors.toList());
+                int submitted = submitCopyJobs(bucketName, sourceFiles, destPrefix, firstBatchNumber, deadlineMillis,
+                        handledKeys, result);
+                result.setMovedFiles(submitted);
+                result.setMovedBytes(sourceObjects.subList(0, submitted).stream()
+                        .mapToLong(object -> object.size() != null ? object.size() : 0L).sum());
+                if (submitted < sourceFiles.size() || !allCompared) {
+                    pause(result, firstBatchNumber + result.getBatchPrefixes().size(),
+                            lastHandledKey(listedObjects, handledKeys, startAfter));
+                }
+                endPhase(result, "copyJobs", phaseStart);
+                return result;
+            }
+            
+            // Each unit is one file to move, or a run of small files to compact into one object
+            List<List<S3Object>> units = fileCompactor != null && transferEngine == null
+                    ? fileCompactor.planUnits(sourceObjects)
+                    : sourceObjects.stream().map(List::of).collect(Collectors.toList());
             
-            for (int i = 0; i < sourceFiles.size(); i += batchSize) {
-                int endIndex = Math.min(i + batchSize, sourceFiles.size());
-                List<String> batch = sourceFiles.subList(i, endIndex);
+            logger.info("Moving {} files as {} units from {} to {} in batches of {}", 
+                       sourceObjects.size(), units.size(), sourcePrefix, destPrefix, batchSize);
+            
+            int movedFiles = 0;
+            long movedBytes = 0;
+            long slowestBatchMillis = 0;
+            for (int i = 0; i < units.size(); i += batchSize) {
+                int batchNumber = firstBatchNumber + i / batchSize;
+                if (i > 0 && System.currentTimeMillis() + slowestBatchMillis > deadlineMillis) {
+                    pause(result, batchNumber, lastHandledKey(listedObjects, handledKeys, startAfter));
+                    break;
+                }
+                long batchStart = System.currentTimeMillis();
+                
+                int endIndex = Math.min(i + batchSize, units.size());
+                List<List<S3Object>> batch = units.subList(i, endIndex);
                 
-                String batchNumber = String.format("%03d", (i / batchSize) + 1);
-                String batchPrefix = destPrefix + "batch-" + batchNumber + "/";
+                String batchLabel = String.format("%03d", batchNumber);
+                String batchPrefix = destPrefix + "batch-" + batchLabel + "/";
                 batchPrefixes.add(batchPrefix);
                 
                 // Move files in this batch
-                for (String sourceKey : batch) {
-                    String fileName = sourceKey.substring(sourceKey.lastIndexOf("/") + 1);
-                    String destKey = batchPrefix + fileName;
-                    
-                    // Copy file to new location
-                    CopyObjectRequest copyRequest = CopyObjectRequest.builder()
-                            .copySource(bucketName + "/" + sourceKey)
-                            .destinationBucket(bucketName)
-                            .destinationKey(destKey)
-                            .build();
-                    
-                    s3Client.copyObject(copyRequest);
-                    
-                    // Delete original file
-                    DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
-                            .bucket(bucketName)
-                            .key(sourceKey)
-                            .build();
-                    
-                    s3Client.deleteObject(deleteRequest);
+                BatchEvent batchEvent = BatchEvent.start(jfrEvents, "move", batchPrefix);
+                int batchFiles = 0;
+                long batchBytes = 0;
+                String outcome = "FAILED";
+                try {
+                    if (transferEngine != null) {
+                        batchFiles = transferBatch(bucketName, batch, batchPrefix, handledKeys);
+                        batchBytes = batch.stream().mapToLong(unit -> unit.get(0).size() != null ? unit.get(0).size() : 0L).sum();
+                    } else {
+                        for (List<S3Object> unit : batch) {
+                            if (unit.size() == 1) {
+                                String sourceKey = unit.get(0).key();
+                                String fileName = sourceKey.substring(sourceKey.lastIndexOf("/") + 1);
+                                moveObject(bucketName, sourceKey, keyLayout.destinationKey(batchPrefix, fileName));
+                            } else {
+                                String compactedName = "compacted-" + UUID.randomUUID() + ".dat";
+                                fileCompactor.compact(bucketName, unit, keyLayout.destinationKey(batchPrefix, compactedName));
+                                deleteObjects(bucketName, unit.stream().map(S3Object::key).collect(Collectors.toList()));
+                            }
+                            for (S3Object file : unit) {
+                                handledKeys.add(file.key());
+                                batchBytes += file.size() != null ? file.size() : 0L;
+                            }
+                            batchFiles += unit.size();
+                        }
+                    }
+                    outcome = "OK";
+                } finally {
+                    BatchEvent.finish(batchEvent, batchFiles, batchBytes, outcome);
                 }
+                movedFiles += batchFiles;
+                movedBytes += batchBytes;
                 
-                logger.info("Moved batch {} with {} files to {}", batchNumber, batch.size(), batchPrefix);
+                slowestBatchMillis = Math.max(slowestBatchMillis, System.currentTimeMillis() - batchStart);
+                long suppressed = batchProgressSampler.acquire();
+                if (suppressed >= 0) {
+                    logger.info("Moved batch {} with {} units to {} ({} earlier batch messages suppressed)",
+                               batchLabel, batch.size(), batchPrefix, suppressed);
+                }
+            }
+            
+            if (result.isComplete() && !allCompared) {
+                pause(result, firstBatchNumber + batchPrefixes.size(), lastHandledKey(listedObjects, handledKeys, startAfter));
             }
             
-            return batchPrefixes;
+            result.setMovedFiles(movedFiles);
+            result.setMovedBytes(movedBytes);
+            endPhase(result, "move", phaseStart);
+            logger.info("Moved {} units into {} batches under {}", units.size(), batchPrefixes.size(), destPrefix);
+            return result;
             
         } catch (Exception e) {
             logger.error("Error moving files from {} to {}", sourcePrefix, destPrefix, e);
@@ -158,6 +496,242 @@ public class S3Service {
         }
     }
     
+    /**
+     * Copy one batch into the transfer destination bucket in parallel, then delete the sources of
+     * the copies that completed in bulk. Fails when any copy failed, leaving its source in place.
+     */
+    private int transferBatch(String bucketName, List<List<S3Object>> batch, String batchPrefix, Set<String> handledKeys) {
+        Map<String, String> destKeys = new LinkedHashMap<>();
+        for (List<S3Object> unit : batch) {
+            String sourceKey = unit.get(0).key();
+            destKeys.put(sourceKey, keyLayout.destinationKey(batchPrefix, sourceKey.substring(sourceKey.lastIndexOf("/") + 1)));
+        }
+        List<String> copied = transferEngine.copyAll(bucketName, destKeys);
+        deleteObjects(bucketName, copied);
+        handledKeys.addAll(copied);
+        if (copied.size() < destKeys.size()) {
+            throw new IllegalStateException("Transfer failed for " + (destKeys.size() - copied.size()) + " of "
+                    + destKeys.size() + " files of " + batchPrefix);
+        }
+        return copied.size();
+    }
+    
+    /**
+     * Record the time since phaseStart as the named phase and return the start of the next phase
+     */
+    private static long endPhase(MoveResult result, String phase, long phaseStart) {
+        long now = System.nanoTime();
+        result.getPhaseMillis().merge(phase, (now - phaseStart) / 1_000_000, Long::sum);
+        return now;
+    }
+    
+    /**
+     * Mark the result incomplete at the time budget, to resume after startAfter at nextBatchNumber
+     */
+    private static void pause(MoveResult result, int nextBatchNumber, String startAfter) {
+        result.setComplete(false);
+        result.setNextBatchNumber(nextBatchNumber);
+        result.setStartAfter(startAfter);
+        logger.info("Time budget reached after {} batches; resuming after {} at batch {}",
+                   result.getBatchPrefixes().size(), startAfter, nextBatchNumber);
+    }
+    
+    /**
+     * Last key of the sorted listing up to which every file was moved or dropped. Compacted runs
+     * may be moved out of key order, so a moved file past a gap is not counted; it has already
+     * left the source prefix and is not listed again.
+     */
+    private static String lastHandledKey(List<S3Object> listedObjects, Set<String> handledKeys, String startAfter) {
+        String lastKey = startAfter;
+        for (S3Object object : listedObjects) {
+            if (!handledKeys.contains(object.key())) {
+                break;
+            }
+            lastKey = object.key();
+        }
+        return lastKey;
+    }
+    
+    /**
+     * Copy one object to its destination key, verifying the copy when configured, then delete the original
+     */
+    private void moveObject(String bucketName, String sourceKey, String destKey) {
+        // Copy file to new location
+        if (copyVerifier != null) {
+            copyVerifier.copy(bucketName, sourceKey, destKey);
+        } else {
+            CopyObjectRequest copyRequest = CopyObjectRequest.builder()
+                    .sourceBucket(bucketName)
+                    .sourceKey(sourceKey)
+                    .destinationBucket(bucketName)
+                    .destinationKey(destKey)
+                    .build();
+            
+            s3Client.copyObject(copyRequest);
+        }
+        
+        // Delete original file
+        DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
+                .bucket(bucketName)
+                .key(sourceKey)
+                .build();
+        
+        s3Client.deleteObject(deleteRequest);
+    }
+    
+    private boolean shouldUseCopyJobs(int fileCount) {
+        int threshold = config.getBatchOperationsThreshold();
+        return copyJobClient != null && threshold > 0 && fileCount >= threshold;
+    }
+    
+    /**
+     * Start moving files with server-side copy jobs instead of per-object copy calls, in batches of
+     * batchops.batch.size files. One CSV manifest and job is submitted per physical batch prefix;
+     * S3 Batch Operations places each object at that prefix + its source key. The jobs run on after
+     * this returns: the result carries their IDs, and completeCopyJobs deletes the sources once
+     * they have ended. Between batches, stops submitting once the slowest submission so far would
+     * not finish before deadlineMillis, and returns the number of files submitted.
+     */
+    private int submitCopyJobs(String bucketName, List<String> sourceFiles, String destPrefix, int firstBatchNumber,
+                               long deadlineMillis, Set<String> handledKeys, MoveResult result) {
+        int batchSize = Math.max(1, config.getBatchOperationsBatchSize());
+        List<String> batchPrefixes = new ArrayList<>();
+        List<String> jobIds = new ArrayList<>();
+        int submitted = 0;
+        long slowestBatchMillis = 0;
+        
+        for (int i = 0; i < sourceFiles.size(); i += batchSize) {
+            if (i > 0 && System.currentTimeMillis() + slowestBatchMillis > deadlineMillis) {
+                break;
+            }
+            long batchStart = System.currentTimeMillis();
+            List<String> batch = sourceFiles.subList(i, Math.min(i + batchSize, sourceFiles.size()));
+            String batchPrefix = destPrefix + "batch-" + String.format("%03d", firstBatchNumber + i / batchSize) + "/";
+            batchPrefixes.add(batchPrefix);
+            
+            Map<String, List<String>> sourcesByTargetPrefix = new LinkedHashMap<>();
+            for (String sourceKey : batch) {
+                String fileName = sourceKey.substring(sourceKey.lastIndexOf("/") + 1);
+                sourcesByTargetPrefix
+                        .computeIfAbsent(keyLayout.physicalPrefix(batchPrefix, fileName), prefix -> new ArrayList<>())
+                        .add(sourceKey);
+            }
+            for (Map.Entry<String, List<String>> entry : sourcesByTargetPrefix.entrySet()) {
+                jobIds.add(submitCopyJob(bucketName, entry.getKey(), entry.getValue()));
+            }
+            handledKeys.addAll(batch);
+            submitted += batch.size();
+            slowestBatchMillis = Math.max(slowestBatchMillis, System.currentTimeMillis() - batchStart);
+        }
+        
+        logger.info("Submitted {} copy jobs for {} of {} files in {} batches",
+                   jobIds.size(), submitted, sourceFiles.size(), batchPrefixes.size());
+        result.setBatchPrefixes(batchPrefixes);
+        result.setCopyJobIds(jobIds);
+        return submitted;
+    }
+    
+    private String submitCopyJob(String bucketName, String targetPrefix, List<String> sourceKeys) {
+        StringBuilder manifest = new StringBuilder();
+        for (String sourceKey : sourceKeys) {
+            // CSV manifests require URL-encoded keys
+            manifest.append(bucketName).append(',')
+                    .append(URLEncoder.encode(sourceKey, StandardCharsets.UTF_8).replace("+", "%20"))
+                    .append('\n');
+        }
+        
+        // Derived from the manifest, so a retried submission of the same files resolves to the same job
+        String token = UUID.nameUUIDFromBytes((targetPrefix + "\n" + manifest).getBytes(StandardCharsets.UTF_8)).toString();
+        String manifestKey = config.getBatchOperationsManifestPrefix() + token + ".csv";
+        PutObjectResponse manifestResponse = s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(manifestKey)
+                        .contentType("text/csv")
+                        .build(),
+                RequestBody.fromString(manifest.toString(), StandardCharsets.UTF_8));
+        
+        // Batch Operations appends "/" + source key to the target prefix
+        String targetKeyPrefix = targetPrefix.endsWith("/") ? targetPrefix.substring(0, targetPrefix.length() - 1) : targetPrefix;
+        String jobId = copyJobClient.submitCopyJob(bucketName, manifestKey, manifestResponse.eTag().replace("\"", ""),
+                bucketName, targetKeyPrefix, copyJobReports.getReportPrefix(), token);
+        
+        logger.info("Submitted copy job {} for {} files to {}", jobId, sourceKeys.size(), targetPrefix);
+        return jobId;
+    }
+    
+    /**
+     * Check the copy jobs a moveFiles call submitted. While any of them is still running, the
+     * result carries the job IDs again. Once all have ended, the sources that each job's completion
+     * report lists as copied are deleted; the sources of failed copies stay for the next run.
+     */
+    public MoveResult completeCopyJobs(String bucketName, List<String> jobIds, List<String> batchPrefixes) {
+        try {
+            if (copyJobClient == null) {
+                throw new IllegalStateException("Copy jobs are not enabled");
+            }
+            long phaseStart = System.nanoTime();
+            MoveResult result = new MoveResult();
+            result.setBatchPrefixes(batchPrefixes);
+            result.setComplete(true);
+            
+            List<CopyJobStatus> statuses = new ArrayList<>(jobIds.size());
+            for (String jobId : jobIds) {
+                CopyJobStatus status = copyJobClient.describeJob(jobId);
+                if (!status.isTerminal()) {
+                    logger.info("Copy job {} is {}: {} of {} objects copied", jobId, status.getStatus(),
+                               status.getSucceededTasks(), status.getTotalTasks());
+                    result.setCopyJobIds(jobIds);
+                    endPhase(result, "copyJobs", phaseStart);
+                    return result;
+                }
+                statuses.add(status);
+            }
+            phaseStart = endPhase(result, "copyJobs", phaseStart);
+            
+            int copiedFiles = 0;
+            for (CopyJobStatus status : statuses) {
+                if (!status.isSuccessful()) {
+                    logger.warn("Copy job did not copy every object; their sources stay pending: {}", status);
+                }
+                List<String> copiedKeys = copyJobReports.succeededKeys(bucketName, status.getJobId());
+                deleteObjects(bucketName, copiedKeys);
+                copiedFiles += copiedKeys.size();
+            }
+            if (copiedFiles == 0) {
+                throw new IllegalStateException("Copy jobs copied no objects: " + statuses);
+            }
+            result.setMovedFiles(copiedFiles);
+            endPhase(result, "deleteSources", phaseStart);
+            logger.info("Copy jobs moved {} files into {} batches", copiedFiles, batchPrefixes.size());
+            return result;
+            
+        } catch (Exception e) {
+            logger.error("Error completing copy jobs {}", jobIds, e);
+            throw new RuntimeException("Failed to complete copy jobs", e);
+        }
+    }
+    
+    /**
+     * Delete objects with multi-object delete requests of up to 1000 keys
+     */
+    private void deleteObjects(String bucketName, List<String> keys) {
+        for (int i = 0; i < keys.size(); i += MAX_DELETE_BATCH) {
+            List<ObjectIdentifier> objects = keys.subList(i, Math.min(i + MAX_DELETE_BATCH, keys.size())).stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .collect(Collectors.toList());
+            
+            DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
+                    .build());
+            
+            if (response.hasErrors() && !response.errors().isEmpty()) {
+                throw new IllegalStateException("Failed to delete " + response.errors().size()
+                        + " source objects, first: " + response.errors().get(0).key());
+            }
+        }
+    }
+    
     /**
      * Check if a file is empty
      */
@@ -172,8 +746,8 @@ public class S3Service {
             return response.contentLength() == 0;
             
         } catch (Exception e) {
-            logger.error("Error checking if file is empty: {}", key, e);
-            throw new RuntimeException("Failed to check file size", e);
+            // Not logged here: callers summarise per-file failures per batch
+            throw new RuntimeException("Failed to check file size: " + key, e);
         }
     }
     
@@ -223,4 +797,50 @@ public class S3Service {
             throw new RuntimeException("Failed to create bucket", e);
         }
     }
+    
+    /**
+     * Count, size, age and fingerprint of one backlog, accumulated over a sorted listing
+     */
+    private static class SnapshotBuilder {
+        
+        private final MessageDigest digest;
+        private final int maxListing;
+        private List<S3Object> listing;
+        private long count;
+        private long totalBytes;
+        private long oldestLastModified = Long.MAX_VALUE;
+        
+        SnapshotBuilder(int maxListing) throws Exception {
+            this.digest = MessageDigest.getInstance("SHA-256");
+            this.maxListing = maxListing;
+            this.listing = maxListing > 0 ? new ArrayList<>() : null;
+        }
+        
+        void add(S3Object obj) {
+            if (listing != null && listing.size() >= maxListing) {
+                // Too large to hand off; batching lists this backlog itself
+                listing = null;
+            }
+            if (listing != null) {
+                listing.add(obj);
+            }
+            long size = obj.size() != null ? obj.size() : 0L;
+            long lastModified = obj.lastModified() != null ? obj.lastModified().toEpochMilli() : 0L;
+            count++;
+            totalBytes += size;
+            oldestLastModified = Math.min(oldestLastModified, lastModified);
+            // Keys arrive in lexicographic order, so the digest is stable across listings
+            String entry = obj.key() + "|" + size + "|" + lastModified + "\n";
+            digest.update(entry.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        BacklogSnapshot build(String bucketName, String prefix, String lane) {
+            BacklogSnapshot snapshot = new BacklogSnapshot(bucketName, prefix, count, HexFormat.of().formatHex(digest.digest()));
+            snapshot.setTotalBytes(totalBytes);
+            snapshot.setOldestLastModified(count > 0 ? oldestLastModified : 0L);
+            snapshot.setLane(lane);
+            snapshot.setListing(listing);
+            return snapshot;
+        }
+    }
 }
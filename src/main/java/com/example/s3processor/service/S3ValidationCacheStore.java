@@ -0,0 +1,68 @@
+package com.example.s3processor.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * ValidationCacheStore keeping one JSON object per batch under a cache prefix of the batch's bucket
+ */
+public class S3ValidationCacheStore implements ValidationCacheStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(S3ValidationCacheStore.class);
+    private static final TypeReference<Map<String, Boolean>> VERDICTS_TYPE = new TypeReference<>() {};
+    
+    private final S3Client s3Client;
+    private final String cachePrefix;
+    private final ObjectMapper objectMapper;
+    
+    public S3ValidationCacheStore(S3Client s3Client, String cachePrefix) {
+        this.s3Client = s3Client;
+        this.cachePrefix = cachePrefix;
+        this.objectMapper = new ObjectMapper();
+    }
+    
+    @Override
+    public Map<String, Boolean> load(String bucketName, String batchPrefix) {
+        try {
+            byte[] content = s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(cacheKey(batchPrefix))
+                    .build()).asByteArray();
+            return objectMapper.readValue(content, VERDICTS_TYPE);
+        } catch (NoSuchKeyException e) {
+            return Map.of();
+        } catch (Exception e) {
+            // The cache is an optimisation; a missing or unreadable entry means revalidating
+            logger.warn("Unable to read validation cache for {}", batchPrefix, e);
+            return Map.of();
+        }
+    }
+    
+    @Override
+    public void save(String bucketName, String batchPrefix, Map<String, Boolean> verdicts) {
+        try {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(cacheKey(batchPrefix))
+                            .contentType("application/json")
+                            .build(),
+                    RequestBody.fromString(objectMapper.writeValueAsString(verdicts), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            logger.warn("Unable to write validation cache for {}", batchPrefix, e);
+        }
+    }
+    
+    private String cacheKey(String batchPrefix) {
+        return cachePrefix + batchPrefix + "verdicts.json";
+    }
+}
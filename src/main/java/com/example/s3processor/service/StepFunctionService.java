@@ -1,18 +1,38 @@
 package com.example.s3processor.service;
 
 import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.config.PriorityLane;
+import com.example.s3processor.model.BacklogSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.sfn.SfnClient;
+import software.amazon.awssdk.services.sfn.model.DescribeExecutionRequest;
+import software.amazon.awssdk.services.sfn.model.ExecutionAlreadyExistsException;
+import software.amazon.awssdk.services.sfn.model.ExecutionListItem;
+import software.amazon.awssdk.services.sfn.model.ExecutionStatus;
+import software.amazon.awssdk.services.sfn.model.ListExecutionsRequest;
+import software.amazon.awssdk.services.sfn.model.ListExecutionsResponse;
 import software.amazon.awssdk.services.sfn.model.ListStateMachinesRequest;
 import software.amazon.awssdk.services.sfn.model.ListStateMachinesResponse;
+import software.amazon.awssdk.services.sfn.model.SfnException;
 import software.amazon.awssdk.services.sfn.model.StartExecutionRequest;
 import software.amazon.awssdk.services.sfn.model.StartExecutionResponse;
 import software.amazon.awssdk.services.sfn.model.StateMachineListItem;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
 
 /**
  * Service for Step Functions operations
@@ -20,10 +40,13 @@ import java.util.Map;
 public class StepFunctionService {
     
     private static final Logger logger = LoggerFactory.getLogger(StepFunctionService.class);
+    private static final long RETRY_BASE_DELAY_MILLIS = 100;
+    private static final int MAX_BACKLOG_ATTEMPTS = 10;
     
     private final SfnClient stepFunctionsClient;
     private final AppConfig config;
     private final ObjectMapper objectMapper;
+    private final ExecutorService launchExecutor;
     private String fileProcessingStateMachineArn;
     private String fileValidationStateMachineArn;
     
@@ -31,8 +54,10 @@ public class StepFunctionService {
         this.config = config;
         this.stepFunctionsClient = SfnClient.builder()
                 .region(config.getAwsRegion())
+                .overrideConfiguration(AwsClientOverrides.forConfig(config))
                 .build();
         this.objectMapper = new ObjectMapper();
+        this.launchExecutor = createLaunchExecutor(config);
         // Initialize state machine ARNs
         initializeStateMachineArns();
     }
@@ -42,6 +67,7 @@ public class StepFunctionService {
         this.stepFunctionsClient = stepFunctionsClient;
         this.config = config;
         this.objectMapper = new ObjectMapper();
+        this.launchExecutor = createLaunchExecutor(config);
         // Initialize state machine ARNs
         initializeStateMachineArns();
     }
@@ -103,7 +129,7 @@ public class StepFunctionService {
             StartExecutionRequest request = StartExecutionRequest.builder()
                     .stateMachineArn(this.fileProcessingStateMachineArn)
                     .input(inputJson)
-                    .name("file-processing-" + System.currentTimeMillis())
+                    .name(uniqueExecutionName("file-processing-"))
                     .build();
             
             StartExecutionResponse response = stepFunctionsClient.startExecution(request);
@@ -118,57 +144,293 @@ public class StepFunctionService {
     }
     
     /**
-     * Start the file validation workflow
+     * Start the file processing workflow for a specific backlog snapshot.
+     * The execution name is derived from the snapshot fingerprint, so repeated
+     * triggers for the same backlog resolve to the same execution while it is running
+     * or once it has succeeded. An unchanged backlog whose execution failed, timed out or
+     * was aborted is started again under the name with an attempt suffix. A priority lane's
+     * snapshot starts a workflow that batches only that lane's files under its own prefix.
      */
-    public String startFileValidationWorkflow(String bucketName, String batchPrefix) {
+    public Launch startFileProcessingWorkflow(BacklogSnapshot snapshot) {
+        String baseName = processingExecutionName(snapshot);
         try {
+            PriorityLane lane = PriorityLane.find(config.getPriorityLanes(), snapshot.getLane());
+            
             // Prepare input for Step Function
             Map<String, Object> input = new HashMap<>();
-            input.put("bucketName", bucketName);
-            input.put("batchPrefix", batchPrefix);
-            input.put("timestamp", System.currentTimeMillis());
+            input.put("bucketName", snapshot.getBucketName());
+            input.put("sourcePrefix", snapshot.getPrefix());
+            input.put("destPrefix", lane != null ? lane.destPrefix(config.getProcessingPrefix()) : config.getProcessingPrefix());
+            input.put("batchSize", lane != null ? lane.getBatchSize() : config.getBatchSize());
+            input.put("lane", lane != null ? lane.getName() : PriorityLane.BULK);
+            input.put("snapshotFingerprint", snapshot.getFingerprint());
+            if (snapshot.getListingKey() != null) {
+                input.put("listingKey", snapshot.getListingKey());
+            }
+            input.put("timestamp", snapshot.getTimestamp());
             
             String inputJson = objectMapper.writeValueAsString(input);
             
-            // Start Step Function execution
-            StartExecutionRequest request = StartExecutionRequest.builder()
-                    .stateMachineArn(this.fileValidationStateMachineArn)
-                    .input(inputJson)
-                    .name("file-validation-" + System.currentTimeMillis())
+            Launch previous = null;
+            for (int attempt = 1; attempt <= MAX_BACKLOG_ATTEMPTS; attempt++) {
+                String executionName = attempt == 1 ? baseName : baseName + "-" + attempt;
+                StartExecutionRequest request = StartExecutionRequest.builder()
+                        .stateMachineArn(this.fileProcessingStateMachineArn)
+                        .input(inputJson)
+                        .name(executionName)
+                        .build();
+                
+                try {
+                    StartExecutionResponse response = stepFunctionsClient.startExecution(request);
+                    logger.info("Started Step Function execution: {}", response.executionArn());
+                    return new Launch(response.executionArn(), true, null);
+                    
+                } catch (ExecutionAlreadyExistsException e) {
+                    String executionArn = executionArn(this.fileProcessingStateMachineArn, executionName);
+                    ExecutionStatus status = stepFunctionsClient.describeExecution(DescribeExecutionRequest.builder()
+                            .executionArn(executionArn)
+                            .build()).status();
+                    previous = new Launch(executionArn, false, status.toString());
+                    if (status == ExecutionStatus.RUNNING || status == ExecutionStatus.SUCCEEDED) {
+                        logger.info("Backlog {} already has execution {} ({}), not starting another",
+                                   snapshot.getFingerprint(), executionArn, status);
+                        return previous;
+                    }
+                    logger.warn("Execution {} for backlog {} ended {}; starting it again",
+                               executionArn, snapshot.getFingerprint(), status);
+                }
+            }
+            
+            logger.error("Backlog {} did not complete in {} executions, not starting another",
+                        snapshot.getFingerprint(), MAX_BACKLOG_ATTEMPTS);
+            return previous;
+            
+        } catch (Exception e) {
+            logger.error("Error starting Step Function workflow", e);
+            throw new RuntimeException("Failed to start Step Function workflow", e);
+        }
+    }
+    
+    /**
+     * Check whether a file processing execution is currently running for a bucket and prefix
+     */
+    public boolean isFileProcessingWorkflowRunning(String bucketName, String sourcePrefix) {
+        return isFileProcessingWorkflowRunning(bucketName, sourcePrefix, null);
+    }
+    
+    /**
+     * Check whether a file processing execution is currently running for one lane of a bucket and prefix
+     */
+    public boolean isFileProcessingWorkflowRunning(String bucketName, String sourcePrefix, String lane) {
+        String namePrefix = processingExecutionNamePrefix(bucketName, sourcePrefix, lane);
+        try {
+            ListExecutionsRequest request = ListExecutionsRequest.builder()
+                    .stateMachineArn(this.fileProcessingStateMachineArn)
+                    .statusFilter(ExecutionStatus.RUNNING)
                     .build();
             
-            StartExecutionResponse response = stepFunctionsClient.startExecution(request);
+            ListExecutionsResponse response;
+            do {
+                response = stepFunctionsClient.listExecutions(request);
+                for (ExecutionListItem execution : response.executions()) {
+                    if (execution.name().startsWith(namePrefix)) {
+                        return true;
+                    }
+                }
+                
+                request = request.toBuilder()
+                        .nextToken(response.nextToken())
+                        .build();
+            } while (response.nextToken() != null);
             
-            logger.info("Started validation Step Function execution: {}", response.executionArn());
-            return response.executionArn();
+            return false;
             
+        } catch (Exception e) {
+            logger.error("Error listing running Step Function executions", e);
+            throw new RuntimeException("Failed to list running Step Function executions", e);
+        }
+    }
+    
+    /**
+     * Deterministic execution name for a backlog snapshot (Step Functions allows at most 80 characters).
+     * The name starts with a per-feed prefix so running executions can be matched to their feed.
+     */
+    static String processingExecutionName(BacklogSnapshot snapshot) {
+        return processingExecutionNamePrefix(snapshot.getBucketName(), snapshot.getPrefix(), snapshot.getLane())
+                + snapshot.getFingerprint().substring(0, 32);
+    }
+    
+    /**
+     * The bulk lane keeps the per-feed prefix used before priority lanes existed
+     */
+    private static String processingExecutionNamePrefix(String bucketName, String sourcePrefix, String lane) {
+        String feed = bucketName + "/" + sourcePrefix;
+        if (lane != null && !PriorityLane.BULK.equals(lane)) {
+            feed += "#" + lane;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(feed.getBytes(StandardCharsets.UTF_8));
+        return String.format("file-processing-%08x-", crc.getValue());
+    }
+    
+    private static String executionArn(String stateMachineArn, String executionName) {
+        return stateMachineArn.replace(":stateMachine:", ":execution:") + ":" + executionName;
+    }
+    
+    /**
+     * Start the file validation workflow
+     */
+    public String startFileValidationWorkflow(String bucketName, String batchPrefix) {
+        try {
+            String executionArn = startExecutionWithRetry(this.fileValidationStateMachineArn,
+                    "file-validation-", validationInput(bucketName, batchPrefix));
+            
+            logger.info("Started validation Step Function execution: {}", executionArn);
+            return executionArn;
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while starting validation Step Function workflow", e);
         } catch (Exception e) {
             logger.error("Error starting validation Step Function workflow", e);
             throw new RuntimeException("Failed to start validation Step Function workflow", e);
         }
     }
     
+    /**
+     * Start one file validation workflow per batch prefix, with at most
+     * stepfunctions.launch.concurrency launches in flight at a time.
+     * The returned future completes with the execution ARNs in batch order,
+     * or exceptionally if any launch failed after retries.
+     */
+    public CompletableFuture<List<String>> startFileValidationWorkflowsAsync(String bucketName, List<String> batchPrefixes) {
+        List<CompletableFuture<String>> launches = new ArrayList<>(batchPrefixes.size());
+        for (String batchPrefix : batchPrefixes) {
+            launches.add(CompletableFuture.supplyAsync(
+                    () -> startFileValidationWorkflow(bucketName, batchPrefix), launchExecutor));
+        }
+        
+        return CompletableFuture.allOf(launches.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<String> executionArns = new ArrayList<>(launches.size());
+                    for (CompletableFuture<String> launch : launches) {
+                        executionArns.add(launch.join());
+                    }
+                    logger.info("Started {} validation Step Function executions", executionArns.size());
+                    return executionArns;
+                });
+    }
+    
     /**
      * Start a batch processing workflow with custom parameters
      */
     public String startBatchProcessingWorkflow(Map<String, Object> parameters) {
         try {
             String inputJson = objectMapper.writeValueAsString(parameters);
+            String executionArn = startExecutionWithRetry(this.fileProcessingStateMachineArn,
+                    "batch-processing-", inputJson);
             
-            StartExecutionRequest request = StartExecutionRequest.builder()
-                    .stateMachineArn(this.fileProcessingStateMachineArn)
-                    .input(inputJson)
-                    .name("batch-processing-" + System.currentTimeMillis())
-                    .build();
-            
-            StartExecutionResponse response = stepFunctionsClient.startExecution(request);
-            
-            logger.info("Started batch processing Step Function execution: {}", response.executionArn());
-            return response.executionArn();
+            logger.info("Started batch processing Step Function execution: {}", executionArn);
+            return executionArn;
             
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while starting batch processing Step Function workflow", e);
         } catch (Exception e) {
             logger.error("Error starting batch processing Step Function workflow", e);
             throw new RuntimeException("Failed to start batch processing Step Function workflow", e);
         }
     }
+    
+    private String validationInput(String bucketName, String batchPrefix) throws JsonProcessingException {
+        Map<String, Object> input = new HashMap<>();
+        input.put("bucketName", bucketName);
+        input.put("batchPrefix", batchPrefix);
+        input.put("timestamp", System.currentTimeMillis());
+        return objectMapper.writeValueAsString(input);
+    }
+    
+    /**
+     * Start an execution under a fresh unique name, retrying name collisions and
+     * throttling with exponential backoff and full jitter. An interrupt during the
+     * backoff ends the retries and is rethrown to the caller.
+     */
+    private String startExecutionWithRetry(String stateMachineArn, String namePrefix, String inputJson)
+            throws InterruptedException {
+        int maxAttempts = Math.max(1, config.getWorkflowLaunchMaxAttempts());
+        
+        for (int attempt = 1; ; attempt++) {
+            StartExecutionRequest request = StartExecutionRequest.builder()
+                    .stateMachineArn(stateMachineArn)
+                    .input(inputJson)
+                    .name(uniqueExecutionName(namePrefix))
+                    .build();
+            
+            try {
+                return stepFunctionsClient.startExecution(request).executionArn();
+                
+            } catch (ExecutionAlreadyExistsException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.warn("Execution name {} already in use, retrying with a new name", request.name());
+                
+            } catch (SfnException e) {
+                if (!e.isThrottlingException() || attempt >= maxAttempts) {
+                    throw e;
+                }
+                long backoffMillis = ThreadLocalRandom.current()
+                        .nextLong(RETRY_BASE_DELAY_MILLIS << Math.min(attempt, 10));
+                logger.warn("StartExecution throttled (attempt {}/{}), retrying in {} ms",
+                           attempt, maxAttempts, backoffMillis);
+                Thread.sleep(backoffMillis);
+            }
+        }
+    }
+    
+    /**
+     * Outcome of starting a processing workflow for a backlog: the execution started, or the
+     * existing execution of the same backlog and its status when none was started
+     */
+    public static class Launch {
+        
+        private final String executionArn;
+        private final boolean started;
+        private final String existingStatus;
+        
+        public Launch(String executionArn, boolean started, String existingStatus) {
+            this.executionArn = executionArn;
+            this.started = started;
+            this.existingStatus = existingStatus;
+        }
+        
+        public String getExecutionArn() {
+            return executionArn;
+        }
+        
+        public boolean isStarted() {
+            return started;
+        }
+        
+        /**
+         * Status of the existing execution when none was started, e.g. RUNNING or SUCCEEDED
+         */
+        public String getExistingStatus() {
+            return existingStatus;
+        }
+    }
+    
+    private static String uniqueExecutionName(String namePrefix) {
+        return namePrefix + UUID.randomUUID();
+    }
+    
+    private static ExecutorService createLaunchExecutor(AppConfig config) {
+        int concurrency = Math.max(1, config.getWorkflowLaunchConcurrency());
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "sfn-launch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
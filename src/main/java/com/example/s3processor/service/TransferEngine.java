@@ -0,0 +1,88 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3CrtAsyncClientBuilder;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
+import software.amazon.awssdk.transfer.s3.model.CopyRequest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Moves batches into a destination bucket that may be in another account or region. Copies go
+ * through the S3 Transfer Manager on the CRT-based async client, which splits objects above the
+ * minimum part size into multipart copies, runs the parts of all objects of a batch in parallel
+ * and sizes its connection pool for the configured throughput target. Copies are server-side, so
+ * object data never passes through the Lambda.
+ */
+public class TransferEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransferEngine.class);
+    
+    private final S3TransferManager transferManager;
+    private final String destBucket;
+    
+    public TransferEngine(S3TransferManager transferManager, String destBucket) {
+        this.transferManager = transferManager;
+        this.destBucket = destBucket;
+    }
+    
+    /**
+     * Build an engine for transfer.dest.bucket, or return null when batches stay in the monitored bucket
+     */
+    public static TransferEngine fromConfig(AppConfig config) {
+        String destBucket = config.getTransferDestBucket();
+        if (destBucket == null || destBucket.isEmpty()) {
+            return null;
+        }
+        S3CrtAsyncClientBuilder client = S3AsyncClient.crtBuilder()
+                .region(config.getTransferDestRegion())
+                .crossRegionAccessEnabled(true)
+                .targetThroughputInGbps(config.getTransferTargetThroughputGbps())
+                .minimumPartSizeInBytes(config.getTransferMinPartBytes());
+        if (config.getTransferMaxConcurrency() > 0) {
+            client.maxConcurrency(config.getTransferMaxConcurrency());
+        }
+        logger.info("Transferring batches to {} in {} at a target of {} Gbps",
+                   destBucket, config.getTransferDestRegion(), config.getTransferTargetThroughputGbps());
+        return new TransferEngine(S3TransferManager.builder().s3Client(client.build()).build(), destBucket);
+    }
+    
+    public String getDestBucket() {
+        return destBucket;
+    }
+    
+    /**
+     * Copy every source key to its destination key in the destination bucket concurrently and wait
+     * for all of them. Returns the source keys whose copy completed, in the order given; the
+     * failures are logged, and their sources must stay in place for the next run.
+     */
+    public List<String> copyAll(String sourceBucket, Map<String, String> destKeys) {
+        Map<String, CompletableFuture<?>> copies = new LinkedHashMap<>();
+        destKeys.forEach((sourceKey, destKey) -> copies.put(sourceKey, transferManager.copy(CopyRequest.builder()
+                .copyObjectRequest(request -> request
+                        .sourceBucket(sourceBucket)
+                        .sourceKey(sourceKey)
+                        .destinationBucket(destBucket)
+                        .destinationKey(destKey))
+                .build()).completionFuture()));
+        
+        List<String> copied = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<?>> copy : copies.entrySet()) {
+            try {
+                copy.getValue().join();
+                copied.add(copy.getKey());
+            } catch (CompletionException e) {
+                logger.error("Failed to transfer {} to {}", copy.getKey(), destBucket, e.getCause());
+            }
+        }
+        return copied;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validation verdicts keyed by bucket, key and ETag. An object whose ETag is unchanged
+ * since it was validated gets the same verdict, so retried and replayed batches skip
+ * the per-file HEAD requests. Verdicts are held in an in-process LRU and, optionally,
+ * in a persisted ValidationCacheStore loaded and saved once per batch.
+ */
+public class ValidationCache {
+    
+    private final int maxEntries;
+    private final ValidationCacheStore store;
+    private final LinkedHashMap<String, Boolean> entries;
+    
+    public ValidationCache(int maxEntries, ValidationCacheStore store) {
+        this.maxEntries = maxEntries;
+        this.store = store;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > ValidationCache.this.maxEntries;
+            }
+        };
+    }
+    
+    /**
+     * Build the cache and persisted tier selected by validation.cache.store (none, s3 or local)
+     */
+    public static ValidationCache fromConfig(AppConfig config) {
+        ValidationCacheStore store;
+        switch (config.getValidationCacheStore()) {
+            case "s3":
+                // Batches may sit in a transfer destination bucket in another region, as for S3Service
+                store = new S3ValidationCacheStore(S3Client.builder()
+                        .region(config.getAwsRegion())
+                        .crossRegionAccessEnabled(!config.getTransferDestRegion().equals(config.getAwsRegion()))
+                        .overrideConfiguration(AwsClientOverrides.forConfig(config))
+                        .build(), config.getValidationCacheS3Prefix());
+                break;
+            case "local":
+                store = new LocalValidationCacheStore(Path.of(config.getValidationCacheLocalDir()));
+                break;
+            default:
+                store = null;
+        }
+        return new ValidationCache(config.getValidationCacheMaxEntries(), store);
+    }
+    
+    /**
+     * Cached verdict (true when the file was empty), or null when the object must be validated
+     */
+    public synchronized Boolean get(String bucketName, String key, String eTag) {
+        if (eTag == null) {
+            return null;
+        }
+        return entries.get(bucketName + "/" + entryKey(key, eTag));
+    }
+    
+    public synchronized void put(String bucketName, String key, String eTag, boolean empty) {
+        if (eTag != null && maxEntries > 0) {
+            entries.put(bucketName + "/" + entryKey(key, eTag), empty);
+        }
+    }
+    
+    /**
+     * Warm the in-process tier with the persisted verdicts of a batch
+     */
+    public void loadBatch(String bucketName, String batchPrefix) {
+        if (store == null || maxEntries <= 0) {
+            return;
+        }
+        Map<String, Boolean> verdicts = store.load(bucketName, batchPrefix);
+        synchronized (this) {
+            verdicts.forEach((entryKey, empty) -> entries.put(bucketName + "/" + entryKey, empty));
+        }
+    }
+    
+    /**
+     * Persist the verdicts held for the given batch files
+     */
+    public void saveBatch(String bucketName, String batchPrefix, List<S3Object> files) {
+        if (store == null) {
+            return;
+        }
+        Map<String, Boolean> verdicts = new HashMap<>();
+        for (S3Object file : files) {
+            Boolean empty = get(bucketName, file.key(), file.eTag());
+            if (empty != null) {
+                verdicts.put(entryKey(file.key(), file.eTag()), empty);
+            }
+        }
+        store.save(bucketName, batchPrefix, verdicts);
+    }
+    
+    static String entryKey(String key, String eTag) {
+        return eTag.replace("\"", "") + "|" + key;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.s3processor.service;
+
+import java.util.Map;
+
+/**
+ * Persisted tier of the ValidationCache. Verdicts are stored per batch prefix, keyed by
+ * ValidationCache.entryKey(key, eTag), so a replayed batch costs one read.
+ */
+public interface ValidationCacheStore {
+    
+    /**
+     * Verdicts stored for a batch prefix (true when the file was empty), or an empty map
+     */
+    Map<String, Boolean> load(String bucketName, String batchPrefix);
+    
+    void save(String bucketName, String batchPrefix, Map<String, Boolean> verdicts);
+}
@@ -0,0 +1,77 @@
+package com.example.s3processor.lambda;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrainableAsyncAppenderTest {
+
+    @Test
+    void testLogbackXml_KeepsWarnAndErrorOffTheAsyncQueue() {
+        // Given
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+
+        // When
+        DrainableAsyncAppender async = (DrainableAsyncAppender) root.getAppender("ASYNC");
+
+        // Then
+        assertEquals(FilterReply.NEUTRAL, async.getFilterChainDecision(event(context, Level.INFO)));
+        assertEquals(FilterReply.DENY, async.getFilterChainDecision(event(context, Level.WARN)));
+        assertEquals(FilterReply.DENY, async.getFilterChainDecision(event(context, Level.ERROR)));
+        assertEquals(FilterReply.NEUTRAL, root.getAppender("STDOUT_SYNC").getFilterChainDecision(event(context, Level.ERROR)));
+        assertEquals(FilterReply.DENY, root.getAppender("STDOUT_SYNC").getFilterChainDecision(event(context, Level.INFO)));
+    }
+
+    @Test
+    void testDrain_ReturnsOnceEveryQueuedEventWasWritten() {
+        // Given
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        AtomicInteger written = new AtomicInteger();
+        AppenderBase<ILoggingEvent> slow = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.incrementAndGet();
+            }
+        };
+        slow.setContext(context);
+        slow.start();
+        DrainableAsyncAppender async = new DrainableAsyncAppender();
+        async.setContext(context);
+        async.setDiscardingThreshold(0);
+        async.addAppender(slow);
+        async.start();
+        for (int i = 0; i < 100; i++) {
+            async.doAppend(event(context, Level.INFO));
+        }
+
+        // When
+        boolean drained = async.drain(10_000);
+
+        // Then
+        assertTrue(drained);
+        assertEquals(100, written.get());
+        async.stop();
+        assertFalse(slow.isStarted());
+    }
+
+    private static LoggingEvent event(LoggerContext context, Level level) {
+        return new LoggingEvent(DrainableAsyncAppenderTest.class.getName(), context.getLogger("test"), level,
+                "message", null, null);
+    }
+}
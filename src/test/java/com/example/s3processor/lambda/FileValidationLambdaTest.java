@@ -0,0 +1,154 @@
+package com.example.s3processor.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.model.BatchRequest;
+import com.example.s3processor.model.ValidationResult;
+import com.example.s3processor.service.S3Service;
+import com.example.s3processor.service.ValidationCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FileValidationLambdaTest {
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private AppConfig config;
+
+    @Mock
+    private Context context;
+
+    private FileValidationLambda lambda;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        lambda = new FileValidationLambda(s3Service, config);
+
+        when(context.getAwsRequestId()).thenReturn("test-request-id");
+    }
+
+    @Test
+    void testHandleRequest_StreamsTypedResult() throws Exception {
+        // Given
+        when(s3Service.listBatchFileObjects("test-bucket", "processing/batch-001/"))
+                .thenReturn(List.of(object("processing/batch-001/a.txt", "\"e1\""),
+                        object("processing/batch-001/b.txt", "\"e2\"")));
+        when(s3Service.isFileEmpty("test-bucket", "processing/batch-001/a.txt")).thenReturn(false);
+        when(s3Service.isFileEmpty("test-bucket", "processing/batch-001/b.txt")).thenReturn(true);
+        String input = "{\"bucketName\":\"test-bucket\",\"batchPrefix\":\"processing/batch-001/\",\"extra\":1}";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        lambda.handleRequest(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output, context);
+
+        // Then
+        JsonNode result = new ObjectMapper().readTree(output.toByteArray());
+        assertEquals("processing/batch-001/", result.get("batchPrefix").asText());
+        assertEquals(2, result.get("totalFiles").asInt());
+        assertEquals(1, result.get("validFiles").asInt());
+        assertEquals(1, result.get("emptyFiles").asInt());
+        assertFalse(result.get("isValid").asBoolean());
+        assertFalse(result.has("valid"));
+        assertFalse(result.has("error"));
+        JsonNode runStats = result.get("runStats");
+        assertEquals(2, runStats.get("files").asLong());
+        assertEquals(20, runStats.get("bytes").asLong());
+        assertTrue(runStats.get("phaseMillis").has("list"));
+        assertTrue(runStats.get("phaseMillis").has("validate"));
+        assertTrue(runStats.has("requests"));
+    }
+
+    @Test
+    void testHandleRequest_MalformedInput() throws Exception {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        lambda.handleRequest(new ByteArrayInputStream("{not json".getBytes(StandardCharsets.UTF_8)), output, context);
+
+        // Then
+        JsonNode result = new ObjectMapper().readTree(output.toByteArray());
+        assertTrue(result.get("error").asBoolean());
+        verifyNoInteractions(s3Service);
+    }
+
+    @Test
+    void testHandleRequest_ValidatesEveryListedBatch() throws Exception {
+        // Given
+        when(s3Service.listBatchFileObjects("test-bucket", "processing/batch-001/"))
+                .thenReturn(List.of(object("processing/batch-001/a.txt", "\"e1\"")));
+        when(s3Service.listBatchFileObjects("test-bucket", "processing/batch-002/"))
+                .thenReturn(List.of(object("processing/batch-002/b.txt", "\"e2\"")));
+        when(s3Service.listBatchFileObjects("test-bucket", "processing/batch-003/"))
+                .thenThrow(new RuntimeException("listing failed"));
+        when(s3Service.isFileEmpty("test-bucket", "processing/batch-001/a.txt")).thenReturn(false);
+        when(s3Service.isFileEmpty("test-bucket", "processing/batch-002/b.txt")).thenReturn(false);
+        String input = "{\"bucketName\":\"test-bucket\",\"batchPrefixes\":[\"processing/batch-001/\","
+                + "\"processing/batch-002/\",\"processing/batch-003/\"]}";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        lambda.handleRequest(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output, context);
+
+        // Then
+        JsonNode result = new ObjectMapper().readTree(output.toByteArray());
+        assertEquals(3, result.get("totalBatches").asInt());
+        assertEquals(1, result.get("invalidBatches").asInt());
+        assertFalse(result.get("isValid").asBoolean());
+        JsonNode batches = result.get("batches");
+        assertEquals("processing/batch-001/", batches.get(0).get("batchPrefix").asText());
+        assertTrue(batches.get(1).get("isValid").asBoolean());
+        assertEquals("processing/batch-003/", batches.get(2).get("batchPrefix").asText());
+        assertTrue(batches.get(2).get("error").asBoolean());
+        // Concurrent batches share the clients, so only the summary attributes requests
+        assertEquals(2, result.get("runStats").get("files").asLong());
+        assertTrue(result.get("runStats").has("requests"));
+        assertFalse(batches.get(0).get("runStats").has("requests"));
+    }
+
+    @Test
+    void testValidateBatch_RetryAnsweredFromCache() {
+        // Given
+        FileValidationLambda cachingLambda = new FileValidationLambda(s3Service, new ValidationCache(100, null), config);
+        when(s3Service.listBatchFileObjects("test-bucket", "processing/batch-001/"))
+                .thenReturn(List.of(object("processing/batch-001/a.txt", "\"e1\"")))
+                .thenReturn(List.of(object("processing/batch-001/a.txt", "\"e1\"")))
+                .thenReturn(List.of(object("processing/batch-001/a.txt", "\"e3\""))); // overwritten in between
+        when(s3Service.isFileEmpty("test-bucket", "processing/batch-001/a.txt")).thenReturn(false);
+        BatchRequest request = new BatchRequest();
+        request.setBucketName("test-bucket");
+        request.setBatchPrefix("processing/batch-001/");
+
+        // When
+        ValidationResult first = cachingLambda.validateBatch(request, context);
+        ValidationResult retry = cachingLambda.validateBatch(request, context);
+        ValidationResult changed = cachingLambda.validateBatch(request, context);
+
+        // Then
+        assertEquals(0, first.getCachedFiles());
+        assertEquals(1, retry.getCachedFiles());
+        assertTrue(retry.isValid());
+        assertEquals(0, changed.getCachedFiles());
+        verify(s3Service, times(2)).isFileEmpty("test-bucket", "processing/batch-001/a.txt");
+    }
+
+    private static S3Object object(String key, String eTag) {
+        return S3Object.builder().key(key).eTag(eTag).size(10L).build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.s3processor.lambda;
+
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeBootstrapTest {
+
+    private HttpServer runtimeApi;
+    private final Map<String, String> posted = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Stand-in for the Lambda Runtime API: one queued invocation, responses recorded by path
+        runtimeApi = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        runtimeApi.createContext("/2018-06-01/runtime/invocation/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body;
+            if (path.endsWith("/next")) {
+                body = "{\"bucketName\":\"test-bucket\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Lambda-Runtime-Aws-Request-Id", "request-1");
+                exchange.getResponseHeaders().add("Lambda-Runtime-Deadline-Ms", String.valueOf(System.currentTimeMillis() + 60000));
+                exchange.getResponseHeaders().add("Lambda-Runtime-Invoked-Function-Arn", "arn:aws:lambda:us-east-1:000000000000:function:test");
+            } else {
+                String errorType = exchange.getRequestHeaders().getFirst("Lambda-Runtime-Function-Error-Type");
+                posted.put(path, new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)
+                        + (errorType != null ? " " + errorType : ""));
+                body = new byte[0];
+            }
+            exchange.sendResponseHeaders(body.length == 0 ? 202 : 200, body.length == 0 ? -1 : body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        runtimeApi.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        runtimeApi.stop(0);
+    }
+
+    @Test
+    void testInvokeNext_PostsHandlerOutputAsResponse() throws IOException {
+        // Given
+        NativeBootstrap bootstrap = new NativeBootstrap("127.0.0.1:" + runtimeApi.getAddress().getPort());
+        RequestStreamHandler handler = (input, output, context) -> {
+            assertEquals("request-1", context.getAwsRequestId());
+            assertTrue(context.getRemainingTimeInMillis() > 0);
+            output.write(("{\"echo\":" + new String(input.readAllBytes(), StandardCharsets.UTF_8) + "}").getBytes(StandardCharsets.UTF_8));
+        };
+
+        // When
+        bootstrap.invokeNext(handler);
+
+        // Then
+        assertEquals("{\"echo\":{\"bucketName\":\"test-bucket\"}}", posted.get("/2018-06-01/runtime/invocation/request-1/response"));
+    }
+
+    @Test
+    void testInvokeNext_PostsHandlerFailureAsError() throws IOException {
+        // Given
+        NativeBootstrap bootstrap = new NativeBootstrap("127.0.0.1:" + runtimeApi.getAddress().getPort());
+        RequestStreamHandler handler = (input, output, context) -> {
+            throw new IllegalStateException("boom");
+        };
+
+        // When
+        bootstrap.invokeNext(handler);
+
+        // Then
+        String error = posted.get("/2018-06-01/runtime/invocation/request-1/error");
+        assertNotNull(error);
+        assertTrue(error.contains("\"errorMessage\":\"boom\""));
+        assertTrue(error.contains("\"errorType\":\"java.lang.IllegalStateException\""));
+        assertTrue(error.endsWith(" Unhandled"));
+    }
+
+    @Test
+    void testInvokeNext_PostsHandlerErrorAsError() throws IOException {
+        // Given
+        NativeBootstrap bootstrap = new NativeBootstrap("127.0.0.1:" + runtimeApi.getAddress().getPort());
+        RequestStreamHandler handler = (input, output, context) -> {
+            throw new StackOverflowError("deep");
+        };
+
+        // When
+        bootstrap.invokeNext(handler);
+
+        // Then
+        String error = posted.get("/2018-06-01/runtime/invocation/request-1/error");
+        assertNotNull(error);
+        assertTrue(error.contains("\"errorType\":\"java.lang.StackOverflowError\""));
+        assertNull(posted.get("/2018-06-01/runtime/invocation/request-1/response"));
+    }
+
+    @Test
+    void testCreateHandler_StripsMethodFromHandlerName() throws ReflectiveOperationException {
+        assertThrows(IllegalStateException.class, () -> NativeBootstrap.createHandler(null));
+        assertThrows(ClassNotFoundException.class,
+                () -> NativeBootstrap.createHandler("com.example.s3processor.lambda.Missing::handleRequest"));
+    }
+}
@@ -2,14 +2,22 @@ package com.example.s3processor.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.config.MonitorTarget;
+import com.example.s3processor.config.PriorityLane;
+import com.example.s3processor.local.InMemoryS3Client;
+import com.example.s3processor.local.LocalMonitorScheduler;
+import com.example.s3processor.model.BacklogSnapshot;
 import com.example.s3processor.model.ProcessingResult;
+import com.example.s3processor.service.ArrivalTracker;
 import com.example.s3processor.service.S3Service;
 import com.example.s3processor.service.StepFunctionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -47,7 +55,7 @@ class S3MonitorLambdaTest {
     @Test
     void testHandleScheduledEvent_BelowThreshold() {
         // Given
-        when(s3Service.countFiles("test-bucket", "pending/")).thenReturn(1500L);
+        when(s3Service.snapshotFiles("test-bucket", "pending/")).thenReturn(snapshot(1500L));
 
         // When
         ProcessingResult result = lambda.handleScheduledEvent(Map.of(), context);
@@ -58,15 +66,30 @@ class S3MonitorLambdaTest {
         assertEquals(2000, result.getThreshold());
         assertFalse(result.isWorkflowTriggered());
         assertNull(result.getStepFunctionExecutionArn());
-        verify(stepFunctionService, never()).startFileProcessingWorkflow(anyString(), anyString());
+        verify(stepFunctionService, never()).startFileProcessingWorkflow(any(BacklogSnapshot.class));
+    }
+
+    @Test
+    void testHandleScheduledEvent_WithoutContext() {
+        // Given
+        when(s3Service.snapshotFiles("test-bucket", "pending/")).thenReturn(snapshot(1500L));
+
+        // When
+        ProcessingResult result = lambda.handleScheduledEvent(Map.of(), null);
+
+        // Then
+        assertEquals(1500L, result.getFileCount());
+        assertFalse(result.isWorkflowTriggered());
     }
 
     @Test
     void testHandleScheduledEvent_AboveThreshold() {
         // Given
-        when(s3Service.countFiles("test-bucket", "pending/")).thenReturn(2500L);
-        when(stepFunctionService.startFileProcessingWorkflow("test-bucket", "pending/"))
-                .thenReturn("arn:aws:states:us-east-1:123456789012:execution:test-state-machine:test-execution");
+        BacklogSnapshot snapshot = snapshot(2500L);
+        when(s3Service.snapshotFiles("test-bucket", "pending/")).thenReturn(snapshot);
+        when(stepFunctionService.startFileProcessingWorkflow(snapshot))
+                .thenReturn(new StepFunctionService.Launch(
+                        "arn:aws:states:us-east-1:123456789012:execution:test-state-machine:test-execution", true, null));
 
         // When
         ProcessingResult result = lambda.handleScheduledEvent(Map.of(), context);
@@ -78,13 +101,77 @@ class S3MonitorLambdaTest {
         assertTrue(result.isWorkflowTriggered());
         assertEquals("arn:aws:states:us-east-1:123456789012:execution:test-state-machine:test-execution",
                 result.getStepFunctionExecutionArn());
-        verify(stepFunctionService).startFileProcessingWorkflow("test-bucket", "pending/");
+        assertEquals("FILE_COUNT", result.getTriggerPolicy());
+        verify(stepFunctionService).startFileProcessingWorkflow(snapshot);
+    }
+
+    @Test
+    void testHandleScheduledEvent_OldestAgeTriggersBelowThreshold() {
+        // Given
+        BacklogSnapshot snapshot = snapshot(12L);
+        snapshot.setOldestLastModified(System.currentTimeMillis() - 3_600_000L);
+        when(config.getTriggerMaxAgeSeconds()).thenReturn(900L);
+        when(s3Service.snapshotFiles("test-bucket", "pending/")).thenReturn(snapshot);
+        when(stepFunctionService.startFileProcessingWorkflow(snapshot))
+                .thenReturn(new StepFunctionService.Launch("arn:execution:aged", true, null));
+
+        // When
+        ProcessingResult result = lambda.handleScheduledEvent(Map.of(), context);
+
+        // Then
+        assertTrue(result.isWorkflowTriggered());
+        assertEquals("OLDEST_AGE", result.getTriggerPolicy());
+        assertTrue(result.getOldestFileAgeSeconds() >= 3600L);
+    }
+
+    @Test
+    void testHandleScheduledEvent_WorkflowAlreadyRunning() {
+        // Given
+        when(s3Service.snapshotFiles("test-bucket", "pending/")).thenReturn(snapshot(2500L));
+        when(stepFunctionService.isFileProcessingWorkflowRunning("test-bucket", "pending/")).thenReturn(true);
+
+        // When
+        ProcessingResult result = lambda.handleScheduledEvent(Map.of(), context);
+
+        // Then
+        assertFalse(result.isWorkflowTriggered());
+        assertNull(result.getStepFunctionExecutionArn());
+        verify(stepFunctionService, never()).startFileProcessingWorkflow(any(BacklogSnapshot.class));
+    }
+
+    @Test
+    void testHandleScheduledEvent_PriorityLaneTriggersOnItsOwnThreshold() {
+        // Given: a few urgent files and a bulk backlog still below its threshold
+        List<PriorityLane> lanes = List.of(new PriorityLane("urgent", "urgent/", 1, 10, 2));
+        when(config.getPriorityLanes()).thenReturn(lanes);
+        BacklogSnapshot urgent = snapshot(3L);
+        urgent.setLane("urgent");
+        BacklogSnapshot bulk = snapshot(1500L);
+        bulk.setLane(PriorityLane.BULK);
+        when(s3Service.snapshotLanes("test-bucket", "pending/", lanes)).thenReturn(List.of(urgent, bulk));
+        when(stepFunctionService.startFileProcessingWorkflow(urgent))
+                .thenReturn(new StepFunctionService.Launch("arn:execution:urgent", true, null));
+
+        // When
+        ProcessingResult result = lambda.handleScheduledEvent(Map.of(), context);
+
+        // Then
+        assertEquals(PriorityLane.BULK, result.getLane());
+        assertEquals(1500L, result.getFileCount());
+        assertFalse(result.isWorkflowTriggered());
+        ProcessingResult urgentResult = result.getLanes().get(0);
+        assertEquals("urgent", urgentResult.getLane());
+        assertEquals(1, urgentResult.getThreshold());
+        assertTrue(urgentResult.isWorkflowTriggered());
+        assertEquals("arn:execution:urgent", urgentResult.getStepFunctionExecutionArn());
+        verify(stepFunctionService).isFileProcessingWorkflowRunning("test-bucket", "pending/", "urgent");
+        verify(stepFunctionService, never()).startFileProcessingWorkflow(bulk);
     }
 
     @Test
     void testHandleScheduledEvent_S3ServiceException() {
         // Given
-        when(s3Service.countFiles("test-bucket", "pending/"))
+        when(s3Service.snapshotFiles("test-bucket", "pending/"))
                 .thenThrow(new RuntimeException("S3 service error"));
 
         // When & Then
@@ -92,4 +179,72 @@ class S3MonitorLambdaTest {
             lambda.handleScheduledEvent(Map.of(), context);
         });
     }
+
+    @Test
+    void testHandleWatchedFeeds_PerEntryResults() {
+        // Given
+        when(config.getMonitorTargets()).thenReturn(List.of(
+                new MonitorTarget("bucket-a", "feed-a/", 10),
+                new MonitorTarget("bucket-b", "feed-b/", 10)));
+        when(config.getMonitorConcurrency()).thenReturn(2);
+        BacklogSnapshot snapshotA = new BacklogSnapshot("bucket-a", "feed-a/", 25L, "0123456789abcdef0123456789abcdef");
+        when(s3Service.snapshotFiles("bucket-a", "feed-a/")).thenReturn(snapshotA);
+        when(s3Service.snapshotFiles("bucket-b", "feed-b/")).thenThrow(new RuntimeException("Access denied"));
+        when(stepFunctionService.startFileProcessingWorkflow(snapshotA))
+                .thenReturn(new StepFunctionService.Launch("arn:execution:a", true, null));
+
+        // When
+        List<ProcessingResult> results = lambda.handleWatchedFeeds(context);
+
+        // Then
+        assertEquals(2, results.size());
+        assertEquals("bucket-a", results.get(0).getBucketName());
+        assertTrue(results.get(0).isWorkflowTriggered());
+        assertEquals("arn:execution:a", results.get(0).getStepFunctionExecutionArn());
+        assertEquals("feed-b/", results.get(1).getPrefix());
+        assertFalse(results.get(1).isWorkflowTriggered());
+        assertTrue(results.get(1).getMessage().contains("Access denied"));
+    }
+
+    @Test
+    void testHandleScheduledEvent_ForecastsThresholdAndReschedules() {
+        // Given: 900 files arrived over the last ten minutes, so 50 more take about half a minute
+        InMemoryS3Client store = new InMemoryS3Client();
+        store.createBucket(CreateBucketRequest.builder().bucket("test-bucket").build());
+        LocalMonitorScheduler scheduler = new LocalMonitorScheduler();
+        S3MonitorLambda adaptiveLambda = new S3MonitorLambda(s3Service, stepFunctionService,
+                new ArrivalTracker(store, "monitor-state/", 12), scheduler, config);
+        when(config.isTriggerForecastEnabled()).thenReturn(true);
+        when(config.getAdaptiveScheduleMinSeconds()).thenReturn(60);
+        when(config.getAdaptiveScheduleMaxSeconds()).thenReturn(1800);
+        long now = System.currentTimeMillis();
+        BacklogSnapshot earlier = snapshot(1050L);
+        earlier.setTimestamp(now - 600_000L);
+        BacklogSnapshot current = snapshot(1950L);
+        current.setTimestamp(now);
+        when(s3Service.snapshotFiles("test-bucket", "pending/")).thenReturn(earlier, current);
+        when(stepFunctionService.startFileProcessingWorkflow(current))
+                .thenReturn(new StepFunctionService.Launch("arn:execution", true, null));
+
+        // When
+        ProcessingResult first = adaptiveLambda.handleScheduledEvent(Map.of(), context);
+        ProcessingResult second = adaptiveLambda.handleScheduledEvent(Map.of(), context);
+
+        // Then: the first tick has no rate yet and waits the longest interval
+        assertNull(first.getArrivalRatePerMinute());
+        assertFalse(first.isWorkflowTriggered());
+        assertEquals(1800L, first.getNextCheckSeconds());
+        // The threshold is forecast inside the minimum interval, so processing starts now
+        assertEquals(90.0, second.getArrivalRatePerMinute(), 0.001);
+        assertEquals(33L, second.getForecastSeconds());
+        assertEquals("FORECAST", second.getTriggerPolicy());
+        assertTrue(second.isWorkflowTriggered());
+        // and the next crossing is forecast from an empty prefix: 2000 files at 90 a minute
+        assertEquals(1334L, second.getNextCheckSeconds());
+        assertEquals(List.of(1800L, 1334L), scheduler.drainScheduledDelays());
+    }
+
+    private static BacklogSnapshot snapshot(long fileCount) {
+        return new BacklogSnapshot("test-bucket", "pending/", fileCount, "0123456789abcdef0123456789abcdef");
+    }
 }
@@ -0,0 +1,157 @@
+package com.example.s3processor.local;
+
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalWorkflowEngineTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testProcessingWorkflow_ValidatesEveryBatchGroup() throws Exception {
+        // Given
+        List<JsonNode> validationPayloads = new CopyOnWriteArrayList<>();
+        RequestStreamHandler batching = (input, output, context) -> output.write(
+                ("{\"bucketName\":\"test-bucket\",\"batchBucketName\":\"processing-bucket\",\"validationConcurrency\":2,"
+                        + "\"batchGroups\":[[\"processing/batch-001/\","
+                        + "\"processing/batch-002/\"],[\"processing/batch-003/\"]]}").getBytes(StandardCharsets.UTF_8));
+        RequestStreamHandler validation = (input, output, context) -> {
+            validationPayloads.add(objectMapper.readTree(input));
+            output.write("{\"isValid\":true}".getBytes(StandardCharsets.UTF_8));
+        };
+        LocalWorkflowEngine engine = new LocalWorkflowEngine(
+                Map.of("FileBatchingLambda", batching, "FileValidationLambda", validation), 0);
+
+        // When
+        WorkflowRun run = engine.execute("FileProcessingStateMachine", objectMapper.readTree("{}"));
+
+        // Then
+        assertEquals(WorkflowRun.SUCCEEDED, run.getStatus());
+        assertEquals("SUCCESS", run.getOutput().get("status").asText());
+        assertEquals(2, validationPayloads.size());
+        assertTrue(validationPayloads.stream().allMatch(payload ->
+                "processing-bucket".equals(payload.get("bucketName").asText()) && payload.get("batchPrefixes").isArray()));
+        assertEquals(1, run.getStateTiming("BatchFiles").getEntries());
+        assertEquals(2, run.getStateTiming("ValidateBatch").getEntries());
+        assertEquals(1, run.getStateTiming("ProcessingComplete").getEntries());
+    }
+
+    @Test
+    void testProcessingWorkflow_LoopsWhileBatchingContinues() throws Exception {
+        // Given
+        List<JsonNode> batchingPayloads = new CopyOnWriteArrayList<>();
+        AtomicInteger validations = new AtomicInteger();
+        RequestStreamHandler batching = (input, output, context) -> {
+            batchingPayloads.add(objectMapper.readTree(input));
+            String result = batchingPayloads.size() == 1
+                    ? "{\"bucketName\":\"test-bucket\",\"batchBucketName\":\"test-bucket\",\"sourcePrefix\":\"pending/\",\"destPrefix\":\"processing/urgent/\","
+                            + "\"lane\":\"urgent\",\"validationConcurrency\":1,"
+                            + "\"batchGroups\":[[\"processing/urgent/batch-001/\"]],\"status\":\"CONTINUE\","
+                            + "\"startAfter\":\"pending/file-100.txt\",\"nextBatchNumber\":2}"
+                    : "{\"bucketName\":\"test-bucket\",\"batchBucketName\":\"test-bucket\",\"validationConcurrency\":1,"
+                            + "\"batchGroups\":[[\"processing/urgent/batch-002/\"]],\"status\":\"SUCCESS\"}";
+            output.write(result.getBytes(StandardCharsets.UTF_8));
+        };
+        RequestStreamHandler validation = (input, output, context) -> {
+            validations.incrementAndGet();
+            output.write("{\"isValid\":true}".getBytes(StandardCharsets.UTF_8));
+        };
+        LocalWorkflowEngine engine = new LocalWorkflowEngine(
+                Map.of("FileBatchingLambda", batching, "FileValidationLambda", validation), 0);
+
+        // When
+        WorkflowRun run = engine.execute("FileProcessingStateMachine",
+                objectMapper.readTree("{\"bucketName\":\"test-bucket\",\"sourcePrefix\":\"pending/\","
+                        + "\"destPrefix\":\"processing/urgent/\",\"lane\":\"urgent\"}"));
+
+        // Then
+        assertEquals(WorkflowRun.SUCCEEDED, run.getStatus());
+        assertEquals("SUCCESS", run.getOutput().get("status").asText());
+        assertEquals(2, batchingPayloads.size());
+        assertEquals("pending/file-100.txt", batchingPayloads.get(1).get("startAfter").asText());
+        assertEquals(2, batchingPayloads.get(1).get("nextBatchNumber").asInt());
+        assertEquals("pending/", batchingPayloads.get(1).get("sourcePrefix").asText());
+        assertEquals("urgent", batchingPayloads.get(1).get("lane").asText());
+        assertEquals(2, validations.get());
+        assertEquals(1, run.getStateTiming("ContinueBatching").getEntries());
+    }
+
+    @Test
+    void testProcessingWorkflow_WaitsForCopyJobsBeforeValidating() throws Exception {
+        // Given: the copy jobs are still running at the first check
+        List<JsonNode> batchingPayloads = new CopyOnWriteArrayList<>();
+        AtomicInteger validations = new AtomicInteger();
+        RequestStreamHandler batching = (input, output, context) -> {
+            batchingPayloads.add(objectMapper.readTree(input));
+            String status = batchingPayloads.size() < 3 ? "COPYING" : "SUCCESS";
+            output.write(("{\"bucketName\":\"test-bucket\",\"batchBucketName\":\"test-bucket\",\"validationConcurrency\":1,"
+                    + "\"batchPrefixes\":[\"processing/batch-001/\"],\"batchGroups\":[[\"processing/batch-001/\"]],"
+                    + "\"status\":\"" + status + "\",\"copyJobIds\":[\"job-1\"],\"copyJobPollSeconds\":60}")
+                    .getBytes(StandardCharsets.UTF_8));
+        };
+        RequestStreamHandler validation = (input, output, context) -> {
+            validations.incrementAndGet();
+            output.write("{\"isValid\":true}".getBytes(StandardCharsets.UTF_8));
+        };
+        LocalWorkflowEngine engine = new LocalWorkflowEngine(
+                Map.of("FileBatchingLambda", batching, "FileValidationLambda", validation), 0);
+
+        // When
+        WorkflowRun run = engine.execute("FileProcessingStateMachine", objectMapper.readTree("{}"));
+
+        // Then: each check gets the job IDs back, and validation runs once the jobs have ended
+        assertEquals(WorkflowRun.SUCCEEDED, run.getStatus());
+        assertEquals("SUCCESS", run.getOutput().get("status").asText());
+        assertEquals(3, batchingPayloads.size());
+        assertEquals("job-1", batchingPayloads.get(1).get("copyJobIds").get(0).asText());
+        assertEquals(2, run.getStateTiming("WaitForCopyJobs").getEntries());
+        assertEquals(1, validations.get());
+    }
+
+    @Test
+    void testProcessingWorkflow_RetriesThenCatchesBatchingFailure() throws Exception {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+        RequestStreamHandler batching = (input, output, context) -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("listing failed");
+        };
+        LocalWorkflowEngine engine = new LocalWorkflowEngine(Map.of("FileBatchingLambda", batching), 0);
+
+        // When
+        WorkflowRun run = engine.execute("FileProcessingStateMachine", objectMapper.readTree("{}"));
+
+        // Then
+        assertEquals(WorkflowRun.SUCCEEDED, run.getStatus());
+        assertEquals("FAILED", run.getOutput().get("status").asText());
+        assertEquals(4, attempts.get()); // first attempt plus MaxAttempts retries
+        assertNull(run.getStateTiming("ValidateAllBatches"));
+    }
+
+    @Test
+    void testValidationWorkflow_ChoiceOnIsValid() throws Exception {
+        // Given
+        RequestStreamHandler validation = (input, output, context) ->
+                output.write("{\"isValid\":false}".getBytes(StandardCharsets.UTF_8));
+        LocalWorkflowEngine engine = new LocalWorkflowEngine(Map.of("FileValidationLambda", validation), 0);
+
+        // When
+        WorkflowRun run = engine.execute("FileValidationStateMachine",
+                objectMapper.readTree("{\"bucketName\":\"test-bucket\",\"batchPrefix\":\"processing/batch-001/\"}"));
+
+        // Then
+        assertEquals(WorkflowRun.SUCCEEDED, run.getStatus());
+        assertEquals("FAILED", run.getOutput().get("status").asText());
+        assertNotNull(run.getStateTiming("ValidationFailed"));
+    }
+}
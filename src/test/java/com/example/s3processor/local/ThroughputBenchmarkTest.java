@@ -0,0 +1,39 @@
+package com.example.s3processor.local;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThroughputBenchmarkTest {
+
+    @Test
+    void testRun_MovesAndValidatesWholeBacklog() throws Exception {
+        // When
+        JsonNode report = new ThroughputBenchmark().run(Map.of(
+                "objects", "2500",
+                "keyShape", "nested",
+                "sizes", "lognormal:4096:1.0",
+                "batch.size", "100"));
+
+        // Then
+        assertEquals(2500, report.get("processedFiles").asLong());
+        assertEquals(0, report.get("remainingFiles").asLong());
+        assertTrue(report.get("filesPerSecond").asDouble() > 0);
+        assertTrue(report.get("monitor").get("workflowTriggered").asBoolean());
+
+        JsonNode workflow = report.get("workflows").get(0);
+        assertEquals(WorkflowRun.SUCCEEDED, workflow.get("status").asText());
+        assertEquals("SUCCESS", workflow.get("output").get("status").asText());
+
+        long copies = 0;
+        for (JsonNode operation : report.get("operations")) {
+            if ("CopyObject".equals(operation.get("operation").asText())) {
+                copies = operation.get("requests").asLong();
+            }
+        }
+        assertEquals(2500, copies);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.s3processor.service;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BatchIssueLogTest {
+
+    @Test
+    void testLogSummary_OneLinePerKindWithFirstKeys() {
+        // Given
+        BatchIssueLog issues = new BatchIssueLog(2);
+        Logger logger = mock(Logger.class);
+        RuntimeException failure = new RuntimeException("timeout");
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            issues.record("empty", "processing/batch-001/empty-" + i + ".txt");
+        }
+        issues.record("unreadable", "processing/batch-001/a.txt", failure);
+        issues.record("unreadable", "processing/batch-001/b.txt", new RuntimeException("later"));
+        issues.logSummary(logger, "processing/batch-001/");
+
+        // Then
+        assertEquals(5, issues.count("empty"));
+        assertEquals(List.of("processing/batch-001/empty-0.txt", "processing/batch-001/empty-1.txt"), issues.keys("empty"));
+        verify(logger, times(1)).warn(anyString(), any(Object[].class));
+        verify(logger, times(1)).error(anyString(), eq("processing/batch-001/"), eq(2), eq("unreadable"),
+                eq(2), eq(List.of("processing/batch-001/a.txt", "processing/batch-001/b.txt")), eq(failure));
+    }
+
+    @Test
+    void testLogSampler_ReportsSuppressedCountOnNextPermit() throws Exception {
+        // Given
+        LogSampler sampler = new LogSampler(50, 2);
+
+        // When / Then
+        assertEquals(0, sampler.acquire());
+        assertEquals(0, sampler.acquire());
+        assertEquals(-1, sampler.acquire());
+        assertEquals(-1, sampler.acquire());
+        Thread.sleep(60);
+        assertEquals(2, sampler.acquire());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.local.InMemoryS3Client;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyVerifierTest {
+
+    private InMemoryS3Client store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryS3Client();
+        store.createBucket(CreateBucketRequest.builder().bucket("test-bucket").build());
+    }
+
+    @Test
+    void testCopy_MatchesSourceChecksum() {
+        // Given: a source uploaded with a CRC32C checksum
+        store.putObject(PutObjectRequest.builder().bucket("test-bucket").key("pending/file1.txt")
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32_C).build(), RequestBody.fromString("payload"));
+        CopyVerifier verifier = new CopyVerifier(store, ChecksumAlgorithm.CRC32_C);
+
+        // When
+        verifier.copy("test-bucket", "pending/file1.txt", "processing/batch-001/file1.txt");
+
+        // Then
+        HeadObjectResponse copy = store.headObject(HeadObjectRequest.builder().bucket("test-bucket")
+                .key("processing/batch-001/file1.txt").checksumMode(ChecksumMode.ENABLED).build());
+        HeadObjectResponse source = store.headObject(HeadObjectRequest.builder().bucket("test-bucket")
+                .key("pending/file1.txt").checksumMode(ChecksumMode.ENABLED).build());
+        assertNotNull(copy.checksumCRC32C());
+        assertEquals(source.checksumCRC32C(), copy.checksumCRC32C());
+    }
+
+    @Test
+    void testCopy_SourceWithoutChecksumVerifiedBySize() {
+        // Given
+        store.putSynthetic("test-bucket", "pending/file1.txt", 64, "\"etag1\"", Instant.now());
+        CopyVerifier verifier = new CopyVerifier(store, ChecksumAlgorithm.SHA256);
+
+        // When
+        verifier.copy("test-bucket", "pending/file1.txt", "processing/batch-001/file1.txt");
+
+        // Then: the destination carries the requested checksum from now on
+        HeadObjectResponse copy = store.headObject(HeadObjectRequest.builder().bucket("test-bucket")
+                .key("processing/batch-001/file1.txt").checksumMode(ChecksumMode.ENABLED).build());
+        assertEquals(64L, copy.contentLength());
+        assertNotNull(copy.checksumSHA256());
+    }
+
+    @Test
+    void testCopy_CorruptedCopyIsRemovedAndFails() {
+        // Given: a store whose copies land truncated
+        InMemoryS3Client corrupting = new InMemoryS3Client() {
+            @Override
+            public CopyObjectResponse copyObject(CopyObjectRequest request) {
+                CopyObjectResponse response = super.copyObject(request);
+                putObject(PutObjectRequest.builder().bucket(request.destinationBucket()).key(request.destinationKey())
+                        .checksumAlgorithm(request.checksumAlgorithm()).build(), RequestBody.fromString("pay"));
+                return response;
+            }
+        };
+        corrupting.createBucket(CreateBucketRequest.builder().bucket("test-bucket").build());
+        corrupting.putObject(PutObjectRequest.builder().bucket("test-bucket").key("pending/file1.txt")
+                .checksumAlgorithm(ChecksumAlgorithm.CRC32_C).build(), RequestBody.fromString("payload"));
+        CopyVerifier verifier = new CopyVerifier(corrupting, ChecksumAlgorithm.CRC32_C);
+
+        // When / Then
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> verifier.copy("test-bucket", "pending/file1.txt", "processing/batch-001/file1.txt"));
+        assertTrue(e.getMessage().contains("pending/file1.txt"));
+        assertEquals(0, corrupting.countObjects("test-bucket", "processing/"));
+        assertEquals(1, corrupting.countObjects("test-bucket", "pending/"));
+    }
+}
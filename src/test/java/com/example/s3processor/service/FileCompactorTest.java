@@ -0,0 +1,105 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.model.CompactionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FileCompactorTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private AppConfig config;
+
+    private FileCompactor fileCompactor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        fileCompactor = new FileCompactor(s3Client, config);
+
+        when(config.getCompactionSmallFileBytes()).thenReturn(100L);
+        when(config.getCompactionTargetBytes()).thenReturn(250L);
+        when(config.getCompactionConcurrency()).thenReturn(2);
+    }
+
+    @Test
+    void testPlanUnits_GroupsSmallFilesUpToTarget() {
+        // Given
+        List<S3Object> sources = List.of(
+                object("pending/a", 90), object("pending/b", 90), object("pending/big", 500),
+                object("pending/c", 90), object("pending/d", 90), object("pending/e", 90));
+
+        // When
+        List<List<S3Object>> units = fileCompactor.planUnits(sources);
+
+        // Then
+        assertEquals(4, units.size());
+        assertEquals("pending/big", units.get(0).get(0).key()); // large files are never compacted
+        assertEquals(List.of("pending/a", "pending/b"), keys(units.get(1)));
+        assertEquals(List.of("pending/c", "pending/d"), keys(units.get(2)));
+        assertEquals(List.of("pending/e"), keys(units.get(3))); // a lone small file is moved as-is
+    }
+
+    @Test
+    void testPlanUnits_NeverCompactsEmptyFiles() {
+        // Given
+        List<S3Object> sources = List.of(object("pending/a", 90), object("pending/empty", 0), object("pending/b", 90));
+
+        // When
+        List<List<S3Object>> units = fileCompactor.planUnits(sources);
+
+        // Then: the empty file stays visible to validation
+        assertEquals(2, units.size());
+        assertEquals(List.of("pending/empty"), keys(units.get(0)));
+        assertEquals(List.of("pending/a", "pending/b"), keys(units.get(1)));
+    }
+
+    @Test
+    void testCompact_WritesIndexWithOffsets() throws Exception {
+        // Given
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(s3Client.getObjectAsBytes(any(GetObjectRequest.class)))
+                .thenReturn(ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), new byte[3]))
+                .thenReturn(ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), new byte[5]));
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag-1").build());
+
+        // When
+        CompactionIndex index = fileCompactor.compact("test-bucket",
+                List.of(object("pending/a", 3), object("pending/b", 5)), "processing/batch-001/compacted.dat");
+
+        // Then
+        assertEquals(8L, index.getTotalBytes());
+        assertEquals(3L, index.getEntries().get(1).getOffset());
+        assertEquals(5L, index.getEntries().get(1).getLength());
+        ArgumentCaptor<PutObjectRequest> indexRequest = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(indexRequest.capture(), any(RequestBody.class));
+        assertEquals("processing/batch-001/compacted.dat.index.json", indexRequest.getValue().key());
+        verify(s3Client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    private static List<String> keys(List<S3Object> unit) {
+        return unit.stream().map(S3Object::key).toList();
+    }
+
+    private static S3Object object(String key, long size) {
+        return S3Object.builder().key(key).size(size).build();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.model.DuplicateReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FileDeduplicatorTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private AppConfig config;
+
+    private FileDeduplicator fileDeduplicator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        fileDeduplicator = new FileDeduplicator(s3Client, config);
+    }
+
+    @Test
+    void testDeduplicate_KeepsFirstCopyByETagAndSize() {
+        // Given
+        List<S3Object> sources = List.of(
+                object("pending/a", "\"e1\"", 10), object("pending/b", "\"e2\"", 10),
+                object("pending/c", "\"e1\"", 10), object("pending/d", "\"e1\"", 10));
+
+        // When
+        FileDeduplicator.Result result = fileDeduplicator.deduplicate("test-bucket", "pending/", sources);
+
+        // Then
+        assertEquals(List.of("pending/a", "pending/b"), keys(result.getUniqueObjects()));
+        assertEquals(List.of("pending/c", "pending/d"), result.getDuplicateKeys());
+        DuplicateReport report = result.getReport();
+        assertEquals(2, report.getDuplicateFiles());
+        assertEquals(20L, report.getDuplicateBytes());
+        assertEquals(1, report.getGroups().size());
+        assertEquals("pending/a", report.getGroups().get(0).getCanonicalKey());
+        verify(s3Client, never()).getObject(any(GetObjectRequest.class));
+    }
+
+    @Test
+    void testDeduplicate_MatchesOnlyEqualETagAndSize() {
+        // Given
+        List<S3Object> sources = List.of(
+                object("pending/a", "\"e1\"", 10), object("pending/b", "\"e1\"", 11),
+                object("pending/c", "e1", 11), object("pending/d", null, 10), object("pending/e", null, 10));
+
+        // When
+        FileDeduplicator.Result result = fileDeduplicator.deduplicate("test-bucket", "pending/", sources);
+
+        // Then
+        assertEquals(List.of("pending/a", "pending/b", "pending/d", "pending/e"), keys(result.getUniqueObjects()));
+        assertEquals(List.of("pending/c"), result.getDuplicateKeys());
+        assertEquals("pending/b", result.getReport().getGroups().get(0).getCanonicalKey());
+    }
+
+    @Test
+    void testDeduplicate_ChecksumsOnlyMultipartFilesOfEqualSize() {
+        // Given
+        Map<String, String> contents = Map.of(
+                "pending/a", "same-content", "pending/b", "same-content", "pending/c", "different!!!");
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            byte[] bytes = contents.get(request.key()).getBytes(StandardCharsets.UTF_8);
+            return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                    AbortableInputStream.create(new ByteArrayInputStream(bytes)));
+        });
+        List<S3Object> sources = List.of(
+                object("pending/a", "\"m1-2\"", 12), object("pending/b", "\"m2-2\"", 12),
+                object("pending/c", "\"m3-2\"", 12), object("pending/d", "\"m4-3\"", 99));
+
+        // When
+        FileDeduplicator.Result result = fileDeduplicator.deduplicate("test-bucket", "pending/", sources);
+
+        // Then
+        assertEquals(List.of("pending/a", "pending/c", "pending/d"), keys(result.getUniqueObjects()));
+        assertEquals(List.of("pending/b"), result.getDuplicateKeys());
+        verify(s3Client, times(3)).getObject(any(GetObjectRequest.class)); // pending/d has no size match
+    }
+
+    @Test
+    void testDeduplicate_StopsReadingContentAtDeadline() {
+        // Given
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation ->
+                new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                        AbortableInputStream.create(new ByteArrayInputStream(new byte[12]))));
+        List<S3Object> sources = List.of(
+                object("pending/a", "\"m1-2\"", 12), object("pending/b", "\"m2-2\"", 12),
+                object("pending/c", "\"m3-2\"", 12));
+
+        // When: the deadline has already passed, so only the first file is read
+        FileDeduplicator.Result result = fileDeduplicator.deduplicate("test-bucket", "pending/", sources, 0L);
+
+        // Then: the files after it are left for a later invocation
+        assertFalse(result.isComplete());
+        assertEquals(List.of("pending/a"), keys(result.getUniqueObjects()));
+        assertTrue(result.getDuplicateKeys().isEmpty());
+        verify(s3Client, times(1)).getObject(any(GetObjectRequest.class));
+    }
+
+    private static S3Object object(String key, String eTag, long size) {
+        return S3Object.builder().key(key).eTag(eTag).size(size).build();
+    }
+
+    private static List<String> keys(List<S3Object> objects) {
+        return objects.stream().map(S3Object::key).collect(Collectors.toList());
+    }
+}
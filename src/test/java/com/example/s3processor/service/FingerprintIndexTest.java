@@ -0,0 +1,42 @@
+package com.example.s3processor.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FingerprintIndexTest {
+
+    @Test
+    void testPutIfAbsent_KeepsEntriesWhoseFingerprintsCollide() {
+        // Given
+        String[] contents = {"first", "second", "first", "second"};
+        FingerprintIndex index = new FingerprintIndex(4);
+
+        // When
+        int[] canonical = new int[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            String content = contents[i];
+            canonical[i] = index.putIfAbsent(42L, i, recorded -> contents[recorded].equals(content));
+        }
+
+        // Then
+        assertArrayEquals(new int[] {-1, -1, 0, 1}, canonical);
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testPutIfAbsent_IndexesZeroFingerprintAndGrows() {
+        // Given
+        FingerprintIndex index = new FingerprintIndex(1);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            assertEquals(-1, index.putIfAbsent(i, i));
+        }
+
+        // Then
+        assertEquals(100, index.size());
+        assertEquals(0, index.putIfAbsent(0L, 500));
+        assertEquals(99, index.putIfAbsent(99L, 500));
+    }
+}
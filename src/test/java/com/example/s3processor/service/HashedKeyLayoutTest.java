@@ -0,0 +1,40 @@
+package com.example.s3processor.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedKeyLayoutTest {
+
+    @Test
+    void testDestinationKey_ShardAheadOfBatchSegment() {
+        // Given
+        HashedKeyLayout layout = new HashedKeyLayout(16);
+
+        // When
+        String destKey = layout.destinationKey("processing/batch-001/", "file1.txt");
+
+        // Then
+        String shard = String.format("%02x", layout.shardOf("file1.txt"));
+        assertEquals("processing/" + shard + "/batch-001/file1.txt", destKey);
+    }
+
+    @Test
+    void testListingPrefixes_CoverEveryDestinationKey() {
+        // Given
+        HashedKeyLayout layout = new HashedKeyLayout(4);
+
+        // When
+        List<String> prefixes = layout.listingPrefixes("processing/batch-002/");
+
+        // Then
+        assertEquals(4, prefixes.size());
+        assertEquals("processing/00/batch-002/", prefixes.get(0));
+        for (String fileName : List.of("a.csv", "b.csv", "c.csv", "d.csv", "e.csv")) {
+            String destKey = layout.destinationKey("processing/batch-002/", fileName);
+            assertTrue(prefixes.stream().anyMatch(destKey::startsWith), destKey);
+        }
+    }
+}
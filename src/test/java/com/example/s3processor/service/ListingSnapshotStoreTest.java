@@ -0,0 +1,39 @@
+package com.example.s3processor.service;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListingSnapshotStoreTest {
+
+    @Test
+    void testEncode_RoundTripsKeysSizesAndETags() throws Exception {
+        // Given: sorted keys sharing long prefixes, including non-ASCII keys and a missing ETag
+        List<S3Object> listing = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            listing.add(S3Object.builder()
+                    .key(String.format("pending/2024/05/01/file-%05d.json", i))
+                    .size((long) i * 1024)
+                    .lastModified(Instant.ofEpochMilli(1714521600000L + i))
+                    .eTag("\"" + Integer.toHexString(i) + "\"")
+                    .build());
+        }
+        listing.add(S3Object.builder().key("pending/donn\u00e9es/\u00e9.txt").size(5L)
+                .lastModified(Instant.ofEpochMilli(1714521700000L)).build());
+
+        // When
+        byte[] encoded = ListingSnapshotStore.encode(listing);
+        List<S3Object> decoded = ListingSnapshotStore.decode(encoded);
+
+        // Then: far smaller than the keys alone
+        assertEquals(listing, decoded);
+        int keyBytes = listing.stream().mapToInt(object -> object.key().getBytes(StandardCharsets.UTF_8).length).sum();
+        assertTrue(encoded.length < keyBytes, "encoded " + encoded.length + " bytes for " + keyBytes + " key bytes");
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.local.InMemoryS3Client;
+import com.example.s3processor.local.OperationStats;
+import com.example.s3processor.model.MoveResult;
+import com.example.s3processor.model.StageStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MovePipelineTest {
+
+    @Mock
+    private AppConfig config;
+
+    private InMemoryS3Client store;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        store = new InMemoryS3Client();
+        store.createBucket(CreateBucketRequest.builder().bucket("test-bucket").build());
+
+        when(config.isMovePipelineEnabled()).thenReturn(true);
+        when(config.getBatchSize()).thenReturn(10);
+        when(config.getMovePipelineCopyConcurrency()).thenReturn(4);
+        when(config.getMovePipelineDeleteConcurrency()).thenReturn(2);
+        when(config.getMovePipelineQueueCapacity()).thenReturn(8);
+    }
+
+    @Test
+    void testMove_MovesEveryFileIntoListingOrderBatches() {
+        // Given: more files than the queues hold, so the stages apply backpressure
+        for (int i = 0; i < 25; i++) {
+            store.putSynthetic("test-bucket", String.format("pending/file%02d.txt", i), 10, "\"etag" + i + "\"", Instant.now());
+        }
+        MovePipeline pipeline = new MovePipeline(store, KeyLayout.fromConfig(config), null, config);
+
+        // When
+        MoveResult result = pipeline.move("test-bucket", "pending/", "processing/", null, 1, Long.MAX_VALUE);
+
+        // Then
+        assertTrue(result.isComplete());
+        assertEquals(25, result.getMovedFiles());
+        assertEquals(List.of("processing/batch-001/", "processing/batch-002/", "processing/batch-003/"),
+                result.getBatchPrefixes());
+        assertEquals(0, store.countObjects("test-bucket", "pending/"));
+        assertEquals(10, store.countObjects("test-bucket", "processing/batch-001/"));
+        assertEquals(5, store.countObjects("test-bucket", "processing/batch-003/"));
+        assertEquals(1, store.countObjects("test-bucket", "processing/batch-003/file24.txt"));
+
+        List<StageStats> stages = result.getStageStats();
+        assertEquals(List.of("list", "copy", "delete"), stages.stream().map(StageStats::getStage).toList());
+        assertEquals(25, stages.get(1).getItems());
+        assertEquals(25, stages.get(2).getItems());
+        // Sources are deleted in bulk, never one request per file
+        assertEquals(0, store.getOperationStats().stream()
+                .filter(stats -> "DeleteObject".equals(stats.getOperation()))
+                .mapToLong(OperationStats::getRequests).sum());
+    }
+
+    @Test
+    void testMove_StopsAtDeadlineWithContinuation() {
+        // Given
+        for (int i = 0; i < 25; i++) {
+            store.putSynthetic("test-bucket", String.format("pending/file%02d.txt", i), 10, "\"etag" + i + "\"", Instant.now());
+        }
+        MovePipeline pipeline = new MovePipeline(store, KeyLayout.fromConfig(config), null, config);
+
+        // When: the deadline has already passed, so only the first batch is moved
+        MoveResult first = pipeline.move("test-bucket", "pending/", "processing/", null, 4, 0L);
+
+        // Then
+        assertFalse(first.isComplete());
+        assertEquals(List.of("processing/batch-004/"), first.getBatchPrefixes());
+        assertEquals(10, first.getMovedFiles());
+        assertEquals("pending/file09.txt", first.getStartAfter());
+        assertEquals(5, first.getNextBatchNumber());
+        assertEquals(15, store.countObjects("test-bucket", "pending/"));
+
+        // When
+        MoveResult second = pipeline.move("test-bucket", "pending/", "processing/",
+                first.getStartAfter(), first.getNextBatchNumber(), Long.MAX_VALUE);
+
+        // Then
+        assertTrue(second.isComplete());
+        assertEquals(List.of("processing/batch-005/", "processing/batch-006/"), second.getBatchPrefixes());
+        assertEquals(0, store.countObjects("test-bucket", "pending/"));
+        assertEquals(25, store.countObjects("test-bucket", "processing/"));
+    }
+
+    @Test
+    void testMove_RecordsOneBatchEventPerBatchWhenEnabled() throws Exception {
+        // Given
+        when(config.isJfrEventsEnabled()).thenReturn(true);
+        for (int i = 0; i < 25; i++) {
+            store.putSynthetic("test-bucket", String.format("pending/file%02d.txt", i), 10, "\"etag" + i + "\"", Instant.now());
+        }
+        MovePipeline pipeline = new MovePipeline(store, KeyLayout.fromConfig(config), null, config);
+        Path dump = Files.createTempFile("move-pipeline", ".jfr");
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.s3processor.Batch");
+            recording.start();
+            pipeline.move("test-bucket", "pending/", "processing/", null, 1, Long.MAX_VALUE);
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        // Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        Files.delete(dump);
+        assertEquals(3, events.size());
+        assertTrue(events.stream().allMatch(event -> "move".equals(event.getString("stage"))
+                && "OK".equals(event.getString("outcome"))));
+        assertEquals(25, events.stream().mapToLong(event -> event.getLong("files")).sum());
+        assertEquals(250, events.stream().mapToLong(event -> event.getLong("bytes")).sum());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.model.RunStats;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunStatsCollectorTest {
+
+    @Test
+    void testFinish_CountsOnlyRequestsMadeDuringTheRun() {
+        // Given: traffic from before the run started
+        RequestCounter counter = new RequestCounter();
+        counter.recordCall("ListObjectsV2");
+        RunStatsCollector collector = new RunStatsCollector(counter);
+
+        // When: two copies, one of them retried once, and a listing
+        counter.recordCall("CopyObject");
+        counter.recordCall("CopyObject");
+        counter.beforeTransmission(null, new ExecutionAttributes());
+        counter.recordCall("ListObjectsV2");
+        String listed = collector.phase("list", () -> "done");
+        collector.addPhase("move", 40);
+        collector.addPhase("move", 2);
+        RunStats stats = collector.finish(100, 2048);
+
+        // Then
+        assertEquals("done", listed);
+        assertEquals(Map.of("CopyObject", 2L, "ListObjectsV2", 1L), stats.getRequests());
+        assertEquals(1L, stats.getRetries());
+        assertEquals(List.of("list", "move"), List.copyOf(stats.getPhaseMillis().keySet()));
+        assertEquals(42L, stats.getPhaseMillis().get("move"));
+        assertEquals(100, stats.getFiles());
+        assertEquals(2048, stats.getBytes());
+        assertTrue(stats.getFilesPerSecond() > 0);
+    }
+
+    @Test
+    void testFinish_WithoutCounterLeavesRequestsOut() {
+        // Given
+        RunStatsCollector collector = new RunStatsCollector(null);
+
+        // When
+        RunStats stats = collector.finish(0, 0);
+
+        // Then
+        assertNull(stats.getRequests());
+        assertNull(stats.getRetries());
+        assertEquals(0.0, stats.getFilesPerSecond());
+    }
+}
@@ -1,18 +1,28 @@
 package com.example.s3processor.service;
 
 import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.config.PriorityLane;
+import com.example.s3processor.local.InMemoryS3Client;
+import com.example.s3processor.model.BacklogSnapshot;
+import com.example.s3processor.model.CopyJobStatus;
+import com.example.s3processor.model.MoveResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class S3ServiceTest {
@@ -79,6 +89,86 @@ class S3ServiceTest {
         assertEquals("pending/file2.txt", files.get(1));
     }
 
+    @Test
+    void testListBatchFiles_LeavesOutCompactionIndexes() {
+        // Given
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(ListObjectsV2Response.builder()
+                .contents(
+                        S3Object.builder().key("processing/batch-001/compacted-1.dat").build(),
+                        S3Object.builder().key("processing/batch-001/compacted-1.dat" + FileCompactor.INDEX_SUFFIX).build(),
+                        S3Object.builder().key("processing/batch-001/file1.txt").build()
+                )
+                .isTruncated(false)
+                .build());
+
+        // When
+        List<String> files = s3Service.listBatchFiles("test-bucket", "processing/batch-001/");
+
+        // Then
+        assertEquals(List.of("processing/batch-001/compacted-1.dat", "processing/batch-001/file1.txt"), files);
+    }
+
+    @Test
+    void testSnapshotFiles_StableFingerprint() {
+        // Given
+        ListObjectsV2Response response = ListObjectsV2Response.builder()
+                .contents(
+                        S3Object.builder().key("pending/file1.txt").size(10L).build(),
+                        S3Object.builder().key("pending/file2.txt").size(20L).build(),
+                        S3Object.builder().key("pending/").build() // Should be excluded
+                )
+                .isTruncated(false)
+                .build();
+
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(response);
+
+        // When
+        BacklogSnapshot first = s3Service.snapshotFiles("test-bucket", "pending/");
+        BacklogSnapshot second = s3Service.snapshotFiles("test-bucket", "pending/");
+
+        // Then
+        assertEquals(2L, first.getFileCount());
+        assertEquals(64, first.getFingerprint().length());
+        assertEquals(first.getFingerprint(), second.getFingerprint());
+    }
+
+    @Test
+    void testPriorityLanes_SnapshotAndMoveOnlyTheirOwnFiles() {
+        // Given: urgent files by prefix and by pattern, among bulk files
+        InMemoryS3Client store = new InMemoryS3Client();
+        store.createBucket(CreateBucketRequest.builder().bucket("test-bucket").build());
+        for (String key : List.of("pending/urgent/a.txt", "pending/urgent/b.txt", "pending/feed/x.alert.json",
+                "pending/feed/y.json", "pending/file1.txt", "pending/file2.txt", "pending/file3.txt")) {
+            store.putSynthetic("test-bucket", key, 10, "\"" + key.hashCode() + "\"", Instant.now());
+        }
+        List<PriorityLane> lanes = List.of(
+                new PriorityLane("urgent", "urgent/", 1, 2, 1),
+                new PriorityLane("alerts", "**/*.alert.json", 1, 10, 1));
+        when(config.getPriorityLanes()).thenReturn(lanes);
+        S3Service laneService = new S3Service(store, config);
+
+        // When
+        List<BacklogSnapshot> snapshots = laneService.snapshotLanes("test-bucket", "pending/", lanes);
+        MoveResult urgent = laneService.moveFiles("test-bucket", "pending/", "processing/urgent/",
+                null, 1, Long.MAX_VALUE, "urgent");
+
+        // Then: each file counts once, in the first matching lane, and bulk comes last
+        assertEquals(List.of("urgent", "alerts", PriorityLane.BULK),
+                snapshots.stream().map(BacklogSnapshot::getLane).toList());
+        assertEquals(List.of(2L, 1L, 4L), snapshots.stream().map(BacklogSnapshot::getFileCount).toList());
+        assertEquals(List.of("processing/urgent/batch-001/"), urgent.getBatchPrefixes());
+        assertEquals(2, urgent.getMovedFiles());
+
+        // When: the bulk lane leaves the remaining priority file alone
+        MoveResult bulk = laneService.moveFiles("test-bucket", "pending/", "processing/",
+                null, 1, Long.MAX_VALUE, PriorityLane.BULK);
+
+        // Then
+        assertEquals(4, bulk.getMovedFiles());
+        assertEquals(1, store.countObjects("test-bucket", "pending/"));
+        assertEquals(1, store.countObjects("test-bucket", "pending/feed/x.alert.json"));
+    }
+
     @Test
     void testIsFileEmpty_EmptyFile() {
         // Given
@@ -124,4 +214,249 @@ class S3ServiceTest {
 
         assertTrue(exception.getMessage().contains("Failed to count files in S3"));
     }
+
+    @Test
+    void testMoveFiles_SubmitsCopyJobsAboveThresholdAndKeepsSources() {
+        // Given
+        LocalCopyJobClient copyJobClient = new LocalCopyJobClient("Active", 0);
+        when(config.getBatchOperationsThreshold()).thenReturn(2);
+        when(config.getBatchOperationsBatchSize()).thenReturn(10000);
+        when(config.getBatchOperationsManifestPrefix()).thenReturn("manifests/");
+        when(config.getBatchOperationsReportPrefix()).thenReturn("reports/batchops/");
+        S3Service offloadingService = new S3Service(s3Client, copyJobClient, config);
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(ListObjectsV2Response.builder()
+                .contents(
+                        S3Object.builder().key("pending/file1.txt").build(),
+                        S3Object.builder().key("pending/file 2.txt").build()
+                )
+                .isTruncated(false)
+                .build());
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().eTag("\"abc123\"").build());
+
+        // When
+        MoveResult result = offloadingService.moveFiles("test-bucket", "pending/", "processing/");
+
+        // Then: one job fills the batch, and the sources wait for its completion report
+        assertEquals(List.of("processing/batch-001/"), result.getBatchPrefixes());
+        assertEquals(List.of("job-1"), result.getCopyJobIds());
+        assertEquals(1, copyJobClient.submissions.size());
+        assertEquals("abc123", copyJobClient.submissions.get(0)[0]);
+        assertEquals("processing/batch-001", copyJobClient.submissions.get(0)[1]);
+        assertEquals("reports/batchops/", copyJobClient.submissions.get(0)[2]);
+        verify(s3Client, never()).copyObject(any(CopyObjectRequest.class));
+        verify(s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    void testMoveFiles_StopsSubmittingCopyJobsAtDeadline() {
+        // Given
+        InMemoryS3Client store = new InMemoryS3Client();
+        store.createBucket(CreateBucketRequest.builder().bucket("test-bucket").build());
+        for (int i = 0; i < 3; i++) {
+            store.putSynthetic("test-bucket", "pending/file" + i + ".txt", 10, "\"etag" + i + "\"", Instant.now());
+        }
+        LocalCopyJobClient copyJobClient = new LocalCopyJobClient("Active", 0);
+        when(config.getBatchOperationsThreshold()).thenReturn(2);
+        when(config.getBatchOperationsBatchSize()).thenReturn(2);
+        when(config.getBatchOperationsManifestPrefix()).thenReturn("manifests/");
+        when(config.getBatchOperationsReportPrefix()).thenReturn("reports/batchops/");
+        S3Service offloadingService = new S3Service(store, copyJobClient, config);
+
+        // When: the deadline has already passed, so only the first batch is submitted
+        MoveResult result = offloadingService.moveFiles("test-bucket", "pending/", "processing/", null, 1, 0L);
+
+        // Then
+        assertFalse(result.isComplete());
+        assertEquals(List.of("job-1"), result.getCopyJobIds());
+        assertEquals(List.of("processing/batch-001/"), result.getBatchPrefixes());
+        assertEquals(2, result.getMovedFiles());
+        assertEquals("pending/file1.txt", result.getStartAfter());
+        assertEquals(2, result.getNextBatchNumber());
+    }
+
+    @Test
+    void testCompleteCopyJobs_WaitsForRunningJobs() {
+        // Given
+        LocalCopyJobClient copyJobClient = new LocalCopyJobClient("Active", 0);
+        S3Service offloadingService = new S3Service(s3Client, copyJobClient, config);
+
+        // When
+        MoveResult result = offloadingService.completeCopyJobs("test-bucket", List.of("job-1"),
+                List.of("processing/batch-001/"));
+
+        // Then
+        assertEquals(List.of("job-1"), result.getCopyJobIds());
+        verify(s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    void testCompleteCopyJobs_DeletesOnlySourcesReportedCopied() {
+        // Given: the job copied one of two files
+        InMemoryS3Client store = new InMemoryS3Client();
+        store.createBucket(CreateBucketRequest.builder().bucket("test-bucket").build());
+        store.putSynthetic("test-bucket", "pending/file1.txt", 10, "\"etag1\"", Instant.now());
+        store.putSynthetic("test-bucket", "pending/file 2.txt", 10, "\"etag2\"", Instant.now());
+        store.putObject(PutObjectRequest.builder().bucket("test-bucket").key("reports/batchops/job-job-1/manifest.json").build(),
+                RequestBody.fromString("{\"Format\":\"Report_CSV_20180820\",\"Results\":["
+                        + "{\"TaskExecutionStatus\":\"succeeded\",\"Bucket\":\"test-bucket\","
+                        + "\"Key\":\"reports/batchops/job-job-1/results/succeeded.csv\"},"
+                        + "{\"TaskExecutionStatus\":\"failed\",\"Bucket\":\"test-bucket\","
+                        + "\"Key\":\"reports/batchops/job-job-1/results/failed.csv\"}]}"));
+        store.putObject(PutObjectRequest.builder().bucket("test-bucket").key("reports/batchops/job-job-1/results/succeeded.csv").build(),
+                RequestBody.fromString("test-bucket,pending/file1.txt,,succeeded,200,,Successful\n"));
+        store.putObject(PutObjectRequest.builder().bucket("test-bucket").key("reports/batchops/job-job-1/results/failed.csv").build(),
+                RequestBody.fromString("test-bucket,pending/file%202.txt,,failed,500,InternalError,\"We encountered an internal error, retry\"\n"));
+        when(config.getBatchOperationsReportPrefix()).thenReturn("reports/batchops/");
+        S3Service offloadingService = new S3Service(store, new LocalCopyJobClient("Complete", 1), config);
+
+        // When
+        MoveResult result = offloadingService.completeCopyJobs("test-bucket", List.of("job-1"),
+                List.of("processing/batch-001/"));
+
+        // Then: the failed copy's source stays for the next run
+        assertNull(result.getCopyJobIds());
+        assertTrue(result.isComplete());
+        assertEquals(1, result.getMovedFiles());
+        assertEquals(0, store.countObjects("test-bucket", "pending/file1.txt"));
+        assertEquals(1, store.countObjects("test-bucket", "pending/file 2.txt"));
+    }
+
+    @Test
+    void testCompleteCopyJobs_FailsWhenJobsCopiedNothing() {
+        // Given: the job failed before writing a completion report
+        InMemoryS3Client store = new InMemoryS3Client();
+        store.createBucket(CreateBucketRequest.builder().bucket("test-bucket").build());
+        store.putSynthetic("test-bucket", "pending/file1.txt", 10, "\"etag1\"", Instant.now());
+        when(config.getBatchOperationsReportPrefix()).thenReturn("reports/batchops/");
+        S3Service offloadingService = new S3Service(store, new LocalCopyJobClient("Failed", 0), config);
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> offloadingService.completeCopyJobs("test-bucket",
+                List.of("job-1"), List.of("processing/batch-001/")));
+        assertEquals(1, store.countObjects("test-bucket", "pending/"));
+    }
+
+    @Test
+    void testMoveFiles_StopsAtDeadlineAndResumesFromContinuation() {
+        // Given
+        InMemoryS3Client store = new InMemoryS3Client();
+        store.createBucket(CreateBucketRequest.builder().bucket("test-bucket").build());
+        for (int i = 0; i < 5; i++) {
+            store.putSynthetic("test-bucket", "pending/file" + i + ".txt", 10, "\"etag" + i + "\"", Instant.now());
+        }
+        when(config.getBatchSize()).thenReturn(2);
+        S3Service budgetedService = new S3Service(store, config);
+
+        // When: the deadline has already passed, so only the first batch is moved
+        MoveResult first = budgetedService.moveFiles("test-bucket", "pending/", "processing/", null, 1, 0L);
+
+        // Then
+        assertFalse(first.isComplete());
+        assertEquals(List.of("processing/batch-001/"), first.getBatchPrefixes());
+        assertEquals(2, first.getMovedFiles());
+        assertEquals("pending/file1.txt", first.getStartAfter());
+        assertEquals(2, first.getNextBatchNumber());
+
+        // When: a late file lands in the drained key range before the next invocation resumes
+        store.putSynthetic("test-bucket", "pending/file0-late.txt", 10, "\"late\"", Instant.now());
+        MoveResult second = budgetedService.moveFiles("test-bucket", "pending/", "processing/",
+                first.getStartAfter(), first.getNextBatchNumber(), Long.MAX_VALUE);
+
+        // Then: the remaining files are moved once into new batch numbers; the late file waits for the next run
+        assertTrue(second.isComplete());
+        assertEquals(List.of("processing/batch-002/", "processing/batch-003/"), second.getBatchPrefixes());
+        assertEquals(3, second.getMovedFiles());
+        assertEquals(5, store.countObjects("test-bucket", "processing/"));
+        assertEquals(1, store.countObjects("test-bucket", "pending/"));
+    }
+
+    @Test
+    void testMoveFiles_TransfersBatchesToDestinationBucket() {
+        // Given: a transfer engine that completes every copy but the last
+        InMemoryS3Client store = new InMemoryS3Client();
+        store.createBucket(CreateBucketRequest.builder().bucket("test-bucket").build());
+        for (int i = 0; i < 3; i++) {
+            store.putSynthetic("test-bucket", "pending/file" + i + ".txt", 10, "\"etag" + i + "\"", Instant.now());
+        }
+        when(config.getBatchSize()).thenReturn(2);
+        TransferEngine transferEngine = mock(TransferEngine.class);
+        when(transferEngine.getDestBucket()).thenReturn("processing-bucket");
+        when(transferEngine.copyAll(eq("test-bucket"), any())).thenAnswer(invocation -> {
+            Map<String, String> destKeys = invocation.getArgument(1);
+            return destKeys.keySet().stream().filter(key -> !key.equals("pending/file2.txt")).toList();
+        });
+        S3Service transferService = new S3Service(store, null, transferEngine, config);
+
+        // When & Then: the failed copy fails the run after the first batch was moved
+        assertThrows(RuntimeException.class, () ->
+                transferService.moveFiles("test-bucket", "pending/", "processing/", null, 1, Long.MAX_VALUE));
+
+        // Then: each batch was handed to the engine whole, and only copied sources were deleted
+        verify(transferEngine).copyAll("test-bucket", Map.of(
+                "pending/file0.txt", "processing/batch-001/file0.txt",
+                "pending/file1.txt", "processing/batch-001/file1.txt"));
+        verify(transferEngine).copyAll("test-bucket", Map.of("pending/file2.txt", "processing/batch-002/file2.txt"));
+        assertEquals(1, store.countObjects("test-bucket", "pending/"));
+        assertEquals(0, store.countObjects("test-bucket", "processing/"));
+        assertEquals("processing-bucket", transferService.getBatchBucketName("test-bucket"));
+    }
+
+    @Test
+    void testMoveFiles_StartsFromHandedOffListing() {
+        // Given: the monitor snapshots three files and hands its listing off on trigger
+        InMemoryS3Client store = new InMemoryS3Client();
+        store.createBucket(CreateBucketRequest.builder().bucket("test-bucket").build());
+        for (int i = 1; i <= 3; i++) {
+            store.putSynthetic("test-bucket", "pending/file" + i + ".txt", 10, "\"etag" + i + "\"", Instant.now());
+        }
+        when(config.isListingHandoffEnabled()).thenReturn(true);
+        when(config.getListingHandoffMaxFiles()).thenReturn(100);
+        when(config.getMonitorStatePrefix()).thenReturn("monitor-state/");
+        S3Service handoffService = new S3Service(store, config);
+        BacklogSnapshot snapshot = handoffService.snapshotFiles("test-bucket", "pending/");
+        handoffService.handOffListing(snapshot);
+
+        // When: files arrive before and after the last handed-off key, then batching runs
+        store.putSynthetic("test-bucket", "pending/file0.txt", 10, "\"early\"", Instant.now());
+        store.putSynthetic("test-bucket", "pending/file9.txt", 10, "\"late\"", Instant.now());
+        MoveResult result = handoffService.moveFiles("test-bucket", "pending/", "processing/",
+                null, 1, Long.MAX_VALUE, null, snapshot.getListingKey());
+
+        // Then: the listing plus the files after it are moved, the listing is consumed,
+        // and the file sorting before its last key waits for the next run
+        assertNotNull(snapshot.getListingKey());
+        assertEquals(4, result.getMovedFiles());
+        assertEquals(1, store.countObjects("test-bucket", "pending/"));
+        assertEquals(1, store.countObjects("test-bucket", "pending/file0.txt"));
+        assertEquals(0, store.countObjects("test-bucket", "monitor-state/listings/"));
+    }
+
+    /**
+     * In-memory stand-in for S3 Batch Operations that reports every job in one fixed status
+     */
+    private static class LocalCopyJobClient implements CopyJobClient {
+
+        private final List<String[]> submissions = new ArrayList<>();
+        private final String finalStatus;
+        private final long failedTasks;
+
+        LocalCopyJobClient(String finalStatus, long failedTasks) {
+            this.finalStatus = finalStatus;
+            this.failedTasks = failedTasks;
+        }
+
+        @Override
+        public String submitCopyJob(String manifestBucket, String manifestKey, String manifestETag,
+                                    String targetBucket, String targetKeyPrefix, String reportPrefix,
+                                    String clientRequestToken) {
+            submissions.add(new String[] {manifestETag, targetKeyPrefix, reportPrefix});
+            return "job-" + submissions.size();
+        }
+
+        @Override
+        public CopyJobStatus describeJob(String jobId) {
+            return new CopyJobStatus(jobId, finalStatus, 1, 1 - failedTasks, failedTasks);
+        }
+    }
 }
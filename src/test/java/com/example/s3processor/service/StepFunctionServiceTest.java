@@ -0,0 +1,205 @@
+package com.example.s3processor.service;
+
+import com.example.s3processor.config.AppConfig;
+import com.example.s3processor.model.BacklogSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import software.amazon.awssdk.services.sfn.SfnClient;
+import software.amazon.awssdk.services.sfn.model.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StepFunctionServiceTest {
+
+    private static final String VALIDATION_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:file-validation-dev";
+    private static final String PROCESSING_ARN = "arn:aws:states:us-east-1:123456789012:stateMachine:file-processing-dev";
+
+    @Mock
+    private SfnClient sfnClient;
+
+    @Mock
+    private AppConfig config;
+
+    private StepFunctionService stepFunctionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(config.getEnvironment()).thenReturn("dev");
+        when(config.getFileValidationStateMachineArn()).thenReturn(VALIDATION_ARN);
+        when(config.getFileProcessingStateMachineArn()).thenReturn(PROCESSING_ARN);
+        when(config.getWorkflowLaunchConcurrency()).thenReturn(2);
+        when(config.getWorkflowLaunchMaxAttempts()).thenReturn(3);
+        when(sfnClient.listStateMachines(any(ListStateMachinesRequest.class)))
+                .thenReturn(ListStateMachinesResponse.builder().build());
+
+        stepFunctionService = new StepFunctionService(sfnClient, config);
+    }
+
+    @Test
+    void testStartFileValidationWorkflowsAsync_UniqueNamesInBatchOrder() {
+        // Given
+        when(sfnClient.startExecution(any(StartExecutionRequest.class)))
+                .thenAnswer(invocation -> {
+                    StartExecutionRequest request = invocation.getArgument(0);
+                    return StartExecutionResponse.builder()
+                            .executionArn("arn:execution:" + request.input())
+                            .build();
+                });
+
+        // When
+        List<String> arns = stepFunctionService
+                .startFileValidationWorkflowsAsync("test-bucket", List.of("processing/batch-001/",
+                        "processing/batch-002/", "processing/batch-003/"))
+                .join();
+
+        // Then
+        assertEquals(3, arns.size());
+        assertTrue(arns.get(0).contains("processing/batch-001/"));
+        assertTrue(arns.get(2).contains("processing/batch-003/"));
+        ArgumentCaptor<StartExecutionRequest> captor = ArgumentCaptor.forClass(StartExecutionRequest.class);
+        verify(sfnClient, times(3)).startExecution(captor.capture());
+        Set<String> names = new HashSet<>();
+        for (StartExecutionRequest request : captor.getAllValues()) {
+            assertEquals(VALIDATION_ARN, request.stateMachineArn());
+            assertTrue(request.name().startsWith("file-validation-"));
+            names.add(request.name());
+        }
+        assertEquals(3, names.size());
+    }
+
+    @Test
+    void testStartFileValidationWorkflowsAsync_BoundsLaunchesInFlight() {
+        // Given
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(sfnClient.startExecution(any(StartExecutionRequest.class)))
+                .thenAnswer(invocation -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    inFlight.decrementAndGet();
+                    return StartExecutionResponse.builder().executionArn("arn:execution:ok").build();
+                });
+
+        // When
+        List<String> arns = stepFunctionService
+                .startFileValidationWorkflowsAsync("test-bucket", List.of("processing/batch-001/",
+                        "processing/batch-002/", "processing/batch-003/", "processing/batch-004/",
+                        "processing/batch-005/", "processing/batch-006/"))
+                .join();
+
+        // Then: stepfunctions.launch.concurrency is 2
+        assertEquals(6, arns.size());
+        assertTrue(maxInFlight.get() <= 2);
+    }
+
+    @Test
+    void testStartFileValidationWorkflow_RetriesThrottling() {
+        // Given
+        SfnException throttled = (SfnException) SfnException.builder()
+                .statusCode(429)
+                .message("Rate exceeded")
+                .build();
+        when(sfnClient.startExecution(any(StartExecutionRequest.class)))
+                .thenThrow(throttled)
+                .thenReturn(StartExecutionResponse.builder().executionArn("arn:execution:ok").build());
+
+        // When
+        String arn = stepFunctionService.startFileValidationWorkflow("test-bucket", "processing/batch-001/");
+
+        // Then
+        assertEquals("arn:execution:ok", arn);
+        verify(sfnClient, times(2)).startExecution(any(StartExecutionRequest.class));
+    }
+
+    @Test
+    void testStartFileValidationWorkflow_StopsRetryingWhenInterrupted() {
+        // Given: the launching thread is interrupted before the throttling backoff
+        SfnException throttled = (SfnException) SfnException.builder()
+                .statusCode(429)
+                .message("Rate exceeded")
+                .build();
+        when(sfnClient.startExecution(any(StartExecutionRequest.class))).thenThrow(throttled);
+        Thread.currentThread().interrupt();
+
+        // When & Then
+        try {
+            RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                    stepFunctionService.startFileValidationWorkflow("test-bucket", "processing/batch-001/"));
+
+            assertInstanceOf(InterruptedException.class, exception.getCause());
+            assertTrue(Thread.currentThread().isInterrupted());
+            verify(sfnClient, times(1)).startExecution(any(StartExecutionRequest.class));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void testStartFileValidationWorkflow_GivesUpAfterMaxAttempts() {
+        // Given
+        when(sfnClient.startExecution(any(StartExecutionRequest.class)))
+                .thenThrow(ExecutionAlreadyExistsException.builder().message("exists").build());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                stepFunctionService.startFileValidationWorkflow("test-bucket", "processing/batch-001/"));
+
+        assertTrue(exception.getMessage().contains("Failed to start validation Step Function workflow"));
+        verify(sfnClient, times(3)).startExecution(any(StartExecutionRequest.class));
+    }
+
+    @Test
+    void testStartFileProcessingWorkflow_RestartsBacklogWhoseExecutionFailed() {
+        // Given: the backlog's first execution failed
+        BacklogSnapshot snapshot = new BacklogSnapshot("test-bucket", "pending/", 2500L, "a".repeat(64));
+        when(sfnClient.startExecution(any(StartExecutionRequest.class)))
+                .thenThrow(ExecutionAlreadyExistsException.builder().message("exists").build())
+                .thenAnswer(invocation -> StartExecutionResponse.builder()
+                        .executionArn("arn:execution:" + ((StartExecutionRequest) invocation.getArgument(0)).name())
+                        .build());
+        when(sfnClient.describeExecution(any(DescribeExecutionRequest.class)))
+                .thenReturn(DescribeExecutionResponse.builder().status(ExecutionStatus.FAILED).build());
+
+        // When
+        StepFunctionService.Launch launch = stepFunctionService.startFileProcessingWorkflow(snapshot);
+
+        // Then: a second attempt starts under the suffixed name
+        ArgumentCaptor<StartExecutionRequest> captor = ArgumentCaptor.forClass(StartExecutionRequest.class);
+        verify(sfnClient, times(2)).startExecution(captor.capture());
+        String firstName = captor.getAllValues().get(0).name();
+        assertEquals(firstName + "-2", captor.getAllValues().get(1).name());
+        assertTrue(launch.isStarted());
+        assertEquals("arn:execution:" + firstName + "-2", launch.getExecutionArn());
+    }
+
+    @Test
+    void testStartFileProcessingWorkflow_ReportsRunningExecutionAsNotStarted() {
+        // Given: the backlog's execution is still running
+        BacklogSnapshot snapshot = new BacklogSnapshot("test-bucket", "pending/", 2500L, "b".repeat(64));
+        when(sfnClient.startExecution(any(StartExecutionRequest.class)))
+                .thenThrow(ExecutionAlreadyExistsException.builder().message("exists").build());
+        when(sfnClient.describeExecution(any(DescribeExecutionRequest.class)))
+                .thenReturn(DescribeExecutionResponse.builder().status(ExecutionStatus.RUNNING).build());
+
+        // When
+        StepFunctionService.Launch launch = stepFunctionService.startFileProcessingWorkflow(snapshot);
+
+        // Then
+        assertFalse(launch.isStarted());
+        assertEquals("RUNNING", launch.getExistingStatus());
+        assertTrue(launch.getExecutionArn().startsWith(PROCESSING_ARN.replace(":stateMachine:", ":execution:")));
+        verify(sfnClient, times(1)).startExecution(any(StartExecutionRequest.class));
+    }
+}
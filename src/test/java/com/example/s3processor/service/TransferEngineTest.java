@@ -0,0 +1,54 @@
+package com.example.s3processor.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
+import software.amazon.awssdk.transfer.s3.model.CompletedCopy;
+import software.amazon.awssdk.transfer.s3.model.Copy;
+import software.amazon.awssdk.transfer.s3.model.CopyRequest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TransferEngineTest {
+
+    @Test
+    void testCopyAll_CopiesIntoDestinationBucketAndReportsFailures() {
+        // Given: the second of three copies fails
+        S3TransferManager transferManager = mock(S3TransferManager.class);
+        Copy completed = mock(Copy.class);
+        when(completed.completionFuture()).thenReturn(CompletableFuture.completedFuture(
+                CompletedCopy.builder().response(CopyObjectResponse.builder().build()).build()));
+        Copy failed = mock(Copy.class);
+        when(failed.completionFuture()).thenReturn(CompletableFuture.failedFuture(
+                SdkClientException.create("Connection reset")));
+        when(transferManager.copy(any(CopyRequest.class))).thenReturn(completed, failed, completed);
+        TransferEngine engine = new TransferEngine(transferManager, "processing-bucket");
+        Map<String, String> destKeys = new LinkedHashMap<>();
+        destKeys.put("pending/file1.txt", "processing/batch-001/file1.txt");
+        destKeys.put("pending/file2.txt", "processing/batch-001/file2.txt");
+        destKeys.put("pending/file3.txt", "processing/batch-001/file3.txt");
+
+        // When
+        List<String> copied = engine.copyAll("test-bucket", destKeys);
+
+        // Then: the failed copy is left out, and copies go from the source into the destination bucket
+        assertEquals(List.of("pending/file1.txt", "pending/file3.txt"), copied);
+        ArgumentCaptor<CopyRequest> requests = ArgumentCaptor.forClass(CopyRequest.class);
+        verify(transferManager, times(3)).copy(requests.capture());
+        CopyObjectRequest first = requests.getAllValues().get(0).copyObjectRequest();
+        assertEquals("test-bucket", first.sourceBucket());
+        assertEquals("pending/file1.txt", first.sourceKey());
+        assertEquals("processing-bucket", first.destinationBucket());
+        assertEquals("processing/batch-001/file1.txt", first.destinationKey());
+    }
+}